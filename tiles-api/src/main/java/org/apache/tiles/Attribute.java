@@ -24,8 +24,9 @@ package org.apache.tiles;
 import static org.apache.tiles.CompareUtil.*;
 
 import java.io.Serializable;
-import java.util.HashSet;
+import java.util.HashMap;
 import java.util.Iterator;
+import java.util.Map;
 import java.util.Set;
 
 import org.apache.tiles.request.Request;
@@ -43,7 +44,17 @@ public class Attribute implements Serializable, Cloneable {
     private static final String TEMPLATE_RENDERER = "template";
 
     /**
-     * The roles that can render this attribute.
+     * The name of the request-scoped attribute that stores, by role, whether
+     * the current user is in that role, so that each role is checked at most
+     * once per request.
+     *
+     * @since 3.0.6
+     */
+    public static final String USER_ROLES_ATTRIBUTE_NAME = "org.apache.tiles.Attribute.USER_ROLES";
+
+    /**
+     * The roles that can render this attribute. When set through
+     * {@link #setRole(String)} it is an immutable {@link RoleSet}.
      * @since 2.0.6
      */
     protected Set<String> roles = null;
@@ -189,6 +200,10 @@ public class Attribute implements Serializable, Cloneable {
      * @return the name of the required role(s)
      */
     public String getRole() {
+        if (roles instanceof RoleSet) {
+            return ((RoleSet) roles).getRole();
+        }
+
         String retValue = null;
 
         if (roles != null && !roles.isEmpty()) {
@@ -223,15 +238,7 @@ public class Attribute implements Serializable, Cloneable {
      * @param role Associated role.
      */
     public void setRole(String role) {
-        if (role != null && role.trim().length() > 0) {
-            String[] rolesStrings = role.split("\\s*,\\s*");
-            roles = new HashSet<String>();
-            for (int i = 0; i < rolesStrings.length; i++) {
-                roles.add(rolesStrings[i]);
-            }
-        } else {
-            roles = null;
-        }
+        roles = RoleSet.valueOf(role);
     }
 
     /**
@@ -348,7 +355,9 @@ public class Attribute implements Serializable, Cloneable {
     }
 
     /**
-     * Checks if the current user can use this attribute.
+     * Checks if the current user can use this attribute. Whether the user is
+     * in a role is asked to the request once, and then remembered in the
+     * request scope under {@link #USER_ROLES_ATTRIBUTE_NAME}.
      *
      * @param request The request context.
      * @return <code>true</code> if the current user can see this attribute.
@@ -359,11 +368,22 @@ public class Attribute implements Serializable, Cloneable {
             return true;
         }
 
+        Map<String, Boolean> userRoles = getUserRoles(request);
+        if (roles instanceof RoleSet) {
+            RoleSet roleSet = (RoleSet) roles;
+            for (int i = 0; i < roleSet.size(); i++) {
+                if (isUserInRole(request, userRoles, roleSet.get(i))) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
         boolean retValue = false;
 
         for (Iterator<String> roleIt = roles.iterator(); roleIt.hasNext()
                 && !retValue;) {
-            retValue = request.isUserInRole(roleIt.next());
+            retValue = isUserInRole(request, userRoles, roleIt.next());
         }
 
         return retValue;
@@ -381,4 +401,48 @@ public class Attribute implements Serializable, Cloneable {
     public Attribute clone() {
         return new Attribute(this);
     }
+
+    /**
+     * Returns the request-scoped map that stores whether the current user is
+     * in a role, creating it if needed.
+     *
+     * @param request The request.
+     * @return The map, or <code>null</code> if there is no request scope.
+     */
+    @SuppressWarnings("unchecked")
+    private static Map<String, Boolean> getUserRoles(Request request) {
+        Map<String, Object> requestScope = request.getContext("request");
+        if (requestScope == null) {
+            return null;
+        }
+        Map<String, Boolean> retValue = (Map<String, Boolean>) requestScope
+                .get(USER_ROLES_ATTRIBUTE_NAME);
+        if (retValue == null) {
+            retValue = new HashMap<String, Boolean>();
+            requestScope.put(USER_ROLES_ATTRIBUTE_NAME, retValue);
+        }
+        return retValue;
+    }
+
+    /**
+     * Checks if the current user is in a role, asking the request only if the
+     * role has not been checked yet.
+     *
+     * @param request The request.
+     * @param userRoles The already checked roles, or <code>null</code>.
+     * @param role The role to check.
+     * @return <code>true</code> if the current user is in the role.
+     */
+    private static boolean isUserInRole(Request request,
+            Map<String, Boolean> userRoles, String role) {
+        if (userRoles == null) {
+            return request.isUserInRole(role);
+        }
+        Boolean retValue = userRoles.get(role);
+        if (retValue == null) {
+            retValue = Boolean.valueOf(request.isUserInRole(role));
+            userRoles.put(role, retValue);
+        }
+        return retValue.booleanValue();
+    }
 }
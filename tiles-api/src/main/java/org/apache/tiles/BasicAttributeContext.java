@@ -31,6 +31,19 @@ import java.util.Set;
 
 /**
  * Basic implementation for <code>AttributeContext</code>.
+ * <p>
+ * Cascaded attributes are copied on write: copy constructors and
+ * {@link #inheritCascadedAttributes(AttributeContext)} share the cascaded
+ * attributes of the other context, that are copied only when one of the two
+ * contexts is going to modify them. So cascaded attributes obtained from a
+ * context must not be modified directly, since they may belong to other
+ * contexts too.
+ * </p>
+ * <p>
+ * Inherited attributes are put in the context as they are, so they may
+ * belong to definitions too: when a list attribute inherits the items of the
+ * parent one, it is replaced by a copy instead of being modified.
+ * </p>
  *
  * @version $Rev$ $Date$
  * @since 2.1.0
@@ -58,11 +71,20 @@ public class BasicAttributeContext implements AttributeContext, Serializable {
     protected Map<String, Attribute> attributes = null;
 
     /**
-     * Cascaded template attributes.
+     * Cascaded template attributes. It may be shared with other contexts, see
+     * {@link #cascadedAttributesShared}.
      * @since 2.1.0
      */
     protected Map<String, Attribute> cascadedAttributes = null;
 
+    /**
+     * <code>true</code> if {@link #cascadedAttributes} is shared with other
+     * contexts, and must be copied before being modified.
+     *
+     * @since 3.0.6
+     */
+    private boolean cascadedAttributesShared = false;
+
     /**
      * Constructor.
      *
@@ -146,6 +168,7 @@ public class BasicAttributeContext implements AttributeContext, Serializable {
             copyCascadedAttributes((BasicAttributeContext) context);
         } else {
             this.cascadedAttributes = new HashMap<String, Attribute>();
+            this.cascadedAttributesShared = false;
             Set<String> parentAttributeNames = context.getCascadedAttributeNames();
             if (parentAttributeNames != null) {
                 for (String name : parentAttributeNames) {
@@ -179,7 +202,9 @@ public class BasicAttributeContext implements AttributeContext, Serializable {
                     } else if (attribute instanceof ListAttribute
                             && destAttribute instanceof ListAttribute
                             && ((ListAttribute) destAttribute).isInherit()) {
-                        ((ListAttribute) destAttribute).inherit((ListAttribute) attribute);
+                        inheritListAttribute(getWritableCascadedAttributes(),
+                                name, (ListAttribute) destAttribute,
+                                (ListAttribute) attribute);
                     }
                 }
             }
@@ -193,7 +218,9 @@ public class BasicAttributeContext implements AttributeContext, Serializable {
                     } else if (attribute instanceof ListAttribute
                             && destAttribute instanceof ListAttribute
                             && ((ListAttribute) destAttribute).isInherit()) {
-                        ((ListAttribute) destAttribute).inherit((ListAttribute) attribute);
+                        inheritListAttribute(attributes, name,
+                                (ListAttribute) destAttribute,
+                                (ListAttribute) attribute);
                     }
                 }
             }
@@ -215,9 +242,17 @@ public class BasicAttributeContext implements AttributeContext, Serializable {
         }
 
         // Sets attributes.
-        cascadedAttributes = addMissingAttributes(parent.cascadedAttributes,
-                cascadedAttributes);
-        attributes = addMissingAttributes(parent.attributes, attributes);
+        if (parent.cascadedAttributes != null
+                && !parent.cascadedAttributes.isEmpty()) {
+            addMissingAttributes(parent.cascadedAttributes,
+                    getWritableCascadedAttributes());
+        }
+        if (parent.attributes != null && !parent.attributes.isEmpty()) {
+            if (attributes == null) {
+                attributes = new HashMap<String, Attribute>();
+            }
+            addMissingAttributes(parent.attributes, attributes);
+        }
     }
 
     /**
@@ -336,10 +371,7 @@ public class BasicAttributeContext implements AttributeContext, Serializable {
     public void putAttribute(String name, Attribute value, boolean cascade) {
         Map<String, Attribute> mapToUse;
         if (cascade) {
-            if (cascadedAttributes == null) {
-                cascadedAttributes = new HashMap<String, Attribute>();
-            }
-            mapToUse = cascadedAttributes;
+            mapToUse = getWritableCascadedAttributes();
         } else {
             if (attributes == null) {
                 attributes = new HashMap<String, Attribute>();
@@ -353,8 +385,15 @@ public class BasicAttributeContext implements AttributeContext, Serializable {
     public void clear() {
         templateAttribute = null;
         preparer = null;
-        attributes.clear();
-        cascadedAttributes.clear();
+        if (attributes != null) {
+            attributes.clear();
+        }
+        if (cascadedAttributesShared) {
+            cascadedAttributes = null;
+            cascadedAttributesShared = false;
+        } else if (cascadedAttributes != null) {
+            cascadedAttributes.clear();
+        }
     }
 
     /** {@inheritDoc} */
@@ -409,45 +448,79 @@ public class BasicAttributeContext implements AttributeContext, Serializable {
     }
 
     /**
-     * Copies the cascaded attributes to the current context.
+     * Copies the cascaded attributes to the current context. The map is
+     * shared with the other context until one of them modifies it. A
+     * {@link Definition} is not modified: definitions are read-only once
+     * loaded and may be used by several threads, so only the current context
+     * copies the map before modifying it.
      *
      * @param context The context to copy from.
      */
     private void copyCascadedAttributes(BasicAttributeContext context) {
         if (context.cascadedAttributes != null
                 && !context.cascadedAttributes.isEmpty()) {
-            cascadedAttributes = deepCopyAttributeMap(context.cascadedAttributes);
+            cascadedAttributes = context.cascadedAttributes;
+            cascadedAttributesShared = true;
+            if (!(context instanceof Definition)) {
+                context.cascadedAttributesShared = true;
+            }
         }
     }
 
+    /**
+     * Returns the cascaded attribute map, ready to be modified: it is created
+     * if missing, and copied if it is shared with other contexts.
+     *
+     * @return The cascaded attribute map.
+     */
+    private Map<String, Attribute> getWritableCascadedAttributes() {
+        if (cascadedAttributes == null) {
+            cascadedAttributes = new HashMap<String, Attribute>();
+        } else if (cascadedAttributesShared) {
+            cascadedAttributes = deepCopyAttributeMap(cascadedAttributes);
+            cascadedAttributesShared = false;
+        }
+        return cascadedAttributes;
+    }
+
     /**
      * Adds missing attributes to the destination map.
      *
      * @param source The source attribute map.
      * @param destination The destination attribute map.
-     * @return The destination attribute map if not null, a new one otherwise.
      */
-    private Map<String, Attribute> addMissingAttributes(Map<String, Attribute> source,
+    private void addMissingAttributes(Map<String, Attribute> source,
             Map<String, Attribute> destination) {
-        if (source != null && !source.isEmpty()) {
-            if (destination == null) {
-                destination = new HashMap<String, Attribute>();
-            }
-            for (Map.Entry<String, Attribute> entry : source.entrySet()) {
-                String key = entry.getKey();
-                Attribute destAttribute = destination.get(key);
-                if (destAttribute == null) {
-                    destination.put(key, entry.getValue());
-                } else if (destAttribute instanceof ListAttribute
-                        && entry.getValue() instanceof ListAttribute
-                        && ((ListAttribute) destAttribute).isInherit()) {
-                    ((ListAttribute) destAttribute)
-                            .inherit((ListAttribute) entry.getValue());
-                }
+        for (Map.Entry<String, Attribute> entry : source.entrySet()) {
+            String key = entry.getKey();
+            Attribute destAttribute = destination.get(key);
+            if (destAttribute == null) {
+                destination.put(key, entry.getValue());
+            } else if (destAttribute instanceof ListAttribute
+                    && entry.getValue() instanceof ListAttribute
+                    && ((ListAttribute) destAttribute).isInherit()) {
+                inheritListAttribute(destination, key,
+                        (ListAttribute) destAttribute,
+                        (ListAttribute) entry.getValue());
             }
         }
+    }
 
-        return destination;
+    /**
+     * Makes a list attribute inherit the items of the parent one, replacing
+     * it with a copy, since it may belong to other contexts or definitions.
+     *
+     * @param destination The attributes containing the list attribute.
+     * @param name The name of the list attribute.
+     * @param destAttribute The list attribute.
+     * @param parent The parent list attribute.
+     */
+    private static void inheritListAttribute(
+            Map<String, Attribute> destination, String name,
+            ListAttribute destAttribute, ListAttribute parent) {
+        ListAttribute inherited = destAttribute.clone();
+        inherited.inherit(parent);
+        destination.put(name, inherited);
     }
 
     /**
@@ -42,6 +42,13 @@ public class Expression {
      */
     private String language;
 
+    /**
+     * The evaluator resolved for this expression by the code that evaluates
+     * it, or <code>null</code> if not resolved yet. It is not part of the
+     * state of the expression.
+     */
+    private volatile Object resolvedEvaluator;
+
     /**
      * Constructor.
      *
@@ -73,6 +80,7 @@ public class Expression {
     public Expression(Expression toCopy) {
         this.expression = toCopy.expression;
         this.language = toCopy.language;
+        this.resolvedEvaluator = toCopy.resolvedEvaluator;
     }
 
     /**
@@ -135,6 +143,29 @@ public class Expression {
         return language;
     }
 
+    /**
+     * Returns the evaluator resolved for this expression, as stored by
+     * {@link #setResolvedEvaluator(Object)}.
+     *
+     * @return The resolved evaluator, or <code>null</code> if not resolved yet.
+     * @since 3.0.6
+     */
+    public Object getResolvedEvaluator() {
+        return resolvedEvaluator;
+    }
+
+    /**
+     * Stores the evaluator resolved for this expression, so that the language
+     * does not need to be resolved again at every evaluation. It does not
+     * change equality.
+     *
+     * @param resolvedEvaluator The resolved evaluator.
+     * @since 3.0.6
+     */
+    public void setResolvedEvaluator(Object resolvedEvaluator) {
+        this.resolvedEvaluator = resolvedEvaluator;
+    }
+
     /** {@inheritDoc} */
     @Override
     public boolean equals(Object obj) {
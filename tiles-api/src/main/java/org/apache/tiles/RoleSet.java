@@ -0,0 +1,178 @@
+/*
+ * $Id$
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.tiles;
+
+import java.io.Serializable;
+import java.util.AbstractSet;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * An immutable set of roles, as used by {@link Attribute}. Roles are stored in
+ * an array of interned strings, in the order they have been declared, and
+ * the comma-separated form returned by {@link Attribute#getRole()} is
+ * computed once.
+ *
+ * @version $Rev$ $Date$
+ * @since 3.0.6
+ */
+public final class RoleSet extends AbstractSet<String> implements Serializable {
+
+    /**
+     * The roles.
+     */
+    private final String[] roles;
+
+    /**
+     * The roles, separated by commas.
+     */
+    private final String role;
+
+    /**
+     * Constructor.
+     *
+     * @param roles The roles, not empty and without duplicates.
+     */
+    private RoleSet(Collection<String> roles) {
+        this.roles = new String[roles.size()];
+        StringBuilder builder = new StringBuilder();
+        int i = 0;
+        for (String currentRole : roles) {
+            this.roles[i] = currentRole.intern();
+            if (i > 0) {
+                builder.append(',');
+            }
+            builder.append(currentRole);
+            i++;
+        }
+        this.role = builder.toString();
+    }
+
+    /**
+     * Creates a role set from a comma-separated list of roles.
+     *
+     * @param role The comma-separated roles.
+     * @return The role set, or <code>null</code> if <code>role</code> is
+     * <code>null</code> or blank.
+     * @since 3.0.6
+     */
+    public static RoleSet valueOf(String role) {
+        if (role == null || role.trim().length() == 0) {
+            return null;
+        }
+        Set<String> roles = new LinkedHashSet<String>();
+        for (String currentRole : role.split("\\s*,\\s*")) {
+            roles.add(currentRole);
+        }
+        return new RoleSet(roles);
+    }
+
+    /**
+     * Creates a role set containing the given roles.
+     *
+     * @param roles The roles.
+     * @return The role set, the same object if <code>roles</code> is already
+     * a role set, or <code>null</code> if <code>roles</code> is
+     * <code>null</code> or empty.
+     * @since 3.0.6
+     */
+    public static RoleSet copyOf(Collection<String> roles) {
+        if (roles instanceof RoleSet) {
+            return (RoleSet) roles;
+        }
+        if (roles == null || roles.isEmpty()) {
+            return null;
+        }
+        return new RoleSet(new LinkedHashSet<String>(roles));
+    }
+
+    /**
+     * Returns the roles, separated by commas.
+     *
+     * @return The roles.
+     * @since 3.0.6
+     */
+    public String getRole() {
+        return role;
+    }
+
+    /**
+     * Returns the role at the given position, in declaration order.
+     *
+     * @param index The position of the role.
+     * @return The role.
+     * @since 3.0.6
+     */
+    public String get(int index) {
+        return roles[index];
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public int size() {
+        return roles.length;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public boolean contains(Object o) {
+        for (int i = 0; i < roles.length; i++) {
+            if (roles[i].equals(o)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public Iterator<String> iterator() {
+        return new Iterator<String>() {
+
+            /**
+             * The position of the next role.
+             */
+            private int next = 0;
+
+            /** {@inheritDoc} */
+            public boolean hasNext() {
+                return next < roles.length;
+            }
+
+            /** {@inheritDoc} */
+            public String next() {
+                if (next >= roles.length) {
+                    throw new NoSuchElementException();
+                }
+                return roles[next++];
+            }
+
+            /** {@inheritDoc} */
+            public void remove() {
+                throw new UnsupportedOperationException("Role sets are immutable");
+            }
+        };
+    }
+}
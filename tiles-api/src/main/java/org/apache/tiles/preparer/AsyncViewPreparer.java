@@ -0,0 +1,73 @@
+/*
+ * $Id$
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.tiles.preparer;
+
+import java.util.concurrent.Callable;
+
+import org.apache.tiles.AttributeContext;
+import org.apache.tiles.request.Request;
+
+/**
+ * <p>
+ * A view preparer whose slow work, such as loading data, can be started
+ * before the tile is rendered, possibly in another thread and in parallel with
+ * other preparers.
+ * </p>
+ * <p>
+ * The container calls {@link #prefetch(Request)} and runs the returned task,
+ * then, just before the tile is rendered, it calls
+ * {@link #execute(Request, AttributeContext, Object)} with the result of the
+ * task. Since the task may run in another thread, it must not access the
+ * attribute context and should read from the request only what it needs.
+ * {@link #execute(Request, AttributeContext)} is still used by code that is
+ * not aware of this interface, so it must do all the work.
+ * </p>
+ *
+ * @version $Rev$ $Date$
+ * @since 3.0.6
+ */
+public interface AsyncViewPreparer extends ViewPreparer {
+
+    /**
+     * Creates the task that does the part of the work that does not need the
+     * attribute context.
+     *
+     * @param tilesContext Current tiles application context.
+     * @return The task, or <code>null</code> if there is nothing to do in
+     * advance.
+     * @since 3.0.6
+     */
+    Callable<?> prefetch(Request tilesContext);
+
+    /**
+     * Method called immediately before the tile is included, when the task
+     * returned by {@link #prefetch(Request)} has completed.
+     *
+     * @param tilesContext Current tiles application context.
+     * @param attributeContext Current tile context.
+     * @param prefetched The result of the prefetching task, or
+     * <code>null</code> if there was no task.
+     * @throws PreparerException If something goes wrong during execution.
+     * @since 3.0.6
+     */
+    void execute(Request tilesContext, AttributeContext attributeContext,
+            Object prefetched);
+}
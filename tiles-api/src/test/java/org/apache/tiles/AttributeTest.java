@@ -25,6 +25,7 @@ import static org.easymock.EasyMock.*;
 import static org.easymock.classextension.EasyMock.*;
 import static org.junit.Assert.*;
 
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.LinkedHashSet;
 import java.util.Set;
@@ -272,6 +273,8 @@ public class AttributeTest {
     public void testIsPermitted() {
         Attribute attribute = new Attribute("myvalue");
         Request requestContext = createMock(Request.class);
+        expect(requestContext.getContext("request")).andReturn(
+                new HashMap<String, Object>()).anyTimes();
         expect(requestContext.isUserInRole("first")).andReturn(Boolean.TRUE)
                 .anyTimes();
         expect(requestContext.isUserInRole("second")).andReturn(Boolean.FALSE)
@@ -289,4 +292,41 @@ public class AttributeTest {
                 requestContext));
         verify(requestContext);
     }
+
+    /**
+     * Tests that {@link Attribute#isPermitted(Request)} asks the request only
+     * once per role.
+     */
+    @Test
+    public void testIsPermittedCachesRoles() {
+        Request requestContext = createMock(Request.class);
+        expect(requestContext.getContext("request")).andReturn(
+                new HashMap<String, Object>()).anyTimes();
+        expect(requestContext.isUserInRole("first")).andReturn(Boolean.FALSE);
+        expect(requestContext.isUserInRole("second")).andReturn(Boolean.TRUE);
+        replay(requestContext);
+        Attribute attribute = new Attribute("myvalue", "first, second");
+        Attribute other = new Attribute("othervalue", "second");
+        assertTrue(attribute.isPermitted(requestContext));
+        assertTrue(attribute.isPermitted(requestContext));
+        assertTrue(other.isPermitted(requestContext));
+        verify(requestContext);
+    }
+
+    /**
+     * Tests {@link Attribute#setRole(String)} with duplicated roles.
+     */
+    @Test
+    public void testSetRole() {
+        Attribute attribute = new Attribute("my.value");
+        attribute.setRole("role2, role1 ,role2");
+        assertEquals("role2,role1", attribute.getRole());
+        Set<String> roles = new HashSet<String>();
+        roles.add("role1");
+        roles.add("role2");
+        assertEquals(roles, attribute.getRoles());
+        assertEquals(roles.hashCode(), attribute.getRoles().hashCode());
+        attribute.setRole(" ");
+        assertNull(attribute.getRoles());
+    }
 }
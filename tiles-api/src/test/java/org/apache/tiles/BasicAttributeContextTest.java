@@ -215,6 +215,10 @@ public class BasicAttributeContextTest {
         assertEquals("The first element is not correct", first, value.get(0));
         assertEquals("The second element is not correct", second, value
                 .get(1));
+        assertEquals("The inheriting list has been modified", 1,
+                listAttribute.getValue().size());
+        assertEquals("The parent list has been modified", 1,
+                parentListAttribute.getValue().size());
 
         context = new BasicAttributeContext();
         listAttribute = new ListAttribute();
@@ -797,4 +801,55 @@ public class BasicAttributeContextTest {
         assertTrue(attribute instanceof ListAttribute);
         assertTrue(((ListAttribute) attribute).isInherit());
     }
+
+    /**
+     * Tests that cascaded attributes are shared with the inheriting context
+     * and copied when one of the contexts modifies them.
+     */
+    @Test
+    public void testCascadedAttributesCopyOnWrite() {
+        BasicAttributeContext parent = new BasicAttributeContext();
+        Attribute attribute = new Attribute("value1");
+        parent.putAttribute("name1", attribute, true);
+        ListAttribute parentList = new ListAttribute();
+        parentList.setInherit(true);
+        parentList.add(new Attribute("first"));
+        parent.putAttribute("list", parentList, true);
+
+        BasicAttributeContext child = new BasicAttributeContext();
+        child.inheritCascadedAttributes(parent);
+        assertSame(attribute, child.getCascadedAttribute("name1"));
+
+        child.putAttribute("name2", new Attribute("value2"), true);
+        assertNull(parent.getCascadedAttribute("name2"));
+        assertEquals("value2", child.getCascadedAttribute("name2").getValue());
+        assertEquals("value1", child.getCascadedAttribute("name1").getValue());
+
+        BasicAttributeContext sibling = new BasicAttributeContext(parent);
+        parent.putAttribute("name3", new Attribute("value3"), true);
+        assertNull(sibling.getCascadedAttribute("name3"));
+        assertNull(child.getCascadedAttribute("name3"));
+
+        BasicAttributeContext inheriting = new BasicAttributeContext();
+        inheriting.inheritCascadedAttributes(parent);
+        ListAttribute otherList = new ListAttribute();
+        otherList.add(new Attribute("second"));
+        BasicAttributeContext other = new BasicAttributeContext();
+        other.putAttribute("list", otherList, true);
+        inheriting.inherit(other);
+        assertEquals(2, ((ListAttribute) inheriting.getCascadedAttribute("list"))
+                .getValue().size());
+        assertEquals(1, parentList.getValue().size());
+
+        parent.clear();
+        assertNull(parent.getCascadedAttributeNames());
+        assertEquals("value1", sibling.getCascadedAttribute("name1").getValue());
+
+        Definition definition = new Definition();
+        definition.putAttribute("name1", attribute, true);
+        BasicAttributeContext fromDefinition = new BasicAttributeContext(definition);
+        fromDefinition.putAttribute("name2", new Attribute("value2"), true);
+        assertNull(definition.getCascadedAttribute("name2"));
+        assertEquals("value1", fromDefinition.getCascadedAttribute("name1").getValue());
+    }
 }
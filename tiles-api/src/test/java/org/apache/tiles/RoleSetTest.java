@@ -0,0 +1,82 @@
+/*
+ * $Id$
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.tiles;
+
+import static org.junit.Assert.*;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Set;
+
+import org.junit.Test;
+
+/**
+ * Tests {@link RoleSet}.
+ *
+ * @version $Rev$ $Date$
+ */
+public class RoleSetTest {
+
+    /**
+     * Tests {@link RoleSet#valueOf(String)}.
+     */
+    @Test
+    public void testValueOf() {
+        assertNull(RoleSet.valueOf(null));
+        assertNull(RoleSet.valueOf("  "));
+        RoleSet roles = RoleSet.valueOf("role2 , role1,role2");
+        assertEquals(2, roles.size());
+        assertEquals("role2,role1", roles.getRole());
+        assertEquals("role2", roles.get(0));
+        assertEquals("role1", roles.get(1));
+        assertTrue(roles.contains("role1"));
+        assertFalse(roles.contains("role3"));
+        assertSame("role1".intern(), roles.get(1));
+    }
+
+    /**
+     * Tests {@link RoleSet#copyOf(java.util.Collection)}.
+     */
+    @Test
+    public void testCopyOf() {
+        assertNull(RoleSet.copyOf(null));
+        assertNull(RoleSet.copyOf(new HashSet<String>()));
+        Set<String> expected = new HashSet<String>(Arrays.asList("role1", "role2"));
+        RoleSet roles = RoleSet.copyOf(Arrays.asList("role1", "role2", "role1"));
+        assertEquals("role1,role2", roles.getRole());
+        assertEquals(expected, roles);
+        assertEquals(roles, expected);
+        assertEquals(expected.hashCode(), roles.hashCode());
+        assertSame(roles, RoleSet.copyOf(roles));
+    }
+
+    /**
+     * Tests that {@link RoleSet} cannot be modified.
+     */
+    @Test(expected = UnsupportedOperationException.class)
+    public void testImmutable() {
+        Iterator<String> it = RoleSet.valueOf("role1").iterator();
+        assertEquals("role1", it.next());
+        assertFalse(it.hasNext());
+        it.remove();
+    }
+}
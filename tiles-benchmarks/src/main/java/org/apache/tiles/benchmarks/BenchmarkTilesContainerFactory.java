@@ -0,0 +1,144 @@
+/*
+ * $Id$
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.tiles.benchmarks;
+
+import java.io.IOException;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+
+import org.apache.tiles.Attribute;
+import org.apache.tiles.AttributeContext;
+import org.apache.tiles.TilesContainer;
+import org.apache.tiles.definition.dao.BaseLocaleUrlDefinitionDAO;
+import org.apache.tiles.evaluator.AttributeEvaluatorFactory;
+import org.apache.tiles.factory.BasicTilesContainerFactory;
+import org.apache.tiles.locale.LocaleResolver;
+import org.apache.tiles.request.ApplicationContext;
+import org.apache.tiles.request.ApplicationResource;
+import org.apache.tiles.request.Request;
+import org.apache.tiles.request.render.BasicRendererFactory;
+import org.apache.tiles.request.render.Renderer;
+
+/**
+ * Creates a container that serves {@link SyntheticDefinitions}. Templates are
+ * not dispatched to a servlet container: they are rendered by inserting the
+ * attributes that a real page would insert, so that the whole definition tree
+ * is walked as it would be by real layouts.
+ *
+ * @version $Rev$ $Date$
+ * @since 3.0.6
+ */
+public class BenchmarkTilesContainerFactory extends BasicTilesContainerFactory {
+
+    /**
+     * The generator of definitions.
+     */
+    private final SyntheticDefinitions definitions;
+
+    /**
+     * Constructor.
+     *
+     * @param definitions The generator of definitions.
+     * @since 3.0.6
+     */
+    public BenchmarkTilesContainerFactory(SyntheticDefinitions definitions) {
+        this.definitions = definitions;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    protected BaseLocaleUrlDefinitionDAO instantiateLocaleDefinitionDao(
+            ApplicationContext applicationContext, LocaleResolver resolver) {
+        return new SyntheticDefinitionDAO(applicationContext, definitions);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    protected List<ApplicationResource> getSources(
+            ApplicationContext applicationContext) {
+        return Collections.emptyList();
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    protected List<Locale> getPreloadLocales(
+            ApplicationContext applicationContext) {
+        return definitions.getLocales();
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    protected Renderer createTemplateAttributeRenderer(
+            BasicRendererFactory rendererFactory,
+            ApplicationContext applicationContext, TilesContainer container,
+            AttributeEvaluatorFactory attributeEvaluatorFactory) {
+        return new LayoutRenderer(container);
+    }
+
+    /**
+     * Renders a template by inserting the attributes listed in
+     * {@link SyntheticDefinitions#getInsertedAttributes(String)}, in place of
+     * the page it refers to. Each attribute is rendered in its own context, as
+     * <code>InsertAttributeModel</code> does.
+     */
+    private static class LayoutRenderer implements Renderer {
+
+        /**
+         * The container.
+         */
+        private final TilesContainer container;
+
+        /**
+         * Constructor.
+         *
+         * @param container The container.
+         */
+        public LayoutRenderer(TilesContainer container) {
+            this.container = container;
+        }
+
+        /** {@inheritDoc} */
+        @Override
+        public void render(String path, Request request) throws IOException {
+            AttributeContext attributeContext = container
+                    .getAttributeContext(request);
+            for (String name : SyntheticDefinitions.getInsertedAttributes(path)) {
+                Attribute attribute = attributeContext.getAttribute(name);
+                if (attribute != null) {
+                    container.startContext(request);
+                    try {
+                        container.render(attribute, request);
+                    } finally {
+                        container.endContext(request);
+                    }
+                }
+            }
+        }
+
+        /** {@inheritDoc} */
+        @Override
+        public boolean isRenderable(String path, Request request) {
+            return path != null;
+        }
+    }
+}
@@ -0,0 +1,166 @@
+/*
+ * $Id$
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.tiles.benchmarks;
+
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.tiles.Definition;
+import org.apache.tiles.definition.pattern.BasicPatternDefinitionResolver;
+import org.apache.tiles.definition.pattern.wildcard.WildcardDefinitionPatternMatcherFactory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures the lookup of definitions in a
+ * {@link org.apache.tiles.definition.dao.CachingLocaleUrlDefinitionDAO},
+ * by name and through wildcard patterns, and the resolution of patterns in
+ * {@link org.apache.tiles.definition.pattern.AbstractPatternDefinitionResolver}.
+ *
+ * @version $Rev$ $Date$
+ * @since 3.0.6
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DefinitionDAOBenchmark {
+
+    /**
+     * The number of pages.
+     */
+    @Param({"100", "5000", "50000" })
+    private int definitionCount;
+
+    /**
+     * The length of the inheritance chains.
+     */
+    @Param({"1", "4" })
+    private int inheritanceDepth;
+
+    /**
+     * The number of wildcard definitions per page.
+     */
+    @Param({"0.0", "0.1" })
+    private double wildcardDensity;
+
+    /**
+     * The number of locales.
+     */
+    @Param({"1", "4" })
+    private int localeCount;
+
+    /**
+     * The generator of definitions.
+     */
+    private SyntheticDefinitions definitions;
+
+    /**
+     * The DAO under test.
+     */
+    private SyntheticDefinitionDAO dao;
+
+    /**
+     * The pattern resolver used by the DAO.
+     */
+    private BasicPatternDefinitionResolver<Locale> resolver;
+
+    /**
+     * The locales, in order.
+     */
+    private List<Locale> locales;
+
+    /**
+     * A counter to vary the definition names and locales among calls.
+     */
+    private int counter;
+
+    /**
+     * Creates the DAO and loads the definitions of all the locales.
+     */
+    @Setup
+    public void setUp() {
+        definitions = new SyntheticDefinitions(definitionCount,
+                inheritanceDepth, wildcardDensity, localeCount);
+        locales = definitions.getLocales();
+        WildcardDefinitionPatternMatcherFactory matcherFactory = new WildcardDefinitionPatternMatcherFactory();
+        resolver = new BasicPatternDefinitionResolver<Locale>(matcherFactory,
+                matcherFactory);
+        dao = new SyntheticDefinitionDAO(
+                InMemoryContexts.createApplicationContext(), definitions);
+        dao.setPatternDefinitionResolver(resolver);
+        for (Locale locale : locales) {
+            dao.getDefinitions(locale);
+        }
+    }
+
+    /**
+     * Looks up a definition by name.
+     *
+     * @return The definition.
+     */
+    @Benchmark
+    public Definition getDefinition() {
+        int index = counter++;
+        return dao.getDefinition(
+                definitions.getDefinitionName(index % definitionCount),
+                locales.get(index % locales.size()));
+    }
+
+    /**
+     * Looks up a definition that matches a wildcard pattern, or that does not
+     * exist when there are no patterns.
+     *
+     * @return The definition, or <code>null</code>.
+     */
+    @Benchmark
+    public Definition getWildcardDefinition() {
+        int index = counter++;
+        return dao.getDefinition(definitions.getWildcardMatchingName(index),
+                locales.get(index % locales.size()));
+    }
+
+    /**
+     * Resolves a name through the patterns only.
+     *
+     * @return The definition, or <code>null</code>.
+     */
+    @Benchmark
+    public Definition resolveDefinition() {
+        int index = counter++;
+        return resolver.resolveDefinition(
+                definitions.getWildcardMatchingName(index),
+                locales.get(index % locales.size()));
+    }
+}
@@ -0,0 +1,133 @@
+/*
+ * $Id$
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.tiles.benchmarks;
+
+import java.util.List;
+import java.util.Locale;
+
+import org.apache.tiles.definition.pattern.BasicPatternDefinitionResolver;
+import org.apache.tiles.definition.pattern.wildcard.WildcardDefinitionPatternMatcherFactory;
+
+/**
+ * Measures the heap retained by the definitions of all the locales, loaded
+ * by a {@link SyntheticDefinitionDAO}, without and with a
+ * {@link org.apache.tiles.definition.dao.DefinitionPool}. It is not a JMH
+ * benchmark, since JMH does not measure retained memory. Run it with:
+ * <pre>
+ * java -cp tiles-benchmarks/target/tiles-benchmarks.jar org.apache.tiles.benchmarks.DefinitionFootprint [definitionCount [inheritanceDepth [localeCount]]]
+ * </pre>
+ *
+ * @version $Rev$ $Date$
+ * @since 3.0.6
+ */
+public final class DefinitionFootprint {
+
+    /**
+     * The number of times the garbage collector is invoked before reading the
+     * used heap.
+     */
+    private static final int GC_RUNS = 5;
+
+    /**
+     * Private constructor to avoid instantiation.
+     */
+    private DefinitionFootprint() {
+    }
+
+    /**
+     * Prints the heap retained by the definitions.
+     *
+     * @param args The number of pages, the length of the inheritance chains
+     * and the number of locales, by default <code>5000</code>, <code>4</code>
+     * and <code>4</code>.
+     * @throws InterruptedException If interrupted while waiting for the
+     * garbage collector.
+     * @since 3.0.6
+     */
+    public static void main(String[] args) throws InterruptedException {
+        int definitionCount = args.length > 0 ? Integer.parseInt(args[0]) : 5000;
+        int inheritanceDepth = args.length > 1 ? Integer.parseInt(args[1]) : 4;
+        int localeCount = args.length > 2 ? Integer.parseInt(args[2]) : 4;
+        SyntheticDefinitions definitions = new SyntheticDefinitions(
+                definitionCount, inheritanceDepth, 0.0, localeCount);
+
+        // The first run warms up the classes, so that they are not measured.
+        measure(definitions, false);
+        long unshared = measure(definitions, false);
+        long shared = measure(definitions, true);
+        System.out.println("Definitions: " + definitionCount
+                + ", inheritance depth: " + inheritanceDepth + ", locales: "
+                + localeCount);
+        System.out.println("Retained heap without sharing: " + unshared / 1024 + " KiB");
+        System.out.println("Retained heap with sharing:    " + shared / 1024 + " KiB");
+    }
+
+    /**
+     * Loads the definitions of all the locales and measures the heap they
+     * retain.
+     *
+     * @param definitions The generator of definitions.
+     * @param shareDefinitions Whether equal definitions are shared.
+     * @return The retained heap, in bytes.
+     * @throws InterruptedException If interrupted while waiting for the
+     * garbage collector.
+     */
+    private static long measure(SyntheticDefinitions definitions,
+            boolean shareDefinitions) throws InterruptedException {
+        List<Locale> locales = definitions.getLocales();
+        long before = usedHeap();
+        WildcardDefinitionPatternMatcherFactory matcherFactory = new WildcardDefinitionPatternMatcherFactory();
+        SyntheticDefinitionDAO dao = new SyntheticDefinitionDAO(
+                InMemoryContexts.createApplicationContext(), definitions);
+        dao.setPatternDefinitionResolver(new BasicPatternDefinitionResolver<Locale>(
+                matcherFactory, matcherFactory));
+        dao.setShareDefinitions(shareDefinitions);
+        for (Locale locale : locales) {
+            dao.getDefinitions(locale);
+        }
+        // The pool is not needed anymore once all the locales are loaded.
+        if (dao.getDefinitionPool() != null) {
+            dao.getDefinitionPool().clear();
+        }
+        long after = usedHeap();
+        if (dao.getDefinitions(locales.get(0)) == null) {
+            throw new IllegalStateException("No definitions have been loaded");
+        }
+        return after - before;
+    }
+
+    /**
+     * Returns the used heap, after invoking the garbage collector.
+     *
+     * @return The used heap, in bytes.
+     * @throws InterruptedException If interrupted while waiting for the
+     * garbage collector.
+     */
+    private static long usedHeap() throws InterruptedException {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < GC_RUNS; i++) {
+            System.gc();
+            Thread.sleep(100);
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
@@ -0,0 +1,211 @@
+/*
+ * $Id$
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.tiles.benchmarks;
+
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+import javax.el.ArrayELResolver;
+import javax.el.BeanELResolver;
+import javax.el.CompositeELResolver;
+import javax.el.ListELResolver;
+import javax.el.MapELResolver;
+import javax.el.ResourceBundleELResolver;
+
+import ognl.OgnlException;
+import ognl.OgnlRuntime;
+import ognl.PropertyAccessor;
+
+import org.apache.el.ExpressionFactoryImpl;
+import org.apache.tiles.context.TilesRequestContextHolder;
+import org.apache.tiles.el.ELAttributeEvaluator;
+import org.apache.tiles.el.ScopeELResolver;
+import org.apache.tiles.el.TilesContextBeanELResolver;
+import org.apache.tiles.el.TilesContextELResolver;
+import org.apache.tiles.evaluator.AttributeEvaluator;
+import org.apache.tiles.mvel.MVELAttributeEvaluator;
+import org.apache.tiles.mvel.ScopeVariableResolverFactory;
+import org.apache.tiles.mvel.TilesContextBeanVariableResolverFactory;
+import org.apache.tiles.mvel.TilesContextVariableResolverFactory;
+import org.apache.tiles.ognl.AnyScopePropertyAccessor;
+import org.apache.tiles.ognl.DelegatePropertyAccessor;
+import org.apache.tiles.ognl.NestedObjectDelegatePropertyAccessor;
+import org.apache.tiles.ognl.OGNLAttributeEvaluator;
+import org.apache.tiles.ognl.PropertyAccessorDelegateFactory;
+import org.apache.tiles.ognl.ScopePropertyAccessor;
+import org.apache.tiles.ognl.TilesApplicationContextNestedObjectExtractor;
+import org.apache.tiles.ognl.TilesContextPropertyAccessorDelegateFactory;
+import org.apache.tiles.request.ApplicationContext;
+import org.apache.tiles.request.Request;
+import org.mvel2.integration.VariableResolverFactory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures the evaluation of a request-scoped expression with the EL, MVEL
+ * and OGNL evaluators, configured as in
+ * <code>CompleteAutoloadTilesContainerFactory</code>, with and without the
+ * cache of parsed expressions.
+ *
+ * @version $Rev$ $Date$
+ * @since 3.0.6
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EvaluatorBenchmark {
+
+    /**
+     * The expression language.
+     */
+    @Param({"EL", "MVEL", "OGNL" })
+    private String language;
+
+    /**
+     * The maximum size of the cache of parsed expressions.
+     */
+    @Param({"0", "1024" })
+    private int expressionCacheSize;
+
+    /**
+     * The evaluator under test.
+     */
+    private AttributeEvaluator evaluator;
+
+    /**
+     * The expression to evaluate.
+     */
+    private String expression;
+
+    /**
+     * The request.
+     */
+    private Request request;
+
+    /**
+     * Creates the evaluator and the request.
+     *
+     * @throws OgnlException If the OGNL evaluator cannot be initialized.
+     */
+    @Setup
+    public void setUp() throws OgnlException {
+        ApplicationContext applicationContext = InMemoryContexts
+                .createApplicationContext();
+        request = InMemoryContexts.createRequest(applicationContext,
+                Locale.ROOT);
+        request.getContext("request").put("item", "value");
+        if ("EL".equals(language)) {
+            ELAttributeEvaluator elEvaluator = createELEvaluator();
+            elEvaluator.setExpressionCacheSize(expressionCacheSize);
+            evaluator = elEvaluator;
+            expression = "${requestScope.item}";
+        } else if ("MVEL".equals(language)) {
+            MVELAttributeEvaluator mvelEvaluator = createMVELEvaluator();
+            mvelEvaluator.setExpressionCacheSize(expressionCacheSize);
+            evaluator = mvelEvaluator;
+            expression = "requestScope.item";
+        } else if ("OGNL".equals(language)) {
+            OGNLAttributeEvaluator ognlEvaluator = createOGNLEvaluator();
+            ognlEvaluator.setExpressionCacheSize(expressionCacheSize);
+            evaluator = ognlEvaluator;
+            expression = "requestScope.item";
+        } else {
+            throw new IllegalArgumentException("Unknown language: " + language);
+        }
+    }
+
+    /**
+     * Evaluates the expression.
+     *
+     * @return The result of the evaluation.
+     */
+    @Benchmark
+    public Object evaluate() {
+        return evaluator.evaluate(expression, request);
+    }
+
+    /**
+     * Creates the EL evaluator.
+     *
+     * @return The EL evaluator.
+     */
+    private static ELAttributeEvaluator createELEvaluator() {
+        ELAttributeEvaluator retValue = new ELAttributeEvaluator();
+        retValue.setExpressionFactory(new ExpressionFactoryImpl());
+        CompositeELResolver elResolver = new CompositeELResolver();
+        BeanELResolver beanElResolver = new BeanELResolver(false);
+        elResolver.add(new ScopeELResolver());
+        elResolver.add(new TilesContextELResolver(beanElResolver));
+        elResolver.add(new TilesContextBeanELResolver());
+        elResolver.add(new ArrayELResolver(false));
+        elResolver.add(new ListELResolver(false));
+        elResolver.add(new MapELResolver(false));
+        elResolver.add(new ResourceBundleELResolver());
+        elResolver.add(beanElResolver);
+        retValue.setResolver(elResolver);
+        return retValue;
+    }
+
+    /**
+     * Creates the MVEL evaluator.
+     *
+     * @return The MVEL evaluator.
+     */
+    private static MVELAttributeEvaluator createMVELEvaluator() {
+        TilesRequestContextHolder requestHolder = new TilesRequestContextHolder();
+        VariableResolverFactory variableResolverFactory = new ScopeVariableResolverFactory(requestHolder);
+        variableResolverFactory.setNextFactory(new TilesContextVariableResolverFactory(requestHolder));
+        variableResolverFactory.setNextFactory(new TilesContextBeanVariableResolverFactory(requestHolder));
+        return new MVELAttributeEvaluator(requestHolder, variableResolverFactory);
+    }
+
+    /**
+     * Creates the OGNL evaluator.
+     *
+     * @return The OGNL evaluator.
+     * @throws OgnlException If the property accessors cannot be registered.
+     */
+    private static OGNLAttributeEvaluator createOGNLEvaluator() throws OgnlException {
+        PropertyAccessor objectPropertyAccessor = OgnlRuntime.getPropertyAccessor(Object.class);
+        PropertyAccessor applicationContextPropertyAccessor = new NestedObjectDelegatePropertyAccessor<Request>(
+                new TilesApplicationContextNestedObjectExtractor(), objectPropertyAccessor);
+        PropertyAccessor anyScopePropertyAccessor = new AnyScopePropertyAccessor();
+        PropertyAccessor scopePropertyAccessor = new ScopePropertyAccessor();
+        PropertyAccessorDelegateFactory<Request> factory = new TilesContextPropertyAccessorDelegateFactory(
+                objectPropertyAccessor, applicationContextPropertyAccessor, anyScopePropertyAccessor,
+                scopePropertyAccessor);
+        OgnlRuntime.setPropertyAccessor(Request.class, new DelegatePropertyAccessor<Request>(factory));
+        return new OGNLAttributeEvaluator();
+    }
+}
@@ -0,0 +1,185 @@
+/*
+ * $Id$
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.tiles.benchmarks;
+
+import java.io.PrintWriter;
+import java.io.Writer;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+import org.apache.tiles.request.ApplicationContext;
+import org.apache.tiles.request.Request;
+
+/**
+ * Creates in-memory stand-ins of {@link ApplicationContext} and
+ * {@link Request}, without any servlet container. They are dynamic proxies,
+ * so that they do not depend on the exact version of the Tiles Request API:
+ * scopes are plain maps, the writer discards everything and any other method
+ * returns an empty map, <code>false</code> or <code>null</code>.
+ *
+ * @version $Rev$ $Date$
+ * @since 3.0.6
+ */
+public final class InMemoryContexts {
+
+    /**
+     * The scopes available in requests.
+     */
+    private static final List<String> SCOPES = Collections
+            .unmodifiableList(Arrays.asList("request", "session", "application"));
+
+    /**
+     * Private constructor to avoid instantiation.
+     */
+    private InMemoryContexts() {
+    }
+
+    /**
+     * Creates an application context.
+     *
+     * @return The application context.
+     * @since 3.0.6
+     */
+    public static ApplicationContext createApplicationContext() {
+        Map<String, Object> results = new HashMap<String, Object>();
+        results.put("getApplicationScope", new HashMap<String, Object>());
+        return (ApplicationContext) Proxy.newProxyInstance(
+                InMemoryContexts.class.getClassLoader(),
+                new Class<?>[] {ApplicationContext.class },
+                new InMemoryHandler(results, null));
+    }
+
+    /**
+     * Creates a request, with empty request and session scopes.
+     *
+     * @param applicationContext The application context of the request.
+     * @param locale The locale of the request.
+     * @return The request.
+     * @since 3.0.6
+     */
+    public static Request createRequest(ApplicationContext applicationContext,
+            Locale locale) {
+        Map<String, Map<String, Object>> scopes = new HashMap<String, Map<String, Object>>();
+        scopes.put("request", new HashMap<String, Object>());
+        scopes.put("session", new HashMap<String, Object>());
+        scopes.put("application", applicationContext.getApplicationScope());
+        Map<String, Object> results = new HashMap<String, Object>();
+        results.put("getApplicationContext", applicationContext);
+        results.put("getRequestLocale", locale);
+        results.put("getAvailableScopes", SCOPES);
+        PrintWriter writer = new PrintWriter(new NullWriter());
+        results.put("getWriter", writer);
+        results.put("getPrintWriter", writer);
+        return (Request) Proxy.newProxyInstance(
+                InMemoryContexts.class.getClassLoader(),
+                new Class<?>[] {Request.class }, new InMemoryHandler(results,
+                        scopes));
+    }
+
+    /**
+     * Answers the calls to the in-memory proxies.
+     */
+    private static final class InMemoryHandler implements InvocationHandler {
+
+        /**
+         * The results of methods without parameters, by method name.
+         */
+        private final Map<String, Object> results;
+
+        /**
+         * The scopes, by name, or <code>null</code> if there are no scopes.
+         */
+        private final Map<String, Map<String, Object>> scopes;
+
+        /**
+         * Constructor.
+         *
+         * @param results The results of methods, by method name.
+         * @param scopes The scopes, by name.
+         */
+        private InMemoryHandler(Map<String, Object> results,
+                Map<String, Map<String, Object>> scopes) {
+            this.results = results;
+            this.scopes = scopes;
+        }
+
+        /** {@inheritDoc} */
+        public Object invoke(Object proxy, Method method, Object[] args) {
+            String name = method.getName();
+            if ("getContext".equals(name) && scopes != null && args != null
+                    && args[0] instanceof String) {
+                return scopes.get(args[0]);
+            }
+            if (results.containsKey(name)) {
+                return results.get(name);
+            }
+            if ("equals".equals(name)) {
+                return proxy == args[0];
+            }
+            if ("hashCode".equals(name)) {
+                return System.identityHashCode(proxy);
+            }
+            if ("toString".equals(name)) {
+                return "InMemory" + method.getDeclaringClass().getSimpleName();
+            }
+            Class<?> returnType = method.getReturnType();
+            if (returnType == boolean.class) {
+                return Boolean.FALSE;
+            }
+            if (returnType == Map.class) {
+                return Collections.emptyMap();
+            }
+            return null;
+        }
+    }
+
+    /**
+     * A writer that discards everything.
+     */
+    private static final class NullWriter extends Writer {
+
+        /** {@inheritDoc} */
+        @Override
+        public void write(char[] cbuf, int off, int len) {
+            // Discarded.
+        }
+
+        /** {@inheritDoc} */
+        @Override
+        public void flush() {
+            // Nothing to flush.
+        }
+
+        /** {@inheritDoc} */
+        @Override
+        public void close() {
+            // Nothing to close.
+        }
+    }
+}
@@ -0,0 +1,128 @@
+/*
+ * $Id$
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.tiles.benchmarks;
+
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.tiles.TilesContainer;
+import org.apache.tiles.request.ApplicationContext;
+import org.apache.tiles.request.Request;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures {@link org.apache.tiles.impl.BasicTilesContainer#render(String, Request)}
+ * for whole pages, including definition lookup, the attribute context stack,
+ * preparers, evaluation and the rendering of nested definitions.
+ *
+ * @version $Rev$ $Date$
+ * @since 3.0.6
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RenderBenchmark {
+
+    /**
+     * The number of pages.
+     */
+    @Param({"100", "5000", "50000" })
+    private int definitionCount;
+
+    /**
+     * The length of the inheritance chains.
+     */
+    @Param({"1", "4" })
+    private int inheritanceDepth;
+
+    /**
+     * The number of locales.
+     */
+    @Param({"1", "4" })
+    private int localeCount;
+
+    /**
+     * The generator of definitions.
+     */
+    private SyntheticDefinitions definitions;
+
+    /**
+     * The container under test.
+     */
+    private TilesContainer container;
+
+    /**
+     * One request for each locale, whose request scope is reused.
+     */
+    private Request[] requests;
+
+    /**
+     * A counter to vary the pages and locales among calls.
+     */
+    private int counter;
+
+    /**
+     * Creates the container and the requests.
+     */
+    @Setup
+    public void setUp() {
+        definitions = new SyntheticDefinitions(definitionCount,
+                inheritanceDepth, 0.0, localeCount);
+        ApplicationContext applicationContext = InMemoryContexts
+                .createApplicationContext();
+        container = new BenchmarkTilesContainerFactory(definitions)
+                .createContainer(applicationContext);
+        List<Locale> locales = definitions.getLocales();
+        requests = new Request[locales.size()];
+        for (int i = 0; i < requests.length; i++) {
+            requests[i] = InMemoryContexts.createRequest(applicationContext,
+                    locales.get(i));
+        }
+    }
+
+    /**
+     * Renders a page. The request scope is emptied first, so that every call
+     * starts like a new request, without the caches kept in request scope.
+     */
+    @Benchmark
+    public void render() {
+        int index = counter++;
+        Request request = requests[index % requests.length];
+        request.getContext("request").clear();
+        container.render(definitions.getDefinitionName(index % definitionCount),
+                request);
+    }
+}
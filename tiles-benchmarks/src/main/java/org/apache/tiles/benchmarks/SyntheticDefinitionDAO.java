@@ -0,0 +1,65 @@
+/*
+ * $Id$
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.tiles.benchmarks;
+
+import java.util.Locale;
+import java.util.Map;
+
+import org.apache.tiles.Definition;
+import org.apache.tiles.definition.dao.ResolvingLocaleUrlDefinitionDAO;
+import org.apache.tiles.request.ApplicationContext;
+
+/**
+ * A definition DAO that reads its definitions from
+ * {@link SyntheticDefinitions} instead of parsing resources, so that
+ * benchmarks measure loading, inheritance resolution and lookup only.
+ *
+ * @version $Rev$ $Date$
+ * @since 3.0.6
+ */
+public class SyntheticDefinitionDAO extends ResolvingLocaleUrlDefinitionDAO {
+
+    /**
+     * The generator of definitions.
+     */
+    private final SyntheticDefinitions definitions;
+
+    /**
+     * Constructor.
+     *
+     * @param applicationContext The Tiles application context.
+     * @param definitions The generator of definitions.
+     * @since 3.0.6
+     */
+    public SyntheticDefinitionDAO(ApplicationContext applicationContext,
+            SyntheticDefinitions definitions) {
+        super(applicationContext);
+        this.definitions = definitions;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    protected Map<String, Definition> loadLocaleLayerFromResources(
+            Locale customizationKey) {
+        return definitions.createLayer(customizationKey);
+    }
+}
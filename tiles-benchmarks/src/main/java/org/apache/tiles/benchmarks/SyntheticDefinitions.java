@@ -0,0 +1,313 @@
+/*
+ * $Id$
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.tiles.benchmarks;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+import org.apache.tiles.Attribute;
+import org.apache.tiles.Definition;
+
+/**
+ * Generates a synthetic set of definitions, with a configurable size,
+ * inheritance depth, density of wildcard definitions and number of locales.
+ * <ul>
+ * <li>Pages are named <code>page.N</code>. They are grouped in inheritance
+ * chains as long as the inheritance depth: the first page of a chain has the
+ * template and all the attributes, the others extend the previous page and
+ * override some attributes.</li>
+ * <li>Every page includes the <code>common.header</code> definition in its
+ * <code>header</code> attribute.</li>
+ * <li>Wildcard definitions are named <code>wildcard.K.*</code>; their number is
+ * the number of pages multiplied by the wildcard density.</li>
+ * <li>Each locale other than the root one overrides the title of one page out
+ * of {@link #LOCALE_OVERRIDE_STEP}.</li>
+ * </ul>
+ *
+ * @version $Rev$ $Date$
+ * @since 3.0.6
+ */
+public class SyntheticDefinitions {
+
+    /**
+     * The locales that can be used, in order.
+     */
+    public static final List<Locale> AVAILABLE_LOCALES = Collections
+            .unmodifiableList(Arrays.asList(Locale.ROOT, Locale.US,
+                    Locale.ITALY, Locale.FRANCE, Locale.GERMANY, Locale.JAPAN,
+                    Locale.CHINA, Locale.KOREA));
+
+    /**
+     * The name of the definition included by every page.
+     */
+    public static final String HEADER_DEFINITION_NAME = "common.header";
+
+    /**
+     * The template of pages.
+     */
+    public static final String LAYOUT_TEMPLATE = "/layout.jsp";
+
+    /**
+     * The template of the header.
+     */
+    public static final String HEADER_TEMPLATE = "/header.jsp";
+
+    /**
+     * The attributes inserted by each template, by template path.
+     */
+    private static final Map<String, List<String>> TEMPLATE_ATTRIBUTES;
+
+    static {
+        Map<String, List<String>> templateAttributes = new HashMap<String, List<String>>();
+        templateAttributes.put(LAYOUT_TEMPLATE, Collections.unmodifiableList(Arrays
+                .asList("header", "title", "body", "footer")));
+        templateAttributes.put(HEADER_TEMPLATE, Collections.singletonList("logo"));
+        TEMPLATE_ATTRIBUTES = Collections.unmodifiableMap(templateAttributes);
+    }
+
+    /**
+     * A locale overrides one page out of this number.
+     */
+    public static final int LOCALE_OVERRIDE_STEP = 10;
+
+    /**
+     * The number of pages.
+     */
+    private final int definitionCount;
+
+    /**
+     * The length of the inheritance chains.
+     */
+    private final int inheritanceDepth;
+
+    /**
+     * The number of wildcard definitions.
+     */
+    private final int wildcardCount;
+
+    /**
+     * The locales for which definitions are generated.
+     */
+    private final List<Locale> locales;
+
+    /**
+     * Constructor.
+     *
+     * @param definitionCount The number of pages.
+     * @param inheritanceDepth The length of the inheritance chains, at least 1.
+     * @param wildcardDensity The number of wildcard definitions per page.
+     * @param localeCount The number of locales, including the root one, at
+     * most the size of {@link #AVAILABLE_LOCALES}.
+     * @since 3.0.6
+     */
+    public SyntheticDefinitions(int definitionCount, int inheritanceDepth,
+            double wildcardDensity, int localeCount) {
+        if (inheritanceDepth < 1) {
+            throw new IllegalArgumentException("The inheritance depth must be at least 1");
+        }
+        if (localeCount < 1 || localeCount > AVAILABLE_LOCALES.size()) {
+            throw new IllegalArgumentException("The locale count must be between 1 and "
+                    + AVAILABLE_LOCALES.size());
+        }
+        this.definitionCount = definitionCount;
+        this.inheritanceDepth = inheritanceDepth;
+        this.wildcardCount = (int) (definitionCount * wildcardDensity);
+        this.locales = AVAILABLE_LOCALES.subList(0, localeCount);
+    }
+
+    /**
+     * Returns the number of pages.
+     *
+     * @return The number of pages.
+     * @since 3.0.6
+     */
+    public int getDefinitionCount() {
+        return definitionCount;
+    }
+
+    /**
+     * Returns the number of wildcard definitions.
+     *
+     * @return The number of wildcard definitions.
+     * @since 3.0.6
+     */
+    public int getWildcardCount() {
+        return wildcardCount;
+    }
+
+    /**
+     * Returns the locales for which definitions are generated.
+     *
+     * @return The locales, starting with the root one.
+     * @since 3.0.6
+     */
+    public List<Locale> getLocales() {
+        return locales;
+    }
+
+    /**
+     * Returns the names of the attributes that a template inserts, as a page
+     * would do.
+     *
+     * @param template The path of the template.
+     * @return The names of the attributes, empty if the template is unknown.
+     * @since 3.0.6
+     */
+    public static List<String> getInsertedAttributes(String template) {
+        List<String> retValue = TEMPLATE_ATTRIBUTES.get(template);
+        if (retValue == null) {
+            retValue = Collections.emptyList();
+        }
+        return retValue;
+    }
+
+    /**
+     * Returns the name of a page.
+     *
+     * @param index The index of the page.
+     * @return The name of the page.
+     * @since 3.0.6
+     */
+    public String getDefinitionName(int index) {
+        return "page." + index;
+    }
+
+    /**
+     * Returns a name that matches a wildcard definition, or that does not
+     * match anything if there are no wildcard definitions.
+     *
+     * @param index The index of the name.
+     * @return The name.
+     * @since 3.0.6
+     */
+    public String getWildcardMatchingName(int index) {
+        if (wildcardCount == 0) {
+            return "missing." + index;
+        }
+        return "wildcard." + (index % wildcardCount) + ".item" + index;
+    }
+
+    /**
+     * Creates the definitions of a locale only, without the ones of its parent
+     * locales.
+     *
+     * @param locale The locale.
+     * @return The definitions, by name.
+     * @since 3.0.6
+     */
+    public Map<String, Definition> createLayer(Locale locale) {
+        Map<String, Definition> retValue = new LinkedHashMap<String, Definition>();
+        if (Locale.ROOT.equals(locale)) {
+            addRootDefinitions(retValue);
+        } else {
+            int localeIndex = locales.indexOf(locale);
+            if (localeIndex > 0) {
+                for (int i = localeIndex % LOCALE_OVERRIDE_STEP; i < definitionCount;
+                        i += LOCALE_OVERRIDE_STEP) {
+                    Definition definition = createPage(i);
+                    definition.putAttribute("title", createString("Title " + i
+                            + " (" + locale + ")"));
+                    retValue.put(definition.getName(), definition);
+                }
+            }
+        }
+        return retValue;
+    }
+
+    /**
+     * Adds the definitions of the root locale.
+     *
+     * @param definitions The definitions to fill.
+     */
+    private void addRootDefinitions(Map<String, Definition> definitions) {
+        Definition header = new Definition();
+        header.setName(HEADER_DEFINITION_NAME);
+        header.setTemplateAttribute(Attribute.createTemplateAttribute(HEADER_TEMPLATE));
+        header.putAttribute("logo", createString("Logo"));
+        definitions.put(header.getName(), header);
+
+        for (int i = 0; i < definitionCount; i++) {
+            Definition definition = createPage(i);
+            definitions.put(definition.getName(), definition);
+        }
+
+        for (int k = 0; k < wildcardCount; k++) {
+            Definition definition = new Definition();
+            definition.setName("wildcard." + k + ".*");
+            definition.setTemplateAttribute(Attribute.createTemplateAttribute(LAYOUT_TEMPLATE));
+            definition.putAttribute("header", createDefinitionReference(HEADER_DEFINITION_NAME));
+            definition.putAttribute("title", createString("Wildcard {1}"));
+            definition.putAttribute("body", createString("Body of {1}"));
+            definitions.put(definition.getName(), definition);
+        }
+    }
+
+    /**
+     * Creates a page.
+     *
+     * @param index The index of the page.
+     * @return The page.
+     */
+    private Definition createPage(int index) {
+        Definition definition = new Definition();
+        definition.setName(getDefinitionName(index));
+        if (index % inheritanceDepth == 0) {
+            definition.setTemplateAttribute(Attribute.createTemplateAttribute(LAYOUT_TEMPLATE));
+            definition.putAttribute("header", createDefinitionReference(HEADER_DEFINITION_NAME));
+            definition.putAttribute("footer", createString("Footer"));
+        } else {
+            definition.setExtends(getDefinitionName(index - 1));
+        }
+        definition.putAttribute("title", createString("Title " + index));
+        definition.putAttribute("body", createString("Body " + index));
+        return definition;
+    }
+
+    /**
+     * Creates an attribute rendered as a string.
+     *
+     * @param value The value.
+     * @return The attribute.
+     */
+    private static Attribute createString(String value) {
+        Attribute attribute = new Attribute(value);
+        attribute.setRenderer("string");
+        return attribute;
+    }
+
+    /**
+     * Creates an attribute that refers to a definition.
+     *
+     * @param name The name of the definition.
+     * @return The attribute.
+     */
+    private static Attribute createDefinitionReference(String name) {
+        Attribute attribute = new Attribute(name);
+        attribute.setRenderer("definition");
+        return attribute;
+    }
+}
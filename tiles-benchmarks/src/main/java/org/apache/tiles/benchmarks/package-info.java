@@ -0,0 +1,36 @@
+/*
+ * $Id$
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+/**
+ * JMH benchmarks of the definition DAO, the pattern definition resolver, the
+ * attribute evaluators and the render pipeline of the Tiles container, run
+ * against synthetic definitions and in-memory requests.<br>
+ * Build the module with the <code>benchmarks</code> profile and run, for
+ * instance:
+ * <pre>
+ * mvn -Pbenchmarks -pl tiles-benchmarks -am package
+ * java -jar tiles-benchmarks/target/tiles-benchmarks.jar -rf json -rff results.json
+ * </pre>
+ * Parameters can be restricted from the command line, e.g.
+ * <code>-p definitionCount=5000 -p localeCount=1</code>.<br>
+ * The heap retained by the definitions, with and without sharing, is printed
+ * by {@link org.apache.tiles.benchmarks.DefinitionFootprint}.
+ */
+package org.apache.tiles.benchmarks;
@@ -22,6 +22,9 @@
 package org.apache.tiles.definition;
 
 import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 import org.apache.tiles.Definition;
 import org.apache.tiles.request.Request;
@@ -35,6 +38,11 @@ import org.apache.tiles.request.Request;
  * {@link org.apache.tiles.definition.digester.DigesterDefinitionsReader DigesterDefinitionsReader}
  * class unless another implementation is specified.
  * </p>
+ * <p>
+ * If {@link #setCacheResolvedDefinitions(boolean)} is enabled, the fully
+ * inherited definitions are kept per name and locale, and they are discarded
+ * when the DAO reloads its definitions.
+ * </p>
  *
  * @version $Rev$ $Date$
  * @since 2.1.0
@@ -42,18 +50,83 @@ import org.apache.tiles.request.Request;
 public class LocaleDefinitionsFactory extends
         UnresolvingLocaleDefinitionsFactory {
 
+    /**
+     * Indicates that resolved definitions are cached.
+     */
+    private boolean cacheResolvedDefinitions = false;
+
+    /**
+     * Maps a locale to its resolved definitions.
+     */
+    private final ConcurrentMap<Locale, ResolvedDefinitions> locale2resolvedDefinitions =
+        new ConcurrentHashMap<Locale, ResolvedDefinitions>();
+
+    /**
+     * Sets whether definitions, once their inheritance is resolved, are cached
+     * per name and locale. The cached definitions are shared between requests,
+     * so they must not be modified. The cache of a locale is discarded when
+     * the map returned by {@link org.apache.tiles.definition.dao.DefinitionDAO#getDefinitions(Object)}
+     * changes, which is what the caching DAOs do when they reload, so this
+     * mode should be used together with a caching DAO, such as
+     * {@link org.apache.tiles.definition.dao.CachingLocaleUrlDefinitionDAO}.
+     *
+     * @param cacheResolvedDefinitions <code>true</code> to cache resolved
+     * definitions.
+     * @since 3.0.6
+     */
+    public void setCacheResolvedDefinitions(boolean cacheResolvedDefinitions) {
+        this.cacheResolvedDefinitions = cacheResolvedDefinitions;
+        locale2resolvedDefinitions.clear();
+    }
+
     /** {@inheritDoc} */
     @Override
     public Definition getDefinition(String name,
             Request tilesContext) {
-        Definition retValue;
         Locale locale = null;
 
         if (tilesContext != null) {
-            locale = localeResolver.resolveLocale(tilesContext);
+            locale = resolveLocale(tilesContext);
+        }
+
+        if (!cacheResolvedDefinitions) {
+            return resolveDefinition(name, locale);
+        }
+
+        Map<String, Definition> definitions = definitionDao.getDefinitions(locale);
+        Locale key = locale != null ? locale : Locale.ROOT;
+        ResolvedDefinitions resolvedDefinitions = locale2resolvedDefinitions.get(key);
+        if (resolvedDefinitions == null
+                || resolvedDefinitions.source != definitions) {
+            resolvedDefinitions = new ResolvedDefinitions(definitions);
+            locale2resolvedDefinitions.put(key, resolvedDefinitions);
+        }
+        Definition retValue = resolvedDefinitions.definitions.get(name);
+        if (retValue == null) {
+            retValue = resolveDefinition(name, locale);
+            if (retValue != null) {
+                Definition existing = resolvedDefinitions.definitions
+                        .putIfAbsent(name, retValue);
+                if (existing != null) {
+                    retValue = existing;
+                }
+            }
         }
 
-        retValue = definitionDao.getDefinition(name, locale);
+        return retValue;
+    }
+
+    /**
+     * Returns a copy of a definition, that inherits from all its ancestors.
+     *
+     * @param name The name of the definition.
+     * @param locale The locale to use.
+     * @return The resolved definition, or <code>null</code> if not found.
+     * @throws NoSuchDefinitionException If an ancestor cannot be found.
+     * @since 3.0.6
+     */
+    protected Definition resolveDefinition(String name, Locale locale) {
+        Definition retValue = definitionDao.getDefinition(name, locale);
         if (retValue != null) {
             retValue = new Definition(retValue);
             String parentDefinitionName = retValue.getExtends();
@@ -72,4 +145,31 @@ public class LocaleDefinitionsFactory extends
 
         return retValue;
     }
+
+    /**
+     * The resolved definitions of a locale, valid as long as the DAO returns
+     * the same map of definitions.
+     */
+    private static class ResolvedDefinitions {
+
+        /**
+         * The definitions of the DAO these definitions have been resolved from.
+         */
+        private final Map<String, Definition> source;
+
+        /**
+         * Maps a name to its resolved definition.
+         */
+        private final ConcurrentMap<String, Definition> definitions =
+            new ConcurrentHashMap<String, Definition>();
+
+        /**
+         * Constructor.
+         *
+         * @param source The definitions of the DAO.
+         */
+        public ResolvedDefinitions(Map<String, Definition> source) {
+            this.source = source;
+        }
+    }
 }
@@ -21,10 +21,15 @@
 
 package org.apache.tiles.definition;
 
+import java.util.HashMap;
+import java.util.IdentityHashMap;
 import java.util.Locale;
+import java.util.Map;
 
 import org.apache.tiles.Definition;
 import org.apache.tiles.definition.dao.DefinitionDAO;
+import org.apache.tiles.evaluator.AttributeEvaluatorFactory;
+import org.apache.tiles.evaluator.AttributeEvaluatorFactoryAware;
 import org.apache.tiles.locale.LocaleResolver;
 import org.apache.tiles.request.Request;
 
@@ -37,11 +42,30 @@ import org.apache.tiles.request.Request;
  * {@link org.apache.tiles.definition.digester.DigesterDefinitionsReader DigesterDefinitionsReader}
  * class unless another implementation is specified.
  * </p>
+ * <p>
+ * If {@link #setRequestCacheSize(int)} enables it, the locale is resolved once
+ * per request, and the definitions returned during a request are remembered in
+ * the request scope, under {@link #REQUEST_CACHE_ATTRIBUTE_NAME}, so that the
+ * following lookups of the same definition in the same request do not reach
+ * the locale resolver and the definition DAO. In that case a change of locale
+ * during a request is seen by the next request only.
+ * </p>
  *
  * @version $Rev$ $Date$
  * @since 2.2.1
  */
-public class UnresolvingLocaleDefinitionsFactory implements DefinitionsFactory {
+public class UnresolvingLocaleDefinitionsFactory implements DefinitionsFactory,
+        AttributeEvaluatorFactoryAware {
+
+    /**
+     * The name of the request-scoped attribute that stores, for each
+     * definitions factory, the locale of the request and the definitions
+     * already returned.
+     *
+     * @since 3.0.6
+     */
+    public static final String REQUEST_CACHE_ATTRIBUTE_NAME =
+        "org.apache.tiles.definition.UnresolvingLocaleDefinitionsFactory.REQUEST_CACHE";
 
     /**
      * The definition DAO that extracts the definitions from the sources.
@@ -57,6 +81,11 @@ public class UnresolvingLocaleDefinitionsFactory implements DefinitionsFactory {
      */
     protected LocaleResolver localeResolver;
 
+    /**
+     * The maximum number of definitions remembered for each request.
+     */
+    private int requestCacheSize = 0;
+
     /**
      * Sets the locale resolver to use.
      *
@@ -67,6 +96,20 @@ public class UnresolvingLocaleDefinitionsFactory implements DefinitionsFactory {
         this.localeResolver = localeResolver;
     }
 
+    /**
+     * Sets the maximum number of definitions remembered for each request. If
+     * it is <code>0</code>, the default, nothing is remembered, not even the
+     * locale, and every lookup resolves the locale and asks the definition
+     * DAO. Otherwise the locale and the definitions, missing ones included,
+     * do not change for the rest of the request, even if the locale does.
+     *
+     * @param requestCacheSize The maximum number of definitions.
+     * @since 3.0.6
+     */
+    public void setRequestCacheSize(int requestCacheSize) {
+        this.requestCacheSize = requestCacheSize;
+    }
+
     /**
      * Sets the definition DAO to use. It must be locale-based.
      *
@@ -77,15 +120,132 @@ public class UnresolvingLocaleDefinitionsFactory implements DefinitionsFactory {
         this.definitionDao = definitionDao;
     }
 
+    /**
+     * Returns the definition DAO in use.
+     *
+     * @return The definition DAO.
+     * @since 3.0.6
+     */
+    public DefinitionDAO<Locale> getDefinitionDAO() {
+        return definitionDao;
+    }
+
+    /**
+     * Sets the attribute evaluator factory. It is passed to the definition
+     * DAO, if it is {@link AttributeEvaluatorFactoryAware}.
+     *
+     * @param attributeEvaluatorFactory The attribute evaluator factory to use.
+     * @since 3.0.6
+     */
+    public void setAttributeEvaluatorFactory(
+            AttributeEvaluatorFactory attributeEvaluatorFactory) {
+        if (definitionDao instanceof AttributeEvaluatorFactoryAware) {
+            ((AttributeEvaluatorFactoryAware) definitionDao)
+                    .setAttributeEvaluatorFactory(attributeEvaluatorFactory);
+        }
+    }
+
     /** {@inheritDoc} */
     public Definition getDefinition(String name,
             Request tilesContext) {
+        RequestCache cache = null;
         Locale locale = null;
 
         if (tilesContext != null) {
-            locale = localeResolver.resolveLocale(tilesContext);
+            cache = getRequestCache(tilesContext);
+            if (cache == null) {
+                locale = localeResolver.resolveLocale(tilesContext);
+            } else {
+                synchronized (cache) {
+                    if (cache.definitions.containsKey(name)) {
+                        return cache.definitions.get(name);
+                    }
+                }
+                locale = cache.locale;
+            }
         }
 
-        return definitionDao.getDefinition(name, locale);
+        Definition retValue = definitionDao.getDefinition(name, locale);
+        if (cache != null) {
+            synchronized (cache) {
+                if (cache.definitions.size() < requestCacheSize) {
+                    cache.definitions.put(name, retValue);
+                }
+            }
+        }
+        return retValue;
+    }
+
+    /**
+     * Resolves the locale of a request, once per request when the request
+     * cache is enabled.
+     *
+     * @param tilesContext The request.
+     * @return The locale.
+     * @since 3.0.6
+     */
+    protected Locale resolveLocale(Request tilesContext) {
+        RequestCache cache = getRequestCache(tilesContext);
+        if (cache == null) {
+            return localeResolver.resolveLocale(tilesContext);
+        }
+        return cache.locale;
+    }
+
+    /**
+     * Returns the cache of this factory for a request, creating it if needed.
+     *
+     * @param tilesContext The request.
+     * @return The cache, or <code>null</code> if the cache is disabled or
+     * there is no request scope.
+     */
+    @SuppressWarnings("unchecked")
+    private RequestCache getRequestCache(Request tilesContext) {
+        if (requestCacheSize <= 0) {
+            return null;
+        }
+        Map<String, Object> requestScope = tilesContext.getContext("request");
+        if (requestScope == null) {
+            return null;
+        }
+        Map<UnresolvingLocaleDefinitionsFactory, RequestCache> caches =
+            (Map<UnresolvingLocaleDefinitionsFactory, RequestCache>) requestScope
+                .get(REQUEST_CACHE_ATTRIBUTE_NAME);
+        if (caches == null) {
+            caches = new IdentityHashMap<UnresolvingLocaleDefinitionsFactory, RequestCache>();
+            requestScope.put(REQUEST_CACHE_ATTRIBUTE_NAME, caches);
+        }
+        RequestCache retValue = caches.get(this);
+        if (retValue == null) {
+            retValue = new RequestCache(localeResolver.resolveLocale(tilesContext));
+            caches.put(this, retValue);
+        }
+        return retValue;
+    }
+
+    /**
+     * The locale of a request and the definitions returned during it.
+     */
+    private static class RequestCache {
+
+        /**
+         * The locale of the request.
+         */
+        private final Locale locale;
+
+        /**
+         * The definitions returned, by name. Missing definitions are mapped to
+         * <code>null</code>.
+         */
+        private final Map<String, Definition> definitions = new HashMap<String, Definition>();
+
+        /**
+         * Constructor.
+         *
+         * @param locale The locale of the request.
+         */
+        public RequestCache(Locale locale) {
+            this.locale = locale;
+        }
     }
 }
@@ -0,0 +1,131 @@
+/*
+ * $Id$
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.tiles.definition.binary;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Map;
+
+import org.apache.tiles.Definition;
+import org.apache.tiles.definition.DefinitionsReader;
+import org.apache.tiles.definition.digester.DigesterDefinitionsReader;
+
+/**
+ * Compiles definition files, usually XML, into the binary format read by
+ * {@link BinaryDefinitionsReader}. It is meant to be run at build time:
+ * <pre>
+ * java org.apache.tiles.definition.binary.BinaryDefinitionsCompiler \
+ *     tiles.xml tiles.tdef [tiles_it.xml tiles_it.tdef ...]
+ * </pre>
+ * Localized files must be compiled one by one, keeping their locale suffix, so
+ * that the compiled files are found as the XML ones would be.
+ *
+ * @version $Rev$ $Date$
+ * @since 3.0.6
+ */
+public class BinaryDefinitionsCompiler {
+
+    /**
+     * The reader of the source files.
+     */
+    private DefinitionsReader sourceReader;
+
+    /**
+     * The writer of the binary files.
+     */
+    private BinaryDefinitionsWriter writer = new BinaryDefinitionsWriter();
+
+    /**
+     * Constructor, that compiles XML files.
+     *
+     * @since 3.0.6
+     */
+    public BinaryDefinitionsCompiler() {
+        this(new DigesterDefinitionsReader());
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param sourceReader The reader of the source files.
+     * @since 3.0.6
+     */
+    public BinaryDefinitionsCompiler(DefinitionsReader sourceReader) {
+        this.sourceReader = sourceReader;
+    }
+
+    /**
+     * Compiles a definition file.
+     *
+     * @param source The source file.
+     * @param target The binary file to write.
+     * @return The number of compiled definitions.
+     * @throws IOException If something goes wrong when reading or writing.
+     * @since 3.0.6
+     */
+    public int compile(File source, File target) throws IOException {
+        Map<String, Definition> definitions;
+        InputStream in = new BufferedInputStream(new FileInputStream(source));
+        try {
+            definitions = sourceReader.read(in);
+        } finally {
+            in.close();
+        }
+
+        OutputStream out = new BufferedOutputStream(new FileOutputStream(target));
+        try {
+            writer.write(definitions, out);
+        } finally {
+            out.close();
+        }
+        return definitions.size();
+    }
+
+    /**
+     * Compiles the files passed as pairs of source and target.
+     *
+     * @param args The source and target files, alternated.
+     * @throws IOException If something goes wrong when reading or writing.
+     * @since 3.0.6
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length == 0 || args.length % 2 != 0) {
+            System.err.println("Usage: java "
+                    + BinaryDefinitionsCompiler.class.getName()
+                    + " <source> <target> [<source> <target> ...]");
+            System.exit(1);
+        }
+
+        BinaryDefinitionsCompiler compiler = new BinaryDefinitionsCompiler();
+        for (int i = 0; i < args.length; i += 2) {
+            int count = compiler.compile(new File(args[i]), new File(args[i + 1]));
+            System.out.println("Compiled " + count + " definitions from "
+                    + args[i] + " to " + args[i + 1]);
+        }
+    }
+}
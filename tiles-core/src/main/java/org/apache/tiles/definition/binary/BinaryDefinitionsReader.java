@@ -0,0 +1,313 @@
+/*
+ * $Id$
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.tiles.definition.binary;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.tiles.Attribute;
+import org.apache.tiles.Definition;
+import org.apache.tiles.Expression;
+import org.apache.tiles.ListAttribute;
+import org.apache.tiles.RoleSet;
+import org.apache.tiles.definition.ConcurrentDefinitionsReader;
+import org.apache.tiles.definition.DefinitionsFactoryException;
+
+/**
+ * Reads {@link Definition} objects from the binary format produced by
+ * {@link BinaryDefinitionsWriter}. <br>
+ * The source can be an <code>InputStream</code>, a <code>ByteBuffer</code> or
+ * a <code>File</code>, that will be memory-mapped. The data is made of a
+ * header, a table of all the strings used and the definition records, that
+ * refer to strings through their index in the table. <br>
+ * This reader holds no state, so a single instance can be used by multiple
+ * threads.
+ *
+ * @version $Rev$ $Date$
+ * @since 3.0.6
+ */
+public class BinaryDefinitionsReader implements ConcurrentDefinitionsReader {
+
+    /**
+     * The magic number that starts every binary definitions file ("TDEF").
+     */
+    static final int MAGIC = 0x54444546;
+
+    /**
+     * The version of the format.
+     */
+    static final short VERSION = 1;
+
+    /**
+     * The index that represents a <code>null</code> string.
+     */
+    static final int NULL_INDEX = -1;
+
+    /**
+     * Record kind: <code>null</code> attribute.
+     */
+    static final byte NULL_ATTRIBUTE = 0;
+
+    /**
+     * Record kind: simple attribute.
+     */
+    static final byte SIMPLE_ATTRIBUTE = 1;
+
+    /**
+     * Record kind: list attribute.
+     */
+    static final byte LIST_ATTRIBUTE = 2;
+
+    /**
+     * The charset used to encode strings.
+     */
+    static final Charset CHARSET = Charset.forName("UTF-8");
+
+    /**
+     * The size of the buffer used to read streams.
+     */
+    private static final int BUFFER_SIZE = 8192;
+
+    /**
+     * Reads <code>{@link Definition}</code> objects from a source.
+     *
+     * @param source The <code>InputStream</code>, <code>ByteBuffer</code> or
+     * <code>File</code> from which definitions will be read.
+     * @return a Map of <code>Definition</code> objects read from the source.
+     * @throws DefinitionsFactoryException If the source is invalid or an error
+     * occurs when reading definitions.
+     */
+    public Map<String, Definition> read(Object source) {
+        if (source == null) {
+            return null;
+        }
+
+        ByteBuffer buffer;
+        try {
+            if (source instanceof ByteBuffer) {
+                buffer = ((ByteBuffer) source).duplicate();
+            } else if (source instanceof File) {
+                buffer = map((File) source);
+            } else if (source instanceof InputStream) {
+                buffer = toBuffer((InputStream) source);
+            } else {
+                throw new DefinitionsFactoryException(
+                        "Invalid source type. Requires java.io.InputStream, java.nio.ByteBuffer or java.io.File.");
+            }
+        } catch (IOException e) {
+            throw new DefinitionsFactoryException(
+                    "I/O Error reading definitions.", e);
+        }
+
+        try {
+            return read(buffer);
+        } catch (BufferUnderflowException e) {
+            throw new DefinitionsFactoryException(
+                    "Truncated binary definitions.", e);
+        } catch (IndexOutOfBoundsException e) {
+            throw new DefinitionsFactoryException(
+                    "Corrupted binary definitions.", e);
+        }
+    }
+
+    /**
+     * Decodes the definitions contained in a buffer.
+     *
+     * @param buffer The buffer, positioned at the start of the header.
+     * @return The definitions, in the order they have been written.
+     */
+    private Map<String, Definition> read(ByteBuffer buffer) {
+        if (buffer.getInt() != MAGIC) {
+            throw new DefinitionsFactoryException(
+                    "The source does not contain binary definitions.");
+        }
+        short version = buffer.getShort();
+        if (version != VERSION) {
+            throw new DefinitionsFactoryException(
+                    "Unsupported binary definitions version: " + version);
+        }
+
+        String[] strings = new String[readCount(buffer)];
+        for (int i = 0; i < strings.length; i++) {
+            byte[] bytes = new byte[readCount(buffer)];
+            buffer.get(bytes);
+            strings[i] = new String(bytes, CHARSET);
+        }
+
+        int count = readCount(buffer);
+        Map<String, Definition> definitions = new LinkedHashMap<String, Definition>();
+        for (int i = 0; i < count; i++) {
+            Definition definition = new Definition();
+            definition.setName(readString(buffer, strings));
+            definition.setExtends(readString(buffer, strings));
+            definition.setPreparer(readString(buffer, strings));
+            definition.setTemplateAttribute(readAttribute(buffer, strings));
+            readAttributes(buffer, strings, definition, false);
+            readAttributes(buffer, strings, definition, true);
+            definitions.put(definition.getName(), definition);
+        }
+        return definitions;
+    }
+
+    /**
+     * Reads the local or cascaded attributes of a definition.
+     *
+     * @param buffer The buffer to read.
+     * @param strings The string table.
+     * @param definition The definition to fill.
+     * @param cascade <code>true</code> for cascaded attributes.
+     */
+    private void readAttributes(ByteBuffer buffer, String[] strings,
+            Definition definition, boolean cascade) {
+        int count = readCount(buffer);
+        for (int i = 0; i < count; i++) {
+            String name = readString(buffer, strings);
+            definition.putAttribute(name, readAttribute(buffer, strings), cascade);
+        }
+    }
+
+    /**
+     * Reads an attribute record.
+     *
+     * @param buffer The buffer to read.
+     * @param strings The string table.
+     * @return The attribute, or <code>null</code>.
+     */
+    private Attribute readAttribute(ByteBuffer buffer, String[] strings) {
+        byte kind = buffer.get();
+        Attribute attribute;
+        switch (kind) {
+        case NULL_ATTRIBUTE:
+            return null;
+        case SIMPLE_ATTRIBUTE:
+            attribute = new Attribute();
+            attribute.setValue(readString(buffer, strings));
+            break;
+        case LIST_ATTRIBUTE:
+            ListAttribute listAttribute = new ListAttribute();
+            listAttribute.setInherit(buffer.get() != 0);
+            int count = readCount(buffer);
+            for (int i = 0; i < count; i++) {
+                listAttribute.add(readAttribute(buffer, strings));
+            }
+            attribute = listAttribute;
+            break;
+        default:
+            throw new DefinitionsFactoryException(
+                    "Unknown attribute record kind: " + kind);
+        }
+
+        String expression = readString(buffer, strings);
+        String language = readString(buffer, strings);
+        if (expression != null) {
+            attribute.setExpressionObject(new Expression(expression, language));
+        }
+        attribute.setRenderer(readString(buffer, strings));
+        int roleCount = readCount(buffer);
+        if (roleCount > 0) {
+            List<String> roles = new ArrayList<String>(roleCount);
+            for (int i = 0; i < roleCount; i++) {
+                roles.add(readString(buffer, strings));
+            }
+            attribute.setRoles(RoleSet.copyOf(roles));
+        }
+        return attribute;
+    }
+
+    /**
+     * Reads the number of the following items or bytes. Since each of them
+     * takes at least a byte, it cannot be greater than the remaining bytes.
+     *
+     * @param buffer The buffer to read.
+     * @return The count.
+     * @throws DefinitionsFactoryException If the count is not valid.
+     */
+    private int readCount(ByteBuffer buffer) {
+        int count = buffer.getInt();
+        if (count < 0 || count > buffer.remaining()) {
+            throw new DefinitionsFactoryException(
+                    "Corrupted binary definitions.");
+        }
+        return count;
+    }
+
+    /**
+     * Reads a reference to the string table.
+     *
+     * @param buffer The buffer to read.
+     * @param strings The string table.
+     * @return The referenced string, or <code>null</code>.
+     */
+    private String readString(ByteBuffer buffer, String[] strings) {
+        int index = buffer.getInt();
+        return index == NULL_INDEX ? null : strings[index];
+    }
+
+    /**
+     * Maps a file in memory.
+     *
+     * @param file The file to map.
+     * @return The mapped buffer.
+     * @throws IOException If the file cannot be mapped.
+     */
+    private ByteBuffer map(File file) throws IOException {
+        FileInputStream stream = new FileInputStream(file);
+        try {
+            FileChannel channel = stream.getChannel();
+            return channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        } finally {
+            stream.close();
+        }
+    }
+
+    /**
+     * Reads a stream fully into a buffer.
+     *
+     * @param stream The stream to read. It is not closed.
+     * @return The buffer containing the content of the stream.
+     * @throws IOException If the stream cannot be read.
+     */
+    private ByteBuffer toBuffer(InputStream stream) throws IOException {
+        byte[] bytes = new byte[BUFFER_SIZE];
+        int length = 0;
+        int read;
+        while ((read = stream.read(bytes, length, bytes.length - length)) >= 0) {
+            length += read;
+            if (length == bytes.length) {
+                byte[] newBytes = new byte[bytes.length * 2];
+                System.arraycopy(bytes, 0, newBytes, 0, length);
+                bytes = newBytes;
+            }
+        }
+        return ByteBuffer.wrap(bytes, 0, length);
+    }
+}
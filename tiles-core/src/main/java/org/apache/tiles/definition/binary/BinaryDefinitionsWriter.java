@@ -0,0 +1,194 @@
+/*
+ * $Id$
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.tiles.definition.binary;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.apache.tiles.Attribute;
+import org.apache.tiles.Definition;
+import org.apache.tiles.Expression;
+import org.apache.tiles.ListAttribute;
+import org.apache.tiles.definition.DefinitionsFactoryException;
+
+/**
+ * Writes {@link Definition} objects in the binary format read by
+ * {@link BinaryDefinitionsReader}. <br>
+ * Only attributes whose values are strings can be written, that is the case
+ * of every definition read from XML files.
+ *
+ * @version $Rev$ $Date$
+ * @since 3.0.6
+ */
+public class BinaryDefinitionsWriter {
+
+    /**
+     * Writes definitions to a stream.
+     *
+     * @param definitions The definitions to write.
+     * @param stream The stream to write to. It is not closed.
+     * @throws IOException If something goes wrong when writing.
+     * @throws DefinitionsFactoryException If an attribute value is not a
+     * string.
+     * @since 3.0.6
+     */
+    public void write(Map<String, Definition> definitions, OutputStream stream)
+            throws IOException {
+        Map<String, Integer> strings = new LinkedHashMap<String, Integer>();
+        ByteArrayOutputStream records = new ByteArrayOutputStream();
+        DataOutputStream recordsOut = new DataOutputStream(records);
+        recordsOut.writeInt(definitions.size());
+        for (Definition definition : definitions.values()) {
+            writeString(recordsOut, strings, definition.getName());
+            writeString(recordsOut, strings, definition.getExtends());
+            writeString(recordsOut, strings, definition.getPreparer());
+            writeAttribute(recordsOut, strings, definition.getTemplateAttribute());
+            writeAttributes(recordsOut, strings, definition, false);
+            writeAttributes(recordsOut, strings, definition, true);
+        }
+        recordsOut.flush();
+
+        DataOutputStream out = new DataOutputStream(stream);
+        out.writeInt(BinaryDefinitionsReader.MAGIC);
+        out.writeShort(BinaryDefinitionsReader.VERSION);
+        out.writeInt(strings.size());
+        for (String string : strings.keySet()) {
+            byte[] bytes = string.getBytes(BinaryDefinitionsReader.CHARSET);
+            out.writeInt(bytes.length);
+            out.write(bytes);
+        }
+        records.writeTo(out);
+        out.flush();
+    }
+
+    /**
+     * Writes the local or cascaded attributes of a definition.
+     *
+     * @param out The output to write to.
+     * @param strings The string table being built.
+     * @param definition The definition to write.
+     * @param cascade <code>true</code> for cascaded attributes.
+     * @throws IOException If something goes wrong when writing.
+     */
+    private void writeAttributes(DataOutputStream out,
+            Map<String, Integer> strings, Definition definition,
+            boolean cascade) throws IOException {
+        Set<String> names = cascade ? definition.getCascadedAttributeNames()
+                : definition.getLocalAttributeNames();
+        if (names == null) {
+            out.writeInt(0);
+            return;
+        }
+        out.writeInt(names.size());
+        for (String name : names) {
+            writeString(out, strings, name);
+            writeAttribute(out, strings, cascade ? definition
+                    .getCascadedAttribute(name) : definition
+                    .getLocalAttribute(name));
+        }
+    }
+
+    /**
+     * Writes an attribute record.
+     *
+     * @param out The output to write to.
+     * @param strings The string table being built.
+     * @param attribute The attribute to write. It can be <code>null</code>.
+     * @throws IOException If something goes wrong when writing.
+     */
+    private void writeAttribute(DataOutputStream out,
+            Map<String, Integer> strings, Attribute attribute)
+            throws IOException {
+        if (attribute == null) {
+            out.writeByte(BinaryDefinitionsReader.NULL_ATTRIBUTE);
+            return;
+        }
+
+        if (attribute instanceof ListAttribute) {
+            ListAttribute listAttribute = (ListAttribute) attribute;
+            out.writeByte(BinaryDefinitionsReader.LIST_ATTRIBUTE);
+            out.writeByte(listAttribute.isInherit() ? 1 : 0);
+            List<Attribute> items = listAttribute.getValue();
+            out.writeInt(items.size());
+            for (Attribute item : items) {
+                writeAttribute(out, strings, item);
+            }
+        } else {
+            Object value = attribute.getValue();
+            if (value != null && !(value instanceof String)) {
+                throw new DefinitionsFactoryException(
+                        "Cannot write an attribute whose value is a "
+                                + value.getClass().getName());
+            }
+            out.writeByte(BinaryDefinitionsReader.SIMPLE_ATTRIBUTE);
+            writeString(out, strings, (String) value);
+        }
+
+        Expression expression = attribute.getExpressionObject();
+        if (expression != null) {
+            writeString(out, strings, expression.getExpression());
+            writeString(out, strings, expression.getLanguage());
+        } else {
+            writeString(out, strings, null);
+            writeString(out, strings, null);
+        }
+        writeString(out, strings, attribute.getRenderer());
+        Set<String> roles = attribute.getRoles();
+        if (roles == null) {
+            out.writeInt(0);
+        } else {
+            out.writeInt(roles.size());
+            for (String role : roles) {
+                writeString(out, strings, role);
+            }
+        }
+    }
+
+    /**
+     * Writes a reference to the string table, adding the string to the table
+     * if needed.
+     *
+     * @param out The output to write to.
+     * @param strings The string table being built.
+     * @param string The string to write. It can be <code>null</code>.
+     * @throws IOException If something goes wrong when writing.
+     */
+    private void writeString(DataOutputStream out,
+            Map<String, Integer> strings, String string) throws IOException {
+        if (string == null) {
+            out.writeInt(BinaryDefinitionsReader.NULL_INDEX);
+            return;
+        }
+        Integer index = strings.get(string);
+        if (index == null) {
+            index = strings.size();
+            strings.put(string, index);
+        }
+        out.writeInt(index);
+    }
+}
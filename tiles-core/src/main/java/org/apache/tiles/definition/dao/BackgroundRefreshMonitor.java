@@ -0,0 +1,245 @@
+/*
+ * $Id$
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.tiles.definition.dao;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.tiles.request.ApplicationContext;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Checks, in a background thread, whether the sources of a
+ * {@link CachingLocaleUrlDefinitionDAO} have been modified and, if so, reloads
+ * its definitions in the same thread. The current definitions are served until
+ * the new ones are completely loaded.<br>
+ * It is an alternative to
+ * {@link CachingLocaleUrlDefinitionDAO#setCheckRefresh(boolean)}, that checks
+ * the sources at every request: when using this monitor, the check should be
+ * turned off.<br>
+ * Monitors {@link #register(ApplicationContext, BackgroundRefreshMonitor)
+ * registered} in an application context are stopped by
+ * {@link #stopAll(ApplicationContext)}, that is called when Tiles is
+ * destroyed.
+ *
+ * @version $Rev$ $Date$
+ * @since 3.0.6
+ */
+public class BackgroundRefreshMonitor {
+
+    /**
+     * The default interval, in milliseconds, between two checks.
+     *
+     * @since 3.0.6
+     */
+    public static final long DEFAULT_INTERVAL = 5000L;
+
+    /**
+     * The name of the application scope attribute that stores the registered
+     * monitors.
+     *
+     * @since 3.0.6
+     */
+    public static final String MONITORS_ATTRIBUTE_NAME =
+        BackgroundRefreshMonitor.class.getName() + ".MONITORS";
+
+    /**
+     * The logging object.
+     */
+    private final Logger log = LoggerFactory
+            .getLogger(BackgroundRefreshMonitor.class);
+
+    /**
+     * The DAO to monitor.
+     */
+    private final CachingLocaleUrlDefinitionDAO definitionDao;
+
+    /**
+     * The interval, in milliseconds, between two checks.
+     */
+    private final long interval;
+
+    /**
+     * The number of times definitions have been reloaded.
+     */
+    private volatile long generation = 0;
+
+    /**
+     * The executor that runs the checks. It is <code>null</code> if the monitor
+     * is not started.
+     */
+    private ScheduledExecutorService executor;
+
+    /**
+     * Constructor, using the default interval.
+     *
+     * @param definitionDao The DAO to monitor.
+     * @since 3.0.6
+     */
+    public BackgroundRefreshMonitor(CachingLocaleUrlDefinitionDAO definitionDao) {
+        this(definitionDao, DEFAULT_INTERVAL);
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param definitionDao The DAO to monitor.
+     * @param interval The interval, in milliseconds, between two checks.
+     * @since 3.0.6
+     */
+    public BackgroundRefreshMonitor(CachingLocaleUrlDefinitionDAO definitionDao,
+            long interval) {
+        this.definitionDao = definitionDao;
+        this.interval = interval;
+    }
+
+    /**
+     * Starts checking the sources. The checking thread is a daemon thread, but
+     * {@link #stop()} should be called when the DAO is not used anymore.
+     *
+     * @since 3.0.6
+     */
+    public synchronized void start() {
+        if (executor != null) {
+            return;
+        }
+        executor = Executors.newSingleThreadScheduledExecutor(new ThreadFactory() {
+
+            public Thread newThread(Runnable r) {
+                Thread thread = new Thread(r, "tiles-definitions-refresh");
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
+        executor.scheduleWithFixedDelay(new Runnable() {
+
+            public void run() {
+                checkAndReload();
+            }
+        }, interval, interval, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Stops checking the sources.
+     *
+     * @since 3.0.6
+     */
+    public synchronized void stop() {
+        if (executor != null) {
+            executor.shutdownNow();
+            executor = null;
+        }
+    }
+
+    /**
+     * Checks if the monitor is started.
+     *
+     * @return <code>true</code> if the sources are being checked.
+     * @since 3.0.6
+     */
+    public synchronized boolean isStarted() {
+        return executor != null;
+    }
+
+    /**
+     * Returns the number of times the definitions have been reloaded by this
+     * monitor. It is meant for monitoring, requests do not need it.
+     *
+     * @return The reload generation.
+     * @since 3.0.6
+     */
+    public long getGeneration() {
+        return generation;
+    }
+
+    /**
+     * Checks whether the sources have been modified and, if so, reloads the
+     * definitions.
+     *
+     * @since 3.0.6
+     */
+    protected void checkAndReload() {
+        try {
+            if (definitionDao.refreshRequired()) {
+                log.debug("Definition sources changed, reloading");
+                definitionDao.reloadDefinitions();
+                generation++;
+            }
+        } catch (RuntimeException e) {
+            // Keep on monitoring, the sources may be fixed later.
+            log.error("Cannot reload definitions", e);
+        }
+    }
+
+    /**
+     * Registers a monitor in an application context, so that it is stopped by
+     * {@link #stopAll(ApplicationContext)}.
+     *
+     * @param applicationContext The Tiles application context.
+     * @param monitor The monitor to register.
+     * @since 3.0.6
+     */
+    @SuppressWarnings("unchecked")
+    public static void register(ApplicationContext applicationContext,
+            BackgroundRefreshMonitor monitor) {
+        Map<String, Object> applicationScope = applicationContext
+                .getApplicationScope();
+        synchronized (applicationScope) {
+            List<BackgroundRefreshMonitor> monitors = (List<BackgroundRefreshMonitor>) applicationScope
+                    .get(MONITORS_ATTRIBUTE_NAME);
+            if (monitors == null) {
+                monitors = new ArrayList<BackgroundRefreshMonitor>();
+                applicationScope.put(MONITORS_ATTRIBUTE_NAME, monitors);
+            }
+            monitors.add(monitor);
+        }
+    }
+
+    /**
+     * Stops and unregisters all the monitors registered in an application
+     * context.
+     *
+     * @param applicationContext The Tiles application context.
+     * @since 3.0.6
+     */
+    @SuppressWarnings("unchecked")
+    public static void stopAll(ApplicationContext applicationContext) {
+        Map<String, Object> applicationScope = applicationContext
+                .getApplicationScope();
+        List<BackgroundRefreshMonitor> monitors;
+        synchronized (applicationScope) {
+            monitors = (List<BackgroundRefreshMonitor>) applicationScope
+                    .remove(MONITORS_ATTRIBUTE_NAME);
+        }
+        if (monitors != null) {
+            for (BackgroundRefreshMonitor monitor : monitors) {
+                monitor.stop();
+            }
+        }
+    }
+}
@@ -25,13 +25,14 @@ import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.io.InputStream;
 import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 import org.apache.tiles.Definition;
+import org.apache.tiles.definition.ConcurrentDefinitionsReader;
 import org.apache.tiles.definition.DefinitionsFactoryException;
 import org.apache.tiles.definition.DefinitionsReader;
 import org.apache.tiles.definition.RefreshMonitor;
@@ -89,7 +90,7 @@ public abstract class BaseLocaleUrlDefinitionDAO implements
      */
     public BaseLocaleUrlDefinitionDAO(ApplicationContext applicationContext) {
         this.applicationContext = applicationContext;
-        lastModifiedDates = new HashMap<String, Long>();
+        lastModifiedDates = new ConcurrentHashMap<String, Long>();
     }
 
     public void setSources(List<ApplicationResource> sources) {
@@ -147,7 +148,14 @@ public abstract class BaseLocaleUrlDefinitionDAO implements
             // Definition must be collected, starting from the base
             // source up to the last localized file.
             stream = resource.getInputStream();
-            defsMap = reader.read(stream);
+            if (reader instanceof ConcurrentDefinitionsReader) {
+                defsMap = reader.read(stream);
+            } else {
+                // Other readers are not required to be thread-safe.
+                synchronized (reader) {
+                    defsMap = reader.read(stream);
+                }
+            }
         } catch (FileNotFoundException e) {
             // File not found. continue.
             if (log.isDebugEnabled()) {
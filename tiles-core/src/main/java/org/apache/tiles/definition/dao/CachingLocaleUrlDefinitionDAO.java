@@ -21,17 +21,32 @@
 
 package org.apache.tiles.definition.dao;
 
-import java.util.HashMap;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
 import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Locale;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 import org.apache.tiles.Definition;
+import org.apache.tiles.definition.ConcurrentDefinitionsReader;
+import org.apache.tiles.definition.DefinitionsFactoryException;
+import org.apache.tiles.definition.DefinitionsReader;
 import org.apache.tiles.definition.pattern.PatternDefinitionResolver;
 import org.apache.tiles.definition.pattern.PatternDefinitionResolverAware;
 import org.apache.tiles.request.ApplicationContext;
 import org.apache.tiles.request.ApplicationResource;
 import org.apache.tiles.request.locale.LocaleUtil;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 /**
  * <p>
@@ -42,6 +57,21 @@ import org.apache.tiles.request.locale.LocaleUtil;
  * <p>
  * It can check if the URLs change, but by default this feature is turned off.
  * </p>
+ * <p>
+ * The sources of each locale are read only once: the definitions of a locale
+ * are made of the definitions read from its own localized sources, layered
+ * on top of the ones of its parent locale, that are shared with all the
+ * other child locales. The definitions of a parent locale are not copied
+ * into the ones of its child locales: a missing name is looked up in the
+ * parent locales, see {@link LayeredDefinitionMap}.
+ * </p>
+ * <p>
+ * When concurrent loading is enabled, no lock is held while reading
+ * definitions: each locale is loaded by a single thread while the others wait
+ * only for that locale, and reloaded definitions replace the old ones
+ * atomically, so that readers keep on using the old ones until the new ones
+ * are ready.
+ * </p>
  *
  * @version $Rev$ $Date$
  * @since 2.1.0
@@ -49,6 +79,12 @@ import org.apache.tiles.request.locale.LocaleUtil;
 public class CachingLocaleUrlDefinitionDAO extends BaseLocaleUrlDefinitionDAO
         implements PatternDefinitionResolverAware<Locale> {
 
+    /**
+     * The logging object.
+     */
+    private final Logger log = LoggerFactory
+            .getLogger(CachingLocaleUrlDefinitionDAO.class);
+
     /**
      * Initialization parameter to set whether we want to refresh URLs when they
      * change.
@@ -58,6 +94,13 @@ public class CachingLocaleUrlDefinitionDAO extends BaseLocaleUrlDefinitionDAO
     public static final String CHECK_REFRESH_INIT_PARAMETER =
         "org.apache.tiles.definition.dao.LocaleUrlDefinitionDAO.CHECK_REFRESH";
 
+    /**
+     * The default time-to-live, in milliseconds, of a missing definition name.
+     *
+     * @since 3.0.6
+     */
+    public static final long DEFAULT_MISSING_DEFINITION_TIME_TO_LIVE = 60000L;
+
     /**
      * The locale-specific set of definitions objects.
      *
@@ -80,6 +123,51 @@ public class CachingLocaleUrlDefinitionDAO extends BaseLocaleUrlDefinitionDAO
      */
     protected PatternDefinitionResolver<Locale> definitionResolver;
 
+    /**
+     * Flag that, when <code>true</code>, enables loading definitions without
+     * locking the whole DAO.
+     *
+     * @since 3.0.6
+     */
+    protected boolean concurrent = false;
+
+    /**
+     * The definitions read from the sources of each locale, without the ones
+     * of its parent locales.
+     */
+    private final ConcurrentMap<Locale, Map<String, Definition>> localeLayers =
+        new ConcurrentHashMap<Locale, Map<String, Definition>>();
+
+    /**
+     * The loads in progress, one per locale, used when concurrent loading is
+     * enabled.
+     */
+    private final ConcurrentMap<Locale, FutureTask<Map<String, Definition>>> localeLoads;
+
+    /**
+     * Guards the reload of definitions when concurrent loading is enabled, so
+     * that only one thread reloads them.
+     */
+    private final AtomicBoolean reloading = new AtomicBoolean();
+
+    /**
+     * The maximum number of missing definition names to remember, per locale.
+     * If not positive, missing names are not remembered.
+     */
+    private int missingDefinitionCacheSize = 0;
+
+    /**
+     * The time-to-live, in milliseconds, of a remembered missing definition
+     * name.
+     */
+    private long missingDefinitionCacheTimeToLive = DEFAULT_MISSING_DEFINITION_TIME_TO_LIVE;
+
+    /**
+     * The names of the definitions that could not be resolved, per locale.
+     */
+    private final ConcurrentMap<Locale, MissingDefinitionCache> missingDefinitions =
+        new ConcurrentHashMap<Locale, MissingDefinitionCache>();
+
     /**
      * Constructor.
      *
@@ -87,7 +175,19 @@ public class CachingLocaleUrlDefinitionDAO extends BaseLocaleUrlDefinitionDAO
      */
     public CachingLocaleUrlDefinitionDAO(ApplicationContext applicationContext) {
         super(applicationContext);
-        locale2definitionMap = new HashMap<Locale, Map<String, Definition>>();
+        locale2definitionMap = new ConcurrentHashMap<Locale, Map<String, Definition>>();
+        localeLoads = new ConcurrentHashMap<Locale, FutureTask<Map<String, Definition>>>();
+    }
+
+    /**
+     * {@inheritDoc}<br>
+     * If concurrent loading is enabled and the reader is not a
+     * {@link ConcurrentDefinitionsReader}, concurrent loading is disabled.
+     */
+    @Override
+    public void setReader(DefinitionsReader reader) {
+        super.setReader(reader);
+        checkConcurrentReader();
     }
 
     /** {@inheritDoc} */
@@ -107,11 +207,28 @@ public class CachingLocaleUrlDefinitionDAO extends BaseLocaleUrlDefinitionDAO
             retValue = definitions.get(name);
 
             if (retValue == null) {
+                MissingDefinitionCache missingCache = getMissingDefinitionCache(customizationKey);
+                if (missingCache != null && missingCache.isMissing(name)) {
+                    return null;
+                }
+
                 retValue = getDefinitionFromResolver(name, customizationKey);
 
-                if (retValue != null) {
-                    synchronized (definitions) {
-                        definitions.put(name, retValue);
+                if (retValue == null) {
+                    if (missingCache != null) {
+                        missingCache.markMissing(name);
+                    }
+                } else {
+                    if (definitions instanceof ConcurrentMap) {
+                        Definition existing = ((ConcurrentMap<String, Definition>) definitions)
+                                .putIfAbsent(name, retValue);
+                        if (existing != null) {
+                            retValue = existing;
+                        }
+                    } else {
+                        synchronized (definitions) {
+                            definitions.put(name, retValue);
+                        }
                     }
                 }
             }
@@ -127,7 +244,14 @@ public class CachingLocaleUrlDefinitionDAO extends BaseLocaleUrlDefinitionDAO
         }
         Map<String, Definition> retValue = locale2definitionMap
                 .get(customizationKey);
-        if (retValue == null || (checkRefresh && refreshRequired())) {
+        if (concurrent) {
+            if (retValue == null) {
+                retValue = loadDefinitionsConcurrently(customizationKey);
+            } else if (checkRefresh && refreshRequired()) {
+                reloadDefinitions();
+                retValue = locale2definitionMap.get(customizationKey);
+            }
+        } else if (retValue == null || (checkRefresh && refreshRequired())) {
             retValue = checkAndloadDefinitions(customizationKey);
         }
         return retValue;
@@ -139,12 +263,102 @@ public class CachingLocaleUrlDefinitionDAO extends BaseLocaleUrlDefinitionDAO
      *
      * @param checkRefresh When <code>true</code>, enables automatic checking
      * of sources changing.
+     * @see BackgroundRefreshMonitor
      * @since 2.1.0
      */
     public void setCheckRefresh(boolean checkRefresh) {
         this.checkRefresh = checkRefresh;
     }
 
+    /**
+     * Sets the flag to load definitions concurrently. If not called, the
+     * default is <code>false</code>. It must be called before any definition
+     * is loaded.<br>
+     * When <code>true</code>, different locales are loaded in parallel, the
+     * definitions of a locale are published atomically once they are
+     * completely loaded, and definitions are read without any lock.<br>
+     * Files can be read in parallel only by a
+     * {@link ConcurrentDefinitionsReader}: any other reader is used by one
+     * thread at a time, so, if the reader is not a
+     * {@link ConcurrentDefinitionsReader}, concurrent loading stays disabled
+     * and a warning is logged.
+     *
+     * @param concurrent When <code>true</code>, enables concurrent loading of
+     * definitions.
+     * @since 3.0.6
+     */
+    public void setConcurrent(boolean concurrent) {
+        this.concurrent = concurrent;
+        checkConcurrentReader();
+    }
+
+    /**
+     * Disables concurrent loading if the reader cannot be used by more threads
+     * at the same time, since reading would be serialized anyway.
+     */
+    private void checkConcurrentReader() {
+        if (concurrent && reader != null
+                && !(reader instanceof ConcurrentDefinitionsReader)) {
+            log.warn("The definitions reader "
+                    + reader.getClass().getName()
+                    + " is not a ConcurrentDefinitionsReader, concurrent loading is disabled.");
+            concurrent = false;
+        }
+    }
+
+    /**
+     * Sets the number of names of definitions that cannot be resolved to
+     * remember, for each locale, so that looking them up again does not need
+     * to try all the patterns. If not called, the default is <code>0</code>,
+     * i.e. missing names are not remembered.<br>
+     * Remembered names are forgotten when the definitions of their locale are
+     * reloaded.
+     *
+     * @param size The maximum number of missing names per locale.
+     * @since 3.0.6
+     */
+    public void setMissingDefinitionCacheSize(int size) {
+        this.missingDefinitionCacheSize = size;
+    }
+
+    /**
+     * Sets the time, in milliseconds, after which a missing definition name is
+     * forgotten. If not called, the default is
+     * {@link #DEFAULT_MISSING_DEFINITION_TIME_TO_LIVE}. If not positive,
+     * names are forgotten only when definitions are reloaded.
+     *
+     * @param timeToLive The time-to-live of missing names.
+     * @since 3.0.6
+     */
+    public void setMissingDefinitionCacheTimeToLive(long timeToLive) {
+        this.missingDefinitionCacheTimeToLive = timeToLive;
+    }
+
+    /**
+     * Returns the cache of missing definition names for a locale, creating it
+     * if needed.
+     *
+     * @param customizationKey The locale.
+     * @return The cache, or <code>null</code> if missing names are not
+     * remembered.
+     * @since 3.0.6
+     */
+    protected MissingDefinitionCache getMissingDefinitionCache(Locale customizationKey) {
+        if (missingDefinitionCacheSize <= 0) {
+            return null;
+        }
+        MissingDefinitionCache retValue = missingDefinitions.get(customizationKey);
+        if (retValue == null) {
+            MissingDefinitionCache newCache = new MissingDefinitionCache(
+                    missingDefinitionCacheSize, missingDefinitionCacheTimeToLive);
+            retValue = missingDefinitions.putIfAbsent(customizationKey, newCache);
+            if (retValue == null) {
+                retValue = newCache;
+            }
+        }
+        return retValue;
+    }
+
     /**
      * Returns a definition from the definition resolver.
      *
@@ -169,6 +383,8 @@ public class CachingLocaleUrlDefinitionDAO extends BaseLocaleUrlDefinitionDAO
     protected synchronized Map<String, Definition> checkAndloadDefinitions(Locale customizationKey) {
         if (checkRefresh && refreshRequired()) {
             locale2definitionMap.clear();
+            localeLayers.clear();
+            missingDefinitions.clear();
             definitionResolver.clearPatternPaths(customizationKey);
         }
         loadDefinitions(customizationKey);
@@ -200,16 +416,137 @@ public class CachingLocaleUrlDefinitionDAO extends BaseLocaleUrlDefinitionDAO
      * @since 2.1.0
      */
     protected Map<String, Definition> loadDefinitionsFromResources(Locale customizationKey) {
-        Map<String, Definition> localeDefsMap = loadRawDefinitionsFromResources(customizationKey);
+        List<Map<String, Definition>> layers = getLocaleLayers(customizationKey);
+        Map<String, Definition> localeDefsMap = mergeLayers(layers);
         Map<String, Definition> defsMap = definitionResolver
                 .storeDefinitionPatterns(copyDefinitionMap(localeDefsMap),
                         customizationKey);
-        locale2definitionMap.put(customizationKey, defsMap);
-        return localeDefsMap;
+        // The merged maps are only needed to find the patterns.
+        Set<String> patternNames = Collections.emptySet();
+        if (defsMap.size() < localeDefsMap.size()) {
+            patternNames = new HashSet<String>(localeDefsMap.keySet());
+            patternNames.removeAll(defsMap.keySet());
+        }
+        return publishDefinitions(customizationKey, new LayeredDefinitionMap(
+                layers, patternNames));
+    }
+
+    /**
+     * Makes the definitions of a locale visible to the readers, replacing the
+     * ones that were previously loaded in a single step.
+     *
+     * @param customizationKey The locale of the definitions.
+     * @param defsMap The completely loaded definitions.
+     * @return The published definitions. When concurrent loading is enabled
+     * it is a concurrent copy of <code>defsMap</code>, where definitions
+     * resolved through patterns can be added safely.
+     * @since 3.0.6
+     */
+    protected Map<String, Definition> publishDefinitions(Locale customizationKey,
+            Map<String, Definition> defsMap) {
+        Map<String, Definition> retValue = defsMap;
+        if (concurrent && !(defsMap instanceof ConcurrentMap)) {
+            retValue = new ConcurrentHashMap<String, Definition>(defsMap);
+        }
+        locale2definitionMap.put(customizationKey, retValue);
+        // Names missing from the old definitions may exist in the new ones.
+        missingDefinitions.remove(customizationKey);
+        return retValue;
+    }
+
+    /**
+     * Loads the definitions of a locale when concurrent loading is enabled.
+     * Only one thread loads a locale, while the other threads that need the
+     * same locale wait for it to complete.
+     *
+     * @param customizationKey The locale to load.
+     * @return The loaded definitions.
+     */
+    private Map<String, Definition> loadDefinitionsConcurrently(
+            final Locale customizationKey) {
+        FutureTask<Map<String, Definition>> task = localeLoads.get(customizationKey);
+        if (task == null) {
+            FutureTask<Map<String, Definition>> newTask = new FutureTask<Map<String, Definition>>(
+                    new Callable<Map<String, Definition>>() {
+
+                        public Map<String, Definition> call() {
+                            Map<String, Definition> retValue = locale2definitionMap
+                                    .get(customizationKey);
+                            if (retValue == null) {
+                                loadDefinitionsFromResources(customizationKey);
+                                retValue = locale2definitionMap.get(customizationKey);
+                            }
+                            return retValue;
+                        }
+                    });
+            task = localeLoads.putIfAbsent(customizationKey, newTask);
+            if (task == null) {
+                task = newTask;
+                try {
+                    newTask.run();
+                } finally {
+                    localeLoads.remove(customizationKey, newTask);
+                }
+            }
+        }
+
+        try {
+            return task.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new DefinitionsFactoryException(
+                    "Interrupted while loading definitions for locale '"
+                            + customizationKey + "'", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw new DefinitionsFactoryException(
+                    "Cannot load definitions for locale '" + customizationKey
+                            + "'", cause);
+        }
+    }
+
+    /**
+     * Reloads the definitions of all the locales loaded so far. The
+     * definitions of each locale are replaced only when the new ones are
+     * completely loaded, so that readers keep on using the current ones in the
+     * meantime. When concurrent loading is enabled and another thread is
+     * already reloading, this method returns immediately.
+     *
+     * @since 3.0.6
+     */
+    public void reloadDefinitions() {
+        if (concurrent) {
+            if (reloading.compareAndSet(false, true)) {
+                try {
+                    reloadLoadedLocales();
+                } finally {
+                    reloading.set(false);
+                }
+            }
+        } else {
+            synchronized (this) {
+                reloadLoadedLocales();
+            }
+        }
+    }
+
+    /**
+     * Reloads, one by one, all the locales loaded so far.
+     */
+    private void reloadLoadedLocales() {
+        localeLayers.clear();
+        for (Locale locale : new ArrayList<Locale>(locale2definitionMap.keySet())) {
+            definitionResolver.clearPatternPaths(locale);
+            loadDefinitionsFromResources(locale);
+        }
     }
 
     /**
      * Loads the raw definitions from the sources associated with a locale.
+     * Definitions of the parent locales are included.
      *
      * @param customizationKey The locale to use when loading Resources.
      * @return The loaded definitions.
@@ -217,27 +554,91 @@ public class CachingLocaleUrlDefinitionDAO extends BaseLocaleUrlDefinitionDAO
      */
     protected Map<String, Definition> loadRawDefinitionsFromResources(
             Locale customizationKey) {
-        Map<String, Definition> localeDefsMap;
-
-        Locale parentLocale = LocaleUtil.getParentLocale(customizationKey);
-        localeDefsMap = new LinkedHashMap<String, Definition>();
-        if (parentLocale != null) {
-            Map<String, Definition> parentDefs = loadRawDefinitionsFromResources(parentLocale);
-            if (parentDefs != null) {
-                localeDefsMap.putAll(parentDefs);
+        return mergeLayers(getLocaleLayers(customizationKey));
+    }
+
+    /**
+     * Returns the definitions read from the sources of a locale and of its
+     * parent locales, reading them if they have not been read since the last
+     * reload. Layers without definitions are skipped.
+     *
+     * @param customizationKey The locale.
+     * @return The layers, from the one of the locale to the one of the root
+     * locale.
+     * @since 3.0.6
+     */
+    protected List<Map<String, Definition>> getLocaleLayers(Locale customizationKey) {
+        List<Map<String, Definition>> retValue = new ArrayList<Map<String, Definition>>();
+        for (Locale locale = customizationKey; locale != null; locale = LocaleUtil
+                .getParentLocale(locale)) {
+            Map<String, Definition> layer = getLocaleLayer(locale);
+            if (!layer.isEmpty()) {
+                retValue.add(layer);
+            }
+        }
+        return retValue;
+    }
+
+    /**
+     * Merges layers of definitions in a single map.
+     *
+     * @param layers The layers, from the one of the locale to the one of the
+     * root locale.
+     * @return The merged definitions.
+     */
+    private static Map<String, Definition> mergeLayers(
+            List<Map<String, Definition>> layers) {
+        Map<String, Definition> retValue = new LinkedHashMap<String, Definition>();
+        for (int i = layers.size() - 1; i >= 0; i--) {
+            retValue.putAll(layers.get(i));
+        }
+        return retValue;
+    }
+
+    /**
+     * Returns the definitions read from the sources of a locale only, reading
+     * them if they have not been read since the last reload. The returned
+     * definitions are shared among locales and must not be modified.
+     *
+     * @param customizationKey The locale.
+     * @return The definitions of the locale, without the ones of its parent
+     * locales.
+     * @since 3.0.6
+     */
+    protected Map<String, Definition> getLocaleLayer(Locale customizationKey) {
+        Map<String, Definition> retValue = localeLayers.get(customizationKey);
+        if (retValue == null) {
+            Map<String, Definition> layer = loadLocaleLayerFromResources(customizationKey);
+            retValue = localeLayers.putIfAbsent(customizationKey, layer);
+            if (retValue == null) {
+                retValue = layer;
             }
         }
+        return retValue;
+    }
+
+    /**
+     * Reads the definitions from the sources of a locale only, without the
+     * ones of its parent locales.
+     *
+     * @param customizationKey The locale.
+     * @return The definitions of the locale.
+     * @since 3.0.6
+     */
+    protected Map<String, Definition> loadLocaleLayerFromResources(
+            Locale customizationKey) {
+        Map<String, Definition> layer = new LinkedHashMap<String, Definition>();
         // For each source, the resource must be loaded.
         for (ApplicationResource resource : sources) {
             ApplicationResource newResource = applicationContext.getResource(resource, customizationKey);
             if (newResource != null) {
                 Map<String, Definition> defsMap = loadDefinitionsFromResource(newResource);
                 if (defsMap != null) {
-                    localeDefsMap.putAll(defsMap);
+                    layer.putAll(defsMap);
                 }
             }
         }
-        return localeDefsMap;
+        return layer;
     }
 
     /**
@@ -0,0 +1,475 @@
+/*
+ * $Id$
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.tiles.definition.dao;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.apache.tiles.Attribute;
+import org.apache.tiles.Definition;
+import org.apache.tiles.Expression;
+import org.apache.tiles.ListAttribute;
+import org.apache.tiles.RoleSet;
+
+/**
+ * A pool of definitions, attributes and strings, used to share equal
+ * instances among the definitions of different locales.<br>
+ * A shared definition is a compact copy of the original one, whose strings,
+ * role sets and attributes are shared with all the other definitions in the
+ * pool. Shared instances must not be modified: render contexts put them as
+ * they are, but replace a list attribute with a copy before making it inherit
+ * the items of its parent (see
+ * {@link org.apache.tiles.BasicAttributeContext}).<br>
+ * Instances are compared by content, including their class, so only
+ * instances of {@link Definition}, {@link Attribute} and
+ * {@link ListAttribute} are shared: instances of other subclasses are kept as
+ * they are.
+ *
+ * @version $Rev$ $Date$
+ * @since 3.0.6
+ */
+public class DefinitionPool {
+
+    /**
+     * The shared strings.
+     */
+    private final Map<String, String> strings = new HashMap<String, String>();
+
+    /**
+     * The shared role sets.
+     */
+    private final Map<Set<String>, Set<String>> roleSets = new HashMap<Set<String>, Set<String>>();
+
+    /**
+     * The shared attributes.
+     */
+    private final Map<AttributeKey, Attribute> attributes = new HashMap<AttributeKey, Attribute>();
+
+    /**
+     * The different shared definitions, mapped by name.
+     */
+    private final Map<String, List<Definition>> definitions = new HashMap<String, List<Definition>>();
+
+    /**
+     * The number of definitions passed to {@link #share(Definition)}.
+     */
+    private long requestedDefinitions = 0;
+
+    /**
+     * The number of times an already shared definition has been returned.
+     */
+    private long sharedDefinitions = 0;
+
+    /**
+     * The number of attributes passed to {@link #share(Attribute)}.
+     */
+    private long requestedAttributes = 0;
+
+    /**
+     * The number of times an already shared attribute has been returned.
+     */
+    private long sharedAttributes = 0;
+
+    /**
+     * Returns a definition equal to the given one, sharing it if it has never
+     * been seen before.
+     *
+     * @param definition The definition to share.
+     * @return The shared definition, or <code>definition</code> itself if it
+     * cannot be shared.
+     * @since 3.0.6
+     */
+    public synchronized Definition share(Definition definition) {
+        if (definition == null || definition.getClass() != Definition.class) {
+            return definition;
+        }
+        requestedDefinitions++;
+        List<Definition> variants = definitions.get(definition.getName());
+        if (variants == null) {
+            variants = new ArrayList<Definition>(1);
+            definitions.put(share(definition.getName()), variants);
+        }
+        for (Definition variant : variants) {
+            if (sameDefinition(variant, definition)) {
+                sharedDefinitions++;
+                return variant;
+            }
+        }
+        Definition compact = new Definition();
+        compact.setName(share(definition.getName()));
+        compact.setExtends(share(definition.getExtends()));
+        compact.setPreparer(share(definition.getPreparer()));
+        compact.setTemplateAttribute(share(definition.getTemplateAttribute()));
+        copyAttributes(definition, compact, false);
+        copyAttributes(definition, compact, true);
+        variants.add(compact);
+        return compact;
+    }
+
+    /**
+     * Returns an attribute equal to the given one, sharing it if it has never
+     * been seen before.
+     *
+     * @param attribute The attribute to share.
+     * @return The shared attribute, or <code>attribute</code> itself if it
+     * cannot be shared.
+     * @since 3.0.6
+     */
+    public synchronized Attribute share(Attribute attribute) {
+        if (attribute == null || (attribute.getClass() != Attribute.class
+                && attribute.getClass() != ListAttribute.class)) {
+            return attribute;
+        }
+        requestedAttributes++;
+        AttributeKey key = new AttributeKey(attribute);
+        Attribute retValue = attributes.get(key);
+        if (retValue != null) {
+            sharedAttributes++;
+            return retValue;
+        }
+
+        if (attribute instanceof ListAttribute) {
+            ListAttribute listAttribute = (ListAttribute) attribute;
+            List<Attribute> items = listAttribute.getValue();
+            ListAttribute compact = new ListAttribute(new ArrayList<Attribute>(
+                    items != null ? items.size() : 0));
+            if (items != null) {
+                for (Attribute item : items) {
+                    compact.add(share(item));
+                }
+            }
+            compact.setInherit(listAttribute.isInherit());
+            retValue = compact;
+        } else {
+            retValue = new Attribute();
+            Object value = attribute.getValue();
+            retValue.setValue(value instanceof String ? share((String) value) : value);
+        }
+        retValue.setRenderer(share(attribute.getRenderer()));
+        retValue.setRoles(share(attribute.getRoles()));
+        Expression expression = attribute.getExpressionObject();
+        if (expression != null) {
+            retValue.setExpressionObject(new Expression(share(expression
+                    .getExpression()), share(expression.getLanguage())));
+        }
+        attributes.put(new AttributeKey(retValue), retValue);
+        return retValue;
+    }
+
+    /**
+     * Returns a string equal to the given one, sharing it if it has never been
+     * seen before.
+     *
+     * @param string The string to share.
+     * @return The shared string.
+     * @since 3.0.6
+     */
+    public synchronized String share(String string) {
+        if (string == null) {
+            return null;
+        }
+        String retValue = strings.get(string);
+        if (retValue == null) {
+            strings.put(string, string);
+            retValue = string;
+        }
+        return retValue;
+    }
+
+    /**
+     * Forgets all the shared instances. Instances that have already been
+     * returned are still valid.
+     *
+     * @since 3.0.6
+     */
+    public synchronized void clear() {
+        strings.clear();
+        roleSets.clear();
+        attributes.clear();
+        definitions.clear();
+    }
+
+    /**
+     * Returns a short report about the instances shared so far.
+     *
+     * @return The report.
+     * @since 3.0.6
+     */
+    public synchronized String getReport() {
+        return "Shared " + sharedDefinitions + " of " + requestedDefinitions
+                + " definitions and " + sharedAttributes + " of "
+                + requestedAttributes + " attributes, pooling "
+                + strings.size() + " strings";
+    }
+
+    /**
+     * Returns the number of definitions passed to {@link #share(Definition)}.
+     *
+     * @return The number of definitions.
+     * @since 3.0.6
+     */
+    public synchronized long getRequestedDefinitions() {
+        return requestedDefinitions;
+    }
+
+    /**
+     * Returns the number of times an already shared definition has been
+     * returned instead of a new one.
+     *
+     * @return The number of shared definitions.
+     * @since 3.0.6
+     */
+    public synchronized long getSharedDefinitions() {
+        return sharedDefinitions;
+    }
+
+    /**
+     * Returns a set of roles equal to the given one, sharing it if it has never
+     * been seen before. Shared roles are immutable {@link RoleSet}s.
+     *
+     * @param roles The roles.
+     * @return The shared roles.
+     */
+    private Set<String> share(Set<String> roles) {
+        if (roles == null) {
+            return null;
+        }
+        Set<String> retValue = roleSets.get(roles);
+        if (retValue == null) {
+            if (roles.isEmpty()) {
+                retValue = Collections.emptySet();
+            } else {
+                retValue = RoleSet.copyOf(roles);
+            }
+            roleSets.put(retValue, retValue);
+        }
+        return retValue;
+    }
+
+    /**
+     * Copies shared attributes from a definition to another.
+     *
+     * @param source The definition to read.
+     * @param destination The definition to fill.
+     * @param cascade If <code>true</code>, cascaded attributes are copied,
+     * otherwise local attributes are copied.
+     */
+    private void copyAttributes(Definition source, Definition destination,
+            boolean cascade) {
+        Set<String> names = cascade ? source.getCascadedAttributeNames()
+                : source.getLocalAttributeNames();
+        if (names != null) {
+            for (String name : names) {
+                Attribute attribute = cascade ? source.getCascadedAttribute(name)
+                        : source.getLocalAttribute(name);
+                destination.putAttribute(share(name), share(attribute), cascade);
+            }
+        }
+    }
+
+    /**
+     * Compares two definitions by content.
+     *
+     * @param definition1 The first definition.
+     * @param definition2 The second definition.
+     * @return <code>true</code> if the definitions have the same content.
+     */
+    private static boolean sameDefinition(Definition definition1,
+            Definition definition2) {
+        return definition1.getClass() == definition2.getClass()
+                && equal(definition1.getName(), definition2.getName())
+                && equal(definition1.getExtends(), definition2.getExtends())
+                && equal(definition1.getPreparer(), definition2.getPreparer())
+                && sameAttribute(definition1.getTemplateAttribute(),
+                        definition2.getTemplateAttribute())
+                && sameAttributes(definition1, definition2, false)
+                && sameAttributes(definition1, definition2, true);
+    }
+
+    /**
+     * Compares the attributes of two definitions by content.
+     *
+     * @param definition1 The first definition.
+     * @param definition2 The second definition.
+     * @param cascade If <code>true</code>, cascaded attributes are compared,
+     * otherwise local attributes are compared.
+     * @return <code>true</code> if the attributes have the same content.
+     */
+    private static boolean sameAttributes(Definition definition1,
+            Definition definition2, boolean cascade) {
+        Set<String> names1 = cascade ? definition1.getCascadedAttributeNames()
+                : definition1.getLocalAttributeNames();
+        Set<String> names2 = cascade ? definition2.getCascadedAttributeNames()
+                : definition2.getLocalAttributeNames();
+        if (names1 == null || names2 == null) {
+            return names1 == names2;
+        }
+        if (!names1.equals(names2)) {
+            return false;
+        }
+        for (String name : names1) {
+            Attribute attribute1 = cascade ? definition1.getCascadedAttribute(name)
+                    : definition1.getLocalAttribute(name);
+            Attribute attribute2 = cascade ? definition2.getCascadedAttribute(name)
+                    : definition2.getLocalAttribute(name);
+            if (!sameAttribute(attribute1, attribute2)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Compares two attributes by content, including their classes.
+     *
+     * @param attribute1 The first attribute.
+     * @param attribute2 The second attribute.
+     * @return <code>true</code> if the attributes have the same content.
+     */
+    private static boolean sameAttribute(Attribute attribute1, Attribute attribute2) {
+        if (attribute1 == attribute2) {
+            return true;
+        }
+        if (attribute1 == null || attribute2 == null
+                || attribute1.getClass() != attribute2.getClass()
+                || !equal(attribute1.getRenderer(), attribute2.getRenderer())
+                || !equal(attribute1.getRoles(), attribute2.getRoles())
+                || !equal(attribute1.getExpressionObject(), attribute2.getExpressionObject())) {
+            return false;
+        }
+        if (attribute1 instanceof ListAttribute) {
+            ListAttribute list1 = (ListAttribute) attribute1;
+            ListAttribute list2 = (ListAttribute) attribute2;
+            List<Attribute> items1 = list1.getValue();
+            List<Attribute> items2 = list2.getValue();
+            if (list1.isInherit() != list2.isInherit()) {
+                return false;
+            }
+            if (items1 == null || items2 == null) {
+                return items1 == items2;
+            }
+            if (items1.size() != items2.size()) {
+                return false;
+            }
+            for (int i = 0; i < items1.size(); i++) {
+                if (!sameAttribute(items1.get(i), items2.get(i))) {
+                    return false;
+                }
+            }
+            return true;
+        }
+        return equal(attribute1.getValue(), attribute2.getValue());
+    }
+
+    /**
+     * Computes the hash code of an attribute, consistent with
+     * {@link #sameAttribute(Attribute, Attribute)}.
+     *
+     * @param attribute The attribute.
+     * @return The hash code.
+     */
+    private static int attributeHashCode(Attribute attribute) {
+        if (attribute == null) {
+            return 0;
+        }
+        int retValue = attribute.getClass().hashCode();
+        retValue = retValue * 31 + hashCode(attribute.getRenderer());
+        retValue = retValue * 31 + hashCode(attribute.getRoles());
+        retValue = retValue * 31 + hashCode(attribute.getExpressionObject());
+        if (attribute instanceof ListAttribute) {
+            List<Attribute> items = ((ListAttribute) attribute).getValue();
+            if (items != null) {
+                for (Attribute item : items) {
+                    retValue = retValue * 31 + attributeHashCode(item);
+                }
+            }
+        } else {
+            retValue = retValue * 31 + hashCode(attribute.getValue());
+        }
+        return retValue;
+    }
+
+    /**
+     * Compares two objects, that can be <code>null</code>.
+     *
+     * @param object1 The first object.
+     * @param object2 The second object.
+     * @return <code>true</code> if the objects are equal.
+     */
+    private static boolean equal(Object object1, Object object2) {
+        return object1 == null ? object2 == null : (object2 != null && object1
+                .equals(object2));
+    }
+
+    /**
+     * Returns the hash code of an object, that can be <code>null</code>.
+     *
+     * @param object The object.
+     * @return The hash code.
+     */
+    private static int hashCode(Object object) {
+        return object != null ? object.hashCode() : 0;
+    }
+
+    /**
+     * Wraps an attribute to compare it by content, including its class.
+     */
+    private static final class AttributeKey {
+
+        /**
+         * The attribute.
+         */
+        private final Attribute attribute;
+
+        /**
+         * The hash code of the attribute.
+         */
+        private final int hash;
+
+        /**
+         * Constructor.
+         *
+         * @param attribute The attribute.
+         */
+        private AttributeKey(Attribute attribute) {
+            this.attribute = attribute;
+            this.hash = attributeHashCode(attribute);
+        }
+
+        /** {@inheritDoc} */
+        @Override
+        public boolean equals(Object obj) {
+            return obj instanceof AttributeKey
+                    && sameAttribute(attribute, ((AttributeKey) obj).attribute);
+        }
+
+        /** {@inheritDoc} */
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+}
@@ -0,0 +1,174 @@
+/*
+ * $Id$
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.tiles.definition.dao;
+
+import java.util.AbstractMap;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.apache.tiles.Definition;
+
+/**
+ * The definitions of a locale, seen through the definitions read for the
+ * locale itself and for each of its parent locales, so that the definitions
+ * of a parent locale are not copied into the map of every child locale.<br>
+ * The layers are never modified: definitions added to the map, for instance
+ * the ones resolved through patterns, are stored in a separate map, that is
+ * searched first. Iterating over the map is slower than looking up a single
+ * definition, since the layers have to be merged.
+ *
+ * @version $Rev$ $Date$
+ * @since 3.0.6
+ */
+public class LayeredDefinitionMap extends AbstractMap<String, Definition>
+        implements ConcurrentMap<String, Definition> {
+
+    /**
+     * The definitions added to the map.
+     */
+    private final ConcurrentMap<String, Definition> addedDefinitions =
+        new ConcurrentHashMap<String, Definition>();
+
+    /**
+     * The layers, from the one of the locale to the one of the root locale.
+     */
+    private final List<Map<String, Definition>> layers;
+
+    /**
+     * The names of the definitions of the layers that must not be seen, e.g.
+     * the ones that are patterns.
+     */
+    private final Set<String> excludedNames;
+
+    /**
+     * Constructor.
+     *
+     * @param layers The layers, from the one of the locale to the one of the
+     * root locale. They must not be modified afterwards.
+     * @param excludedNames The names of the definitions of the layers that
+     * must not be seen.
+     * @since 3.0.6
+     */
+    public LayeredDefinitionMap(List<Map<String, Definition>> layers,
+            Set<String> excludedNames) {
+        this.layers = layers;
+        this.excludedNames = excludedNames;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public Definition get(Object key) {
+        Definition retValue = addedDefinitions.get(key);
+        if (retValue == null && !excludedNames.contains(key)) {
+            for (Map<String, Definition> layer : layers) {
+                retValue = layer.get(key);
+                if (retValue != null) {
+                    break;
+                }
+            }
+        }
+        return retValue;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public boolean containsKey(Object key) {
+        return get(key) != null;
+    }
+
+    /**
+     * {@inheritDoc}<br>
+     * The definition is added to the map, hiding the one of the layers, if
+     * any.
+     */
+    @Override
+    public Definition put(String key, Definition value) {
+        Definition retValue = get(key);
+        addedDefinitions.put(key, value);
+        return retValue;
+    }
+
+    /** {@inheritDoc} */
+    public Definition putIfAbsent(String key, Definition value) {
+        Definition retValue = get(key);
+        if (retValue == null) {
+            retValue = addedDefinitions.putIfAbsent(key, value);
+        }
+        return retValue;
+    }
+
+    /**
+     * {@inheritDoc}<br>
+     * Only definitions added to the map can be removed.
+     */
+    @Override
+    public Definition remove(Object key) {
+        return addedDefinitions.remove(key);
+    }
+
+    /**
+     * {@inheritDoc}<br>
+     * Only definitions added to the map can be removed.
+     */
+    public boolean remove(Object key, Object value) {
+        return addedDefinitions.remove(key, value);
+    }
+
+    /** {@inheritDoc} */
+    public boolean replace(String key, Definition oldValue, Definition newValue) {
+        if (addedDefinitions.replace(key, oldValue, newValue)) {
+            return true;
+        }
+        Definition current = get(key);
+        return current != null && current.equals(oldValue)
+                && addedDefinitions.putIfAbsent(key, newValue) == null;
+    }
+
+    /** {@inheritDoc} */
+    public Definition replace(String key, Definition value) {
+        Definition retValue = get(key);
+        if (retValue != null) {
+            addedDefinitions.put(key, value);
+        }
+        return retValue;
+    }
+
+    /**
+     * {@inheritDoc}<br>
+     * It returns an unmodifiable snapshot of the merged layers.
+     */
+    @Override
+    public Set<Map.Entry<String, Definition>> entrySet() {
+        Map<String, Definition> merged = new LinkedHashMap<String, Definition>();
+        for (int i = layers.size() - 1; i >= 0; i--) {
+            merged.putAll(layers.get(i));
+        }
+        merged.keySet().removeAll(excludedNames);
+        merged.putAll(addedDefinitions);
+        return Collections.unmodifiableMap(merged).entrySet();
+    }
+}
@@ -0,0 +1,192 @@
+/*
+ * $Id$
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.tiles.definition.dao;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+
+import org.apache.tiles.definition.DefinitionsFactoryException;
+import org.apache.tiles.request.locale.LocaleUtil;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Loads the definitions of a list of locales in parallel, so that they are
+ * ready before the first request.<br>
+ * Locales are loaded level by level: first the root locale, then all the
+ * language locales, then all the country locales and so on, so that the
+ * definitions of a parent locale are loaded once, before its children.<br>
+ * Loading is really parallel only if the DAO supports it, for example a
+ * {@link CachingLocaleUrlDefinitionDAO} with concurrent loading enabled.
+ *
+ * @version $Rev$ $Date$
+ * @since 3.0.6
+ */
+public class LocaleDefinitionsPreloader {
+
+    /**
+     * The logging object.
+     */
+    private final Logger log = LoggerFactory
+            .getLogger(LocaleDefinitionsPreloader.class);
+
+    /**
+     * The DAO to load definitions with.
+     */
+    private final DefinitionDAO<Locale> definitionDao;
+
+    /**
+     * The maximum number of threads to use.
+     */
+    private final int threads;
+
+    /**
+     * Constructor, using as many threads as the available processors.
+     *
+     * @param definitionDao The DAO to load definitions with.
+     * @since 3.0.6
+     */
+    public LocaleDefinitionsPreloader(DefinitionDAO<Locale> definitionDao) {
+        this(definitionDao, Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param definitionDao The DAO to load definitions with.
+     * @param threads The maximum number of threads to use.
+     * @since 3.0.6
+     */
+    public LocaleDefinitionsPreloader(DefinitionDAO<Locale> definitionDao,
+            int threads) {
+        this.definitionDao = definitionDao;
+        this.threads = threads;
+    }
+
+    /**
+     * Loads the definitions of the given locales and of their parents, and
+     * waits for them to be loaded.
+     *
+     * @param locales The locales to load.
+     * @throws DefinitionsFactoryException If definitions cannot be loaded.
+     * @since 3.0.6
+     */
+    public void preload(Collection<Locale> locales) {
+        List<List<Locale>> levels = createLevels(locales);
+        int maxLevelSize = 0;
+        for (List<Locale> level : levels) {
+            maxLevelSize = Math.max(maxLevelSize, level.size());
+        }
+        ExecutorService executor = Executors.newFixedThreadPool(Math.max(1,
+                Math.min(threads, maxLevelSize)), new ThreadFactory() {
+
+            public Thread newThread(Runnable r) {
+                Thread thread = new Thread(r, "tiles-definitions-preload");
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
+        try {
+            for (List<Locale> level : levels) {
+                List<Future<Object>> loads = new ArrayList<Future<Object>>(level.size());
+                for (final Locale locale : level) {
+                    loads.add(executor.submit(new Callable<Object>() {
+
+                        public Object call() {
+                            return definitionDao.getDefinitions(locale);
+                        }
+                    }));
+                }
+                for (Future<Object> load : loads) {
+                    waitFor(load);
+                }
+                log.debug("Preloaded definitions for locales {}", level);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Groups the locales, together with their parents, by level, where the
+     * level of the root locale is 0, the level of a language locale is 1 and
+     * so on.
+     *
+     * @param locales The locales.
+     * @return The levels of locales, from the root locale.
+     */
+    private static List<List<Locale>> createLevels(Collection<Locale> locales) {
+        List<Set<Locale>> levels = new ArrayList<Set<Locale>>();
+        for (Locale locale : locales) {
+            List<Locale> chain = new ArrayList<Locale>();
+            for (Locale current = locale; current != null; current = LocaleUtil
+                    .getParentLocale(current)) {
+                chain.add(0, current);
+            }
+            for (int i = 0; i < chain.size(); i++) {
+                if (levels.size() <= i) {
+                    levels.add(new LinkedHashSet<Locale>());
+                }
+                levels.get(i).add(chain.get(i));
+            }
+        }
+        List<List<Locale>> retValue = new ArrayList<List<Locale>>(levels.size());
+        for (Set<Locale> level : levels) {
+            retValue.add(new ArrayList<Locale>(level));
+        }
+        return retValue;
+    }
+
+    /**
+     * Waits for a load to complete.
+     *
+     * @param load The load.
+     * @throws DefinitionsFactoryException If the load failed or the thread
+     * has been interrupted.
+     */
+    private static void waitFor(Future<Object> load) {
+        try {
+            load.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new DefinitionsFactoryException(
+                    "Interrupted while preloading definitions", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw new DefinitionsFactoryException(
+                    "Cannot preload definitions", cause);
+        }
+    }
+}
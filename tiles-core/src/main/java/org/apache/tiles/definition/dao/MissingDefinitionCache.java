@@ -0,0 +1,142 @@
+/*
+ * $Id$
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.tiles.definition.dao;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * A bounded cache of definition names that have been looked up without
+ * success. Names are evicted in insertion order when the cache is full, and
+ * expire after a time-to-live, so that a name that could not be resolved
+ * is resolved again at most once per time-to-live.
+ *
+ * @version $Rev$ $Date$
+ * @since 3.0.6
+ */
+public class MissingDefinitionCache {
+
+    /**
+     * The maximum number of names to keep.
+     */
+    private final int maxSize;
+
+    /**
+     * The time-to-live, in milliseconds, of each name. If not positive, names
+     * never expire.
+     */
+    private final long timeToLive;
+
+    /**
+     * Maps a missing name to its expiration time.
+     */
+    private final Map<String, Long> expirations;
+
+    /**
+     * Constructor.
+     *
+     * @param maxSize The maximum number of names to keep.
+     * @param timeToLive The time-to-live, in milliseconds, of each name. If not
+     * positive, names never expire.
+     * @since 3.0.6
+     */
+    public MissingDefinitionCache(final int maxSize, long timeToLive) {
+        this.maxSize = maxSize;
+        this.timeToLive = timeToLive;
+        expirations = new LinkedHashMap<String, Long>() {
+
+            /**
+             * The serialization version UID.
+             */
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Long> eldest) {
+                return size() > maxSize;
+            }
+        };
+    }
+
+    /**
+     * Checks whether a name is known to be missing.
+     *
+     * @param name The name of the definition.
+     * @return <code>true</code> if the name has been marked as missing and has
+     * not expired yet.
+     * @since 3.0.6
+     */
+    public synchronized boolean isMissing(String name) {
+        Long expiration = expirations.get(name);
+        if (expiration == null) {
+            return false;
+        }
+        if (timeToLive > 0 && expiration.longValue() <= currentTimeMillis()) {
+            expirations.remove(name);
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Marks a name as missing.
+     *
+     * @param name The name of the definition.
+     * @since 3.0.6
+     */
+    public synchronized void markMissing(String name) {
+        if (maxSize > 0) {
+            // Remove first, so that the name is moved to the end of the queue.
+            expirations.remove(name);
+            expirations.put(name, currentTimeMillis() + timeToLive);
+        }
+    }
+
+    /**
+     * Forgets all the missing names.
+     *
+     * @since 3.0.6
+     */
+    public synchronized void clear() {
+        expirations.clear();
+    }
+
+    /**
+     * Returns the number of names currently marked as missing, including the
+     * expired ones that have not been evicted yet.
+     *
+     * @return The number of names.
+     * @since 3.0.6
+     */
+    public synchronized int size() {
+        return expirations.size();
+    }
+
+    /**
+     * Returns the current time, used to compute expirations.
+     *
+     * @return The current time, in milliseconds.
+     * @since 3.0.6
+     */
+    protected long currentTimeMillis() {
+        return System.currentTimeMillis();
+    }
+}
@@ -29,6 +29,8 @@ import java.util.Set;
 
 import org.apache.tiles.Definition;
 import org.apache.tiles.definition.NoSuchDefinitionException;
+import org.apache.tiles.evaluator.AttributeEvaluatorFactory;
+import org.apache.tiles.evaluator.AttributeEvaluatorFactoryAware;
 import org.apache.tiles.request.ApplicationContext;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -41,39 +43,147 @@ import org.slf4j.LoggerFactory;
  * <p>
  * It can check if the URLs change, but by default this feature is turned off.
  * </p>
+ * <p>
+ * To save memory, it can share equal definitions, attributes and strings
+ * among locales, through a {@link DefinitionPool}.
+ * </p>
+ * <p>
+ * When an {@link AttributeEvaluatorFactory} is set, expressions whose value
+ * does not depend on the request are replaced by their values, through a
+ * {@link StaticExpressionFolder}.
+ * </p>
  *
  * @version $Rev$ $Date$
  * @since 2.1.0
  */
 public class ResolvingLocaleUrlDefinitionDAO extends
-        CachingLocaleUrlDefinitionDAO {
+        CachingLocaleUrlDefinitionDAO implements AttributeEvaluatorFactoryAware {
 
     /**
      * The logging object.
      */
     private final Logger log = LoggerFactory.getLogger(ResolvingLocaleUrlDefinitionDAO.class);
 
+    /**
+     * The pool used to share definitions among locales, or <code>null</code>
+     * if definitions are not shared.
+     */
+    private DefinitionPool definitionPool;
+
+    /**
+     * Folds static expressions of loaded definitions, or <code>null</code> if
+     * expressions are not folded.
+     */
+    private volatile StaticExpressionFolder staticExpressionFolder;
+
     public ResolvingLocaleUrlDefinitionDAO(ApplicationContext applicationContext) {
         super(applicationContext);
     }
 
+    /**
+     * Sets the flag to share equal definitions, attributes and strings among
+     * locales. If not called, the default is <code>false</code>. It must be
+     * called before any definition is loaded.<br>
+     * When <code>true</code>, resolved definitions must not be modified,
+     * since they may be used by more than one locale.
+     *
+     * @param shareDefinitions When <code>true</code>, enables sharing of
+     * definitions.
+     * @since 3.0.6
+     */
+    public void setShareDefinitions(boolean shareDefinitions) {
+        definitionPool = shareDefinitions ? new DefinitionPool() : null;
+    }
+
+    /**
+     * Returns the pool used to share definitions among locales.
+     *
+     * @return The pool, or <code>null</code> if definitions are not shared.
+     * @since 3.0.6
+     */
+    public DefinitionPool getDefinitionPool() {
+        return definitionPool;
+    }
+
+    /**
+     * Sets the attribute evaluator factory, used to fold static expressions.
+     * Definitions that have already been loaded are folded immediately.
+     *
+     * @param attributeEvaluatorFactory The attribute evaluator factory to use.
+     * @since 3.0.6
+     */
+    public void setAttributeEvaluatorFactory(
+            AttributeEvaluatorFactory attributeEvaluatorFactory) {
+        staticExpressionFolder = new StaticExpressionFolder(attributeEvaluatorFactory);
+        for (Map<String, Definition> defsMap : locale2definitionMap.values()) {
+            for (Map.Entry<String, Definition> entry : defsMap.entrySet()) {
+                Definition definition = entry.getValue();
+                Definition folded = staticExpressionFolder.fold(definition);
+                if (folded != definition) {
+                    entry.setValue(definitionPool != null ? definitionPool
+                            .share(folded) : folded);
+                }
+            }
+        }
+    }
+
     /** {@inheritDoc} */
     @Override
     protected Map<String, Definition> loadParentDefinitions(Locale parentLocale) {
         return loadRawDefinitionsFromResources(parentLocale);
     }
 
+    /**
+     * Loads definitions from the sources, resolving their inheritance before
+     * they are published.
+     *
+     * @param customizationKey The locale to use when loading Resources.
+     * @return The loaded definitions, with inheritance resolved.
+     * @since 3.0.6
+     */
     @Override
-    protected Map<String, Definition> loadDefinitions(Locale customizationKey) {
-        Map<String, Definition> localeDefsMap = super.loadDefinitions(customizationKey);
+    protected Map<String, Definition> loadDefinitionsFromResources(Locale customizationKey) {
+        Map<String, Definition> localeDefsMap = loadRawDefinitionsFromResources(customizationKey);
         Map<String, Definition> defsMap = definitionResolver
                 .storeDefinitionPatterns(copyDefinitionMap(localeDefsMap),
                         customizationKey);
         resolveInheritances(defsMap, customizationKey);
-        locale2definitionMap.put(customizationKey, defsMap);
+        StaticExpressionFolder folder = staticExpressionFolder;
+        if (folder != null) {
+            for (Map.Entry<String, Definition> entry : defsMap.entrySet()) {
+                entry.setValue(folder.fold(entry.getValue()));
+            }
+        }
+        if (definitionPool != null) {
+            for (Map.Entry<String, Definition> entry : defsMap.entrySet()) {
+                entry.setValue(definitionPool.share(entry.getValue()));
+            }
+            log.debug("Loaded definitions for locale '{}': {}", customizationKey,
+                    definitionPool.getReport());
+        }
+        publishDefinitions(customizationKey, defsMap);
         return defsMap;
     }
 
+    /** {@inheritDoc} */
+    @Override
+    protected synchronized Map<String, Definition> checkAndloadDefinitions(
+            Locale customizationKey) {
+        if (definitionPool != null && checkRefresh && refreshRequired()) {
+            definitionPool.clear();
+        }
+        return super.checkAndloadDefinitions(customizationKey);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void reloadDefinitions() {
+        if (definitionPool != null) {
+            definitionPool.clear();
+        }
+        super.reloadDefinitions();
+    }
+
     /** {@inheritDoc} */
     @Override
     protected Definition getDefinitionFromResolver(String name,
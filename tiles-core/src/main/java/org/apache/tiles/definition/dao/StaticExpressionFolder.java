@@ -0,0 +1,187 @@
+/*
+ * $Id$
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.tiles.definition.dao;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import org.apache.tiles.Attribute;
+import org.apache.tiles.Definition;
+import org.apache.tiles.Expression;
+import org.apache.tiles.ListAttribute;
+import org.apache.tiles.evaluator.AttributeEvaluator;
+import org.apache.tiles.evaluator.AttributeEvaluatorFactory;
+import org.apache.tiles.evaluator.StaticExpressionEvaluator;
+
+/**
+ * Replaces the expressions of definition attributes that do not depend on the
+ * request with their values, so that they are not evaluated at every
+ * request.<br>
+ * Only expressions recognized as static by a
+ * {@link StaticExpressionEvaluator} are folded. Definitions and attributes
+ * are never modified: when something is folded, a copy is returned.
+ *
+ * @version $Rev$ $Date$
+ * @since 3.0.6
+ */
+public class StaticExpressionFolder {
+
+    /**
+     * The factory of the evaluators of attribute expressions.
+     */
+    private final AttributeEvaluatorFactory attributeEvaluatorFactory;
+
+    /**
+     * Constructor.
+     *
+     * @param attributeEvaluatorFactory The factory of the evaluators of
+     * attribute expressions.
+     * @since 3.0.6
+     */
+    public StaticExpressionFolder(AttributeEvaluatorFactory attributeEvaluatorFactory) {
+        this.attributeEvaluatorFactory = attributeEvaluatorFactory;
+    }
+
+    /**
+     * Folds the static expressions of a definition.
+     *
+     * @param definition The definition to fold.
+     * @return The same definition if nothing has been folded, otherwise a
+     * copy with the folded attributes.
+     * @since 3.0.6
+     */
+    public Definition fold(Definition definition) {
+        Definition folded = null;
+        Attribute templateAttribute = definition.getTemplateAttribute();
+        if (templateAttribute != null) {
+            Attribute foldedAttribute = fold(templateAttribute);
+            if (foldedAttribute != templateAttribute) {
+                folded = new Definition(definition);
+                folded.setTemplateAttribute(foldedAttribute);
+            }
+        }
+        folded = foldAttributes(definition, folded, false);
+        folded = foldAttributes(definition, folded, true);
+        return folded != null ? folded : definition;
+    }
+
+    /**
+     * Folds the static expression of an attribute, or of the elements of a
+     * list attribute.
+     *
+     * @param attribute The attribute to fold.
+     * @return The same attribute if nothing has been folded, otherwise a
+     * folded copy.
+     * @since 3.0.6
+     */
+    public Attribute fold(Attribute attribute) {
+        if (attribute instanceof ListAttribute) {
+            return fold((ListAttribute) attribute);
+        }
+
+        Expression expression = attribute.getExpressionObject();
+        if (attribute.getValue() != null || expression == null) {
+            return attribute;
+        }
+        AttributeEvaluator evaluator = attributeEvaluatorFactory
+                .getAttributeEvaluator(attribute);
+        if (!(evaluator instanceof StaticExpressionEvaluator)) {
+            return attribute;
+        }
+        StaticExpressionEvaluator staticEvaluator = (StaticExpressionEvaluator) evaluator;
+        if (!staticEvaluator.isStatic(expression.getExpression())) {
+            return attribute;
+        }
+        Object value = staticEvaluator.evaluateStatic(expression.getExpression());
+        if (value == null) {
+            return attribute;
+        }
+
+        Attribute folded = new Attribute(attribute);
+        folded.setValue(value);
+        folded.setExpressionObject(null);
+        return folded;
+    }
+
+    /**
+     * Folds the elements of a list attribute.
+     *
+     * @param attribute The list attribute to fold.
+     * @return The same attribute if nothing has been folded, otherwise a
+     * folded copy.
+     */
+    private Attribute fold(ListAttribute attribute) {
+        List<Attribute> items = attribute.getValue();
+        if (items == null) {
+            return attribute;
+        }
+        List<Attribute> foldedItems = null;
+        for (int i = 0; i < items.size(); i++) {
+            Attribute item = items.get(i);
+            Attribute foldedItem = item != null ? fold(item) : null;
+            if (foldedItem != item && foldedItems == null) {
+                foldedItems = new ArrayList<Attribute>(items);
+            }
+            if (foldedItems != null) {
+                foldedItems.set(i, foldedItem);
+            }
+        }
+        if (foldedItems == null) {
+            return attribute;
+        }
+        ListAttribute folded = new ListAttribute(attribute);
+        folded.setValue(foldedItems);
+        return folded;
+    }
+
+    /**
+     * Folds the local or cascaded attributes of a definition.
+     *
+     * @param definition The definition to fold.
+     * @param folded The folded copy of the definition, or <code>null</code> if
+     * it has not been created yet.
+     * @param cascade <code>true</code> for cascaded attributes.
+     * @return The folded copy of the definition, or <code>null</code> if
+     * nothing has been folded yet.
+     */
+    private Definition foldAttributes(Definition definition, Definition folded,
+            boolean cascade) {
+        Set<String> names = cascade ? definition.getCascadedAttributeNames()
+                : definition.getLocalAttributeNames();
+        if (names == null) {
+            return folded;
+        }
+        for (String name : names) {
+            Attribute attribute = cascade ? definition.getCascadedAttribute(name)
+                    : definition.getLocalAttribute(name);
+            Attribute foldedAttribute = fold(attribute);
+            if (foldedAttribute != attribute) {
+                if (folded == null) {
+                    folded = new Definition(definition);
+                }
+                folded.putAttribute(name, foldedAttribute, cascade);
+            }
+        }
+        return folded;
+    }
+}
@@ -26,6 +26,9 @@ import java.io.InputStream;
 import java.net.URL;
 import java.util.LinkedHashMap;
 import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.apache.commons.digester.Digester;
 import org.apache.commons.digester.Rule;
@@ -33,8 +36,8 @@ import org.apache.tiles.Attribute;
 import org.apache.tiles.Definition;
 import org.apache.tiles.Expression;
 import org.apache.tiles.ListAttribute;
+import org.apache.tiles.definition.ConcurrentDefinitionsReader;
 import org.apache.tiles.definition.DefinitionsFactoryException;
-import org.apache.tiles.definition.DefinitionsReader;
 import org.xml.sax.Attributes;
 import org.xml.sax.ErrorHandler;
 import org.xml.sax.SAXException;
@@ -58,15 +61,15 @@ import org.xml.sax.SAXParseException;
  * <code>org.apache.tiles.definition.digester.DigesterDefinitionsReader.PARSER_VALIDATE</code>
  * and a value of <code>&quot;true&quot;</code>. <p/>
  * <p>
- * The Definition objects are stored internally in a Map. The Map is stored as
- * an instance variable rather than a local variable in the <code>read</code>
- * method. This means that instances of this class are <strong>not</strong>
- * thread-safe and access by multiple threads must be synchronized.
+ * Instances of this class are thread-safe. Every <code>read</code> takes an
+ * idle Digester from a pool, or creates a new one with the DTD registrations
+ * and the rules already set, and the definitions being read are bound to the
+ * current thread, so that multiple sources can be parsed in parallel.
  * </p>
  *
  * @version $Rev$ $Date$
  */
-public class DigesterDefinitionsReader implements DefinitionsReader {
+public class DigesterDefinitionsReader implements ConcurrentDefinitionsReader {
 
     /**
      * Digester validation parameter name.
@@ -221,7 +224,7 @@ public class DigesterDefinitionsReader implements DefinitionsReader {
         public void begin(String namespace, String name, Attributes attributes) {
             Definition definition = (Definition) digester.peek(0);
             if (definition.getName() == null) {
-                definition.setName(getNextUniqueDefinitionName(definitions));
+                definition.setName(getNextUniqueDefinitionName(currentDefinitions.get()));
             }
             Attribute attribute = (Attribute) digester.peek(1);
             attribute.setValue(definition.getName());
@@ -231,7 +234,8 @@ public class DigesterDefinitionsReader implements DefinitionsReader {
 
     /**
      * <code>Digester</code> object used to read Definition data
-     * from the source.
+     * from the source. It is the first Digester of the pool, other ones are
+     * created by {@link #createDigester()} when needed.
      */
     protected Digester digester;
 
@@ -243,21 +247,43 @@ public class DigesterDefinitionsReader implements DefinitionsReader {
     protected String[] registrations;
 
     /**
-     * Stores Definition objects.
+     * Stores Definition objects read by the current thread.
      */
-    private Map<String, Definition> definitions;
+    private final ThreadLocal<Map<String, Definition>> currentDefinitions =
+        new ThreadLocal<Map<String, Definition>>();
+
+    /**
+     * The Digesters that are not reading any source.
+     */
+    private final Queue<Digester> idleDigesters = new ConcurrentLinkedQueue<Digester>();
+
+    /**
+     * Whether the XML files are validated.
+     */
+    private volatile boolean validating;
 
     /**
      * Index to be used to create unique definition names for anonymous
      * (nested) definitions.
      */
-    private int anonymousDefinitionIndex = 1;
+    private final AtomicInteger anonymousDefinitionIndex = new AtomicInteger(1);
 
     /**
      * Creates a new instance of DigesterDefinitionsReader.
      */
     public DigesterDefinitionsReader() {
-        digester = new Digester();
+        digester = createDigester();
+        idleDigesters.add(digester);
+    }
+
+    /**
+     * Creates and configures a new Digester.
+     *
+     * @return The new Digester.
+     * @since 3.0.6
+     */
+    protected Digester createDigester() {
+        Digester digester = new Digester();
         digester.setNamespaceAware(true);
         digester.setUseContextClassLoader(true);
         digester.setErrorHandler(new ThrowingErrorHandler());
@@ -272,7 +298,9 @@ public class DigesterDefinitionsReader implements DefinitionsReader {
             }
         }
 
+        digester.setValidating(validating);
         initSyntax(digester);
+        return digester;
     }
 
     /**
@@ -283,7 +311,7 @@ public class DigesterDefinitionsReader implements DefinitionsReader {
      * @since 3.3.0
      */
     public void setValidating(boolean validating) {
-        digester.setValidating(validating);
+        this.validating = validating;
     }
 
     /**
@@ -299,11 +327,6 @@ public class DigesterDefinitionsReader implements DefinitionsReader {
      *          an error occurs when reading definitions.
      */
     public Map<String, Definition> read(Object source) {
-        // This is an instance variable instead of a local variable because
-        // we want to be able to call the addDefinition method to populate it.
-        // But we reset the Map here, which, of course, has threading implications.
-        definitions = new LinkedHashMap<String, Definition>();
-
         if (source == null) {
             // Perhaps we should throw an exception here.
             return null;
@@ -317,12 +340,16 @@ public class DigesterDefinitionsReader implements DefinitionsReader {
                 "Invalid source type.  Requires java.io.InputStream.", e);
         }
 
+        // This is bound to the thread instead of being a local variable because
+        // we want to be able to call the addDefinition method to populate it.
+        Map<String, Definition> definitions = new LinkedHashMap<String, Definition>();
+        Digester currentDigester = acquireDigester();
+        currentDefinitions.set(definitions);
         try {
             // set first object in stack
-            //digester.clear();
-            digester.push(this);
+            currentDigester.push(this);
             // parse
-            digester.parse(input);
+            currentDigester.parse(input);
 
         } catch (SAXException e) {
             throw new DefinitionsFactoryException(
@@ -331,12 +358,31 @@ public class DigesterDefinitionsReader implements DefinitionsReader {
             throw new DefinitionsFactoryException(
                 "I/O Error reading definitions.", e);
         } finally {
-            digester.clear();
+            currentDigester.clear();
+            currentDefinitions.remove();
+            idleDigesters.offer(currentDigester);
         }
 
         return definitions;
     }
 
+    /**
+     * Takes an idle Digester from the pool, or creates a new one. Digesters
+     * created before a change of validation are discarded.
+     *
+     * @return The Digester to use.
+     */
+    private Digester acquireDigester() {
+        Digester result = idleDigesters.poll();
+        while (result != null && result.getValidating() != validating) {
+            result = idleDigesters.poll();
+        }
+        if (result == null) {
+            result = createDigester();
+        }
+        return result;
+    }
+
     /**
      * Initialised the syntax for reading XML files containing Tiles
      * definitions.
@@ -409,7 +455,7 @@ public class DigesterDefinitionsReader implements DefinitionsReader {
                     "A root definition has been defined with no name");
         }
 
-        definitions.put(name, definition);
+        currentDefinitions.get().put(name, definition);
     }
 
     /**
@@ -461,8 +507,8 @@ public class DigesterDefinitionsReader implements DefinitionsReader {
         String candidate;
 
         do {
-            candidate = "$anonymousDefinition" + anonymousDefinitionIndex;
-            anonymousDefinitionIndex++;
+            candidate = "$anonymousDefinition"
+                    + anonymousDefinitionIndex.getAndIncrement();
         } while (definitions.containsKey(candidate));
 
         return candidate;
@@ -22,9 +22,13 @@
 package org.apache.tiles.definition.pattern;
 
 import java.util.ArrayList;
-import java.util.HashMap;
+import java.util.Collections;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 import org.apache.tiles.Definition;
 
@@ -32,7 +36,11 @@ import org.apache.tiles.Definition;
  * A pattern definition resolver that stores {@link DefinitionPatternMatcher}
  * separated by customization key. <br>
  * Implementations should provide a way to translate a definition to a
- * {@link DefinitionPatternMatcher}.
+ * {@link DefinitionPatternMatcher}.<br>
+ * Stored patterns are copied on write, so that definitions can be resolved
+ * while other threads are storing or reloading patterns.<br>
+ * When indexing is enabled, stored patterns are indexed by their literal
+ * prefix, so that only the patterns that may match a name are tried.
  *
  * @param <T> The type of the customization key.
  * @version $Rev$ $Date$
@@ -42,32 +50,70 @@ public abstract class AbstractPatternDefinitionResolver<T> implements
         PatternDefinitionResolver<T> {
 
     /**
-     * Stores patterns depending on the locale they refer to.
+     * Stores patterns depending on the locale they refer to. The stored lists
+     * are never modified once published.
      */
-    private Map<T, List<DefinitionPatternMatcher>> localePatternPaths =
-        new HashMap<T, List<DefinitionPatternMatcher>>();
+    private ConcurrentMap<T, PatternPaths> localePatternPaths =
+        new ConcurrentHashMap<T, PatternPaths>();
+
+    /**
+     * The customization keys whose patterns have been cleared, and that will
+     * be replaced, instead of extended, by the next stored patterns. Guarded
+     * by <code>this</code>.
+     */
+    private Set<T> clearedCustomizationKeys = new HashSet<T>();
+
+    /**
+     * Flag that, when <code>true</code>, enables the indexing of stored
+     * patterns.
+     */
+    private boolean indexed = false;
+
+    /**
+     * Sets the flag to index stored patterns by their literal prefix. If not
+     * called, the default is <code>false</code>. It must be called before any
+     * pattern is stored.<br>
+     * Indexing is useful when there are many patterns: patterns are still
+     * tried in the order they have been stored, but only the ones whose
+     * literal prefix is a prefix of the name to resolve are tried.
+     *
+     * @param indexed When <code>true</code>, enables indexing of patterns.
+     * @since 3.0.6
+     */
+    public void setIndexed(boolean indexed) {
+        this.indexed = indexed;
+    }
 
     /** {@inheritDoc} */
     public Definition resolveDefinition(String name, T customizationKey) {
         Definition retValue = null;
-        if (localePatternPaths.containsKey(customizationKey)) {
-            retValue = searchAndResolveDefinition(localePatternPaths
-                    .get(customizationKey), name);
+        PatternPaths lpaths = localePatternPaths.get(customizationKey);
+        if (lpaths != null) {
+            if (lpaths.index != null) {
+                retValue = lpaths.index.createDefinition(name);
+            } else {
+                retValue = searchAndResolveDefinition(lpaths.matchers, name);
+            }
         }
         return retValue;
     }
 
     /** {@inheritDoc} */
-    public Map<String, Definition> storeDefinitionPatterns(Map<String, Definition> localeDefsMap,
-            T customizationKey) {
-        List<DefinitionPatternMatcher> lpaths = localePatternPaths
-                .get(customizationKey);
-        if (lpaths == null) {
-            lpaths = new ArrayList<DefinitionPatternMatcher>();
-            localePatternPaths.put(customizationKey, lpaths);
+    public synchronized Map<String, Definition> storeDefinitionPatterns(
+            Map<String, Definition> localeDefsMap, T customizationKey) {
+        List<DefinitionPatternMatcher> lpaths = new ArrayList<DefinitionPatternMatcher>();
+        if (!clearedCustomizationKeys.remove(customizationKey)) {
+            PatternPaths oldPaths = localePatternPaths.get(customizationKey);
+            if (oldPaths != null) {
+                lpaths.addAll(oldPaths.matchers);
+            }
         }
 
-        return addDefinitionsAsPatternMatchers(lpaths, localeDefsMap);
+        Map<String, Definition> retValue = addDefinitionsAsPatternMatchers(
+                lpaths, localeDefsMap);
+        localePatternPaths.put(customizationKey, new PatternPaths(lpaths,
+                indexed ? new PrefixTreeDefinitionPatternMatcher(lpaths) : null));
+        return retValue;
     }
 
     /**
@@ -110,13 +156,47 @@ public abstract class AbstractPatternDefinitionResolver<T> implements
     
     /**
      * Used to clear all entries in the localePatternPaths for a specific locale. Necessary when reloading definition
-     * files to ensure that the list is cleared first
+     * files to ensure that the list is cleared first.<br>
+     * The current patterns are still used to resolve definitions until new
+     * patterns are stored for the same customization key, so that reloading
+     * does not make pattern definitions temporarily disappear.
      * 
      * @param customizationKey
      */
     @Override
-    public void clearPatternPaths(T customizationKey) {
-        if (localePatternPaths.get(customizationKey) != null)
-            localePatternPaths.get(customizationKey).clear();
+    public synchronized void clearPatternPaths(T customizationKey) {
+        if (localePatternPaths.containsKey(customizationKey)) {
+            clearedCustomizationKeys.add(customizationKey);
+        }
+    }
+
+    /**
+     * The patterns stored for a customization key. It is never modified once
+     * published.
+     */
+    private static final class PatternPaths {
+
+        /**
+         * The stored pattern matchers, in order.
+         */
+        private final List<DefinitionPatternMatcher> matchers;
+
+        /**
+         * The index of the pattern matchers, or <code>null</code> if patterns
+         * are not indexed.
+         */
+        private final DefinitionPatternMatcher index;
+
+        /**
+         * Constructor.
+         *
+         * @param matchers The stored pattern matchers.
+         * @param index The index of the pattern matchers, if any.
+         */
+        private PatternPaths(List<DefinitionPatternMatcher> matchers,
+                DefinitionPatternMatcher index) {
+            this.matchers = Collections.unmodifiableList(matchers);
+            this.index = index;
+        }
     }
 }
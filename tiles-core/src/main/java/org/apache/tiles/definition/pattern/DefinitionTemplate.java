@@ -0,0 +1,313 @@
+/*
+ * $Id$
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.tiles.definition.pattern;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import org.apache.tiles.Attribute;
+import org.apache.tiles.Definition;
+import org.apache.tiles.Expression;
+import org.apache.tiles.ListAttribute;
+
+/**
+ * A definition, whose name is a pattern, compiled so that definitions
+ * matching the pattern can be created quickly. All the strings that may
+ * contain placeholders, like <code>{1}</code>, are compiled once, so that
+ * creating a definition only needs to replace variables into them.
+ *
+ * @version $Rev$ $Date$
+ * @since 3.0.6
+ */
+public class DefinitionTemplate {
+
+    /**
+     * The compiled name of the definition to extend.
+     */
+    private final PlaceholderTemplate extendsTemplate;
+
+    /**
+     * The compiled preparer.
+     */
+    private final PlaceholderTemplate preparerTemplate;
+
+    /**
+     * The compiled template attribute.
+     */
+    private final AttributeTemplate templateAttributeTemplate;
+
+    /**
+     * The compiled local attributes.
+     */
+    private final List<NamedAttributeTemplate> localAttributeTemplates;
+
+    /**
+     * The compiled cascaded attributes.
+     */
+    private final List<NamedAttributeTemplate> cascadedAttributeTemplates;
+
+    /**
+     * Constructor.
+     *
+     * @param definition The definition to compile. Its attributes contain
+     * placeholders for variables.
+     * @since 3.0.6
+     */
+    public DefinitionTemplate(Definition definition) {
+        extendsTemplate = PlaceholderTemplate.compile(definition.getExtends());
+        preparerTemplate = PlaceholderTemplate.compile(definition.getPreparer());
+        Attribute templateAttribute = definition.getTemplateAttribute();
+        templateAttributeTemplate = templateAttribute != null ? AttributeTemplate
+                .compile(templateAttribute) : null;
+        localAttributeTemplates = new ArrayList<NamedAttributeTemplate>();
+        Set<String> attributeNames = definition.getLocalAttributeNames();
+        if (attributeNames != null) {
+            for (String attributeName : attributeNames) {
+                localAttributeTemplates.add(new NamedAttributeTemplate(
+                        attributeName, definition.getLocalAttribute(attributeName)));
+            }
+        }
+        cascadedAttributeTemplates = new ArrayList<NamedAttributeTemplate>();
+        attributeNames = definition.getCascadedAttributeNames();
+        if (attributeNames != null) {
+            for (String attributeName : attributeNames) {
+                cascadedAttributeTemplates.add(new NamedAttributeTemplate(
+                        attributeName, definition.getCascadedAttribute(attributeName)));
+            }
+        }
+    }
+
+    /**
+     * Creates a definition, replacing variables into placeholders.
+     *
+     * @param name The name of the definition to be created.
+     * @param vars The variables to be substituted. <code>null</code>
+     * variables are replaced with empty strings.
+     * @return The definition that can be rendered.
+     * @since 3.0.6
+     */
+    public Definition createDefinition(String name, Object... vars) {
+        Definition nudef = new Definition();
+
+        nudef.setExtends(replace(extendsTemplate, vars));
+        nudef.setName(name);
+        nudef.setPreparer(replace(preparerTemplate, vars));
+        if (templateAttributeTemplate != null) {
+            nudef.setTemplateAttribute(templateAttributeTemplate.createAttribute(vars));
+        }
+        for (NamedAttributeTemplate attributeTemplate : localAttributeTemplates) {
+            nudef.putAttribute(attributeTemplate.name.replace(vars),
+                    attributeTemplate.attribute.createAttribute(vars));
+        }
+        for (NamedAttributeTemplate attributeTemplate : cascadedAttributeTemplates) {
+            nudef.putAttribute(attributeTemplate.name.replace(vars),
+                    attributeTemplate.attribute.createAttribute(vars), true);
+        }
+
+        return nudef;
+    }
+
+    /**
+     * Replaces variables into a compiled string.
+     *
+     * @param template The compiled string. It can be <code>null</code>.
+     * @param vars The variables.
+     * @return The replaced string, or <code>null</code> if
+     * <code>template</code> is <code>null</code>.
+     */
+    private static String replace(PlaceholderTemplate template, Object[] vars) {
+        return template != null ? template.replace(vars) : null;
+    }
+
+    /**
+     * A compiled attribute.
+     */
+    private abstract static class AttributeTemplate {
+
+        /**
+         * Compiles an attribute.
+         *
+         * @param attribute The attribute to compile.
+         * @return The compiled attribute.
+         */
+        static AttributeTemplate compile(Attribute attribute) {
+            if (attribute instanceof ListAttribute) {
+                return new ListAttributeTemplate((ListAttribute) attribute);
+            }
+            return new SimpleAttributeTemplate(attribute);
+        }
+
+        /**
+         * Creates an attribute, replacing variables into placeholders.
+         *
+         * @param vars The variables.
+         * @return The created attribute.
+         */
+        abstract Attribute createAttribute(Object[] vars);
+    }
+
+    /**
+     * A compiled simple (not list) attribute.
+     */
+    private static final class SimpleAttributeTemplate extends AttributeTemplate {
+
+        /**
+         * The compiled role.
+         */
+        private final PlaceholderTemplate role;
+
+        /**
+         * The renderer.
+         */
+        private final String renderer;
+
+        /**
+         * The compiled expression, or <code>null</code> if there is no
+         * expression.
+         */
+        private final PlaceholderTemplate expression;
+
+        /**
+         * The language of the expression.
+         */
+        private final String language;
+
+        /**
+         * The compiled value, if the value is a string.
+         */
+        private final PlaceholderTemplate stringValue;
+
+        /**
+         * The value, if it is not a string.
+         */
+        private final Object value;
+
+        /**
+         * Constructor.
+         *
+         * @param attribute The attribute to compile.
+         */
+        private SimpleAttributeTemplate(Attribute attribute) {
+            role = PlaceholderTemplate.compile(attribute.getRole());
+            renderer = attribute.getRenderer();
+            Expression expressionObject = attribute.getExpressionObject();
+            if (expressionObject != null) {
+                expression = PlaceholderTemplate.compile(expressionObject.getExpression());
+                language = expressionObject.getLanguage();
+            } else {
+                expression = null;
+                language = null;
+            }
+            Object attributeValue = attribute.getValue();
+            if (attributeValue instanceof String) {
+                stringValue = PlaceholderTemplate.compile((String) attributeValue);
+                value = null;
+            } else {
+                stringValue = null;
+                value = attributeValue;
+            }
+        }
+
+        /** {@inheritDoc} */
+        @Override
+        Attribute createAttribute(Object[] vars) {
+            Attribute nuattr = new Attribute();
+            nuattr.setRole(replace(role, vars));
+            nuattr.setRenderer(renderer);
+            if (expression != null) {
+                nuattr.setExpressionObject(Expression.createExpression(
+                        expression.replace(vars), language));
+            }
+            nuattr.setValue(stringValue != null ? stringValue.replace(vars) : value);
+            return nuattr;
+        }
+    }
+
+    /**
+     * A compiled list attribute.
+     */
+    private static final class ListAttributeTemplate extends AttributeTemplate {
+
+        /**
+         * Whether the list inherits the elements of the parent list.
+         */
+        private final boolean inherit;
+
+        /**
+         * The compiled elements.
+         */
+        private final List<AttributeTemplate> items;
+
+        /**
+         * Constructor.
+         *
+         * @param listAttribute The attribute to compile.
+         */
+        private ListAttributeTemplate(ListAttribute listAttribute) {
+            inherit = listAttribute.isInherit();
+            items = new ArrayList<AttributeTemplate>();
+            for (Object item : listAttribute.getValue()) {
+                items.add(compile((Attribute) item));
+            }
+        }
+
+        /** {@inheritDoc} */
+        @Override
+        Attribute createAttribute(Object[] vars) {
+            ListAttribute nuListAttr = new ListAttribute();
+            nuListAttr.setInherit(inherit);
+            List<Attribute> nuItems = nuListAttr.getValue();
+            for (AttributeTemplate item : items) {
+                nuItems.add(item.createAttribute(vars));
+            }
+            return nuListAttr;
+        }
+    }
+
+    /**
+     * A compiled attribute, together with its compiled name.
+     */
+    private static final class NamedAttributeTemplate {
+
+        /**
+         * The compiled name.
+         */
+        private final PlaceholderTemplate name;
+
+        /**
+         * The compiled attribute.
+         */
+        private final AttributeTemplate attribute;
+
+        /**
+         * Constructor.
+         *
+         * @param name The name of the attribute.
+         * @param attribute The attribute.
+         */
+        private NamedAttributeTemplate(String name, Attribute attribute) {
+            this.name = PlaceholderTemplate.compile(name);
+            this.attribute = AttributeTemplate.compile(attribute);
+        }
+    }
+}
@@ -0,0 +1,42 @@
+/*
+ * $Id$
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.tiles.definition.pattern;
+
+/**
+ * A definition pattern matcher that can tell the literal prefix that all
+ * matched definition names start with. It allows to index pattern matchers,
+ * so that only the ones that may match a definition name are tried.
+ *
+ * @version $Rev$ $Date$
+ * @since 3.0.6
+ */
+public interface IndexableDefinitionPatternMatcher extends DefinitionPatternMatcher {
+
+    /**
+     * Returns the literal prefix of the pattern, i.e. the string that all the
+     * matched definition names start with.
+     *
+     * @return The literal prefix. It may be empty, but not <code>null</code>.
+     * @since 3.0.6
+     */
+    String getLiteralPrefix();
+}
@@ -0,0 +1,167 @@
+/*
+ * $Id$
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.tiles.definition.pattern;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A string containing placeholders, like <code>{1}</code>, compiled into
+ * literal segments and placeholder slots, so that variables can be replaced in
+ * a single pass.<br>
+ * Only curly braces containing a number are placeholders: any other text,
+ * including quotes and braces that do not contain a number, is copied as is.
+ * Placeholders whose number does not correspond to a variable are copied as
+ * is too.
+ *
+ * @version $Rev$ $Date$
+ * @since 3.0.6
+ */
+final class PlaceholderTemplate {
+
+    /**
+     * The maximum number of digits of a placeholder, so that it fits in an
+     * <code>int</code>.
+     */
+    private static final int MAX_DIGITS = 9;
+
+    /**
+     * The literal segments. There is one segment more than the slots: the
+     * segment at position <code>i</code> precedes the slot at the same
+     * position.
+     */
+    private final String[] literals;
+
+    /**
+     * The indexes of the variables to put in the slots.
+     */
+    private final int[] slots;
+
+    /**
+     * The placeholders, as written in the compiled string, used when there is
+     * no variable for a slot.
+     */
+    private final String[] placeholders;
+
+    /**
+     * The length of the literal segments, used to size the replaced string.
+     */
+    private final int literalLength;
+
+    /**
+     * Constructor.
+     *
+     * @param literals The literal segments.
+     * @param slots The indexes of the variables to put in the slots.
+     * @param placeholders The placeholders, as written in the compiled string.
+     * @param literalLength The length of the literal segments.
+     */
+    private PlaceholderTemplate(String[] literals, int[] slots,
+            String[] placeholders, int literalLength) {
+        this.literals = literals;
+        this.slots = slots;
+        this.placeholders = placeholders;
+        this.literalLength = literalLength;
+    }
+
+    /**
+     * Compiles a string containing placeholders.
+     *
+     * @param st The string to compile. It can be <code>null</code>.
+     * @return The compiled string, or <code>null</code> if <code>st</code> is
+     * <code>null</code>.
+     * @since 3.0.6
+     */
+    public static PlaceholderTemplate compile(String st) {
+        if (st == null) {
+            return null;
+        }
+        List<String> literals = new ArrayList<String>();
+        List<Integer> slots = new ArrayList<Integer>();
+        List<String> placeholders = new ArrayList<String>();
+        int literalLength = st.length();
+        int segmentStart = 0;
+        int brace = st.indexOf('{');
+        while (brace >= 0) {
+            int end = brace + 1;
+            while (end < st.length() && end - brace <= MAX_DIGITS
+                    && Character.isDigit(st.charAt(end))) {
+                end++;
+            }
+            if (end > brace + 1 && end < st.length() && st.charAt(end) == '}') {
+                literals.add(st.substring(segmentStart, brace));
+                slots.add(Integer.parseInt(st.substring(brace + 1, end)));
+                placeholders.add(st.substring(brace, end + 1));
+                literalLength -= end + 1 - brace;
+                segmentStart = end + 1;
+            }
+            brace = st.indexOf('{', brace + 1);
+        }
+        literals.add(st.substring(segmentStart));
+
+        int[] slotArray = new int[slots.size()];
+        for (int i = 0; i < slotArray.length; i++) {
+            slotArray[i] = slots.get(i);
+        }
+        return new PlaceholderTemplate(literals.toArray(new String[literals.size()]),
+                slotArray, placeholders.toArray(new String[placeholders.size()]),
+                literalLength);
+    }
+
+    /**
+     * Checks whether this string contains placeholders.
+     *
+     * @return <code>true</code> if this string does not contain placeholders.
+     * @since 3.0.6
+     */
+    public boolean isConstant() {
+        return slots.length == 0;
+    }
+
+    /**
+     * Replaces variables into placeholders.
+     *
+     * @param vars The variables. A <code>null</code> variable is replaced with
+     * an empty string.
+     * @return The replaced string.
+     * @since 3.0.6
+     */
+    public String replace(Object[] vars) {
+        if (slots.length == 0) {
+            return literals[0];
+        }
+        StringBuilder builder = new StringBuilder(literalLength + slots.length * 16);
+        for (int i = 0; i < slots.length; i++) {
+            builder.append(literals[i]);
+            int slot = slots[i];
+            if (slot < vars.length) {
+                if (vars[slot] != null) {
+                    builder.append(vars[slot]);
+                }
+            } else {
+                builder.append(placeholders[i]);
+            }
+        }
+        builder.append(literals[slots.length]);
+        return builder.toString();
+    }
+}
@@ -0,0 +1,211 @@
+/*
+ * $Id$
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.tiles.definition.pattern;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.tiles.Definition;
+
+/**
+ * Resolves definitions through a list of pattern matchers, indexed by their
+ * literal prefix in a prefix tree. Given a definition name, only the pattern
+ * matchers whose literal prefix is a prefix of the name are tried, in the
+ * order of the list, and the first created definition is returned.<br>
+ * Pattern matchers that do not implement
+ * {@link IndexableDefinitionPatternMatcher} are always tried.
+ *
+ * @version $Rev$ $Date$
+ * @since 3.0.6
+ */
+public class PrefixTreeDefinitionPatternMatcher implements DefinitionPatternMatcher {
+
+    /**
+     * The indexed pattern matchers, in order.
+     */
+    private final DefinitionPatternMatcher[] matchers;
+
+    /**
+     * The root of the prefix tree, i.e. the node of the empty prefix.
+     */
+    private final Node root;
+
+    /**
+     * Constructor.
+     *
+     * @param matchers The pattern matchers to index, in the order they must be
+     * tried.
+     * @since 3.0.6
+     */
+    public PrefixTreeDefinitionPatternMatcher(List<DefinitionPatternMatcher> matchers) {
+        this.matchers = matchers.toArray(new DefinitionPatternMatcher[matchers.size()]);
+        root = new Node();
+        for (int i = 0; i < this.matchers.length; i++) {
+            String prefix = "";
+            if (this.matchers[i] instanceof IndexableDefinitionPatternMatcher) {
+                prefix = ((IndexableDefinitionPatternMatcher) this.matchers[i])
+                        .getLiteralPrefix();
+            }
+            Node node = root;
+            for (int j = 0; j < prefix.length(); j++) {
+                node = node.getOrCreateChild(prefix.charAt(j));
+            }
+            node.add(i);
+        }
+        root.compact();
+    }
+
+    /** {@inheritDoc} */
+    public Definition createDefinition(String definitionName) {
+        int[] candidates = findCandidates(definitionName);
+        Definition d = null;
+        for (int i = 0; i < candidates.length && d == null; i++) {
+            d = matchers[candidates[i]].createDefinition(definitionName);
+        }
+        return d;
+    }
+
+    /**
+     * Finds the positions of the pattern matchers that may match a name.
+     *
+     * @param definitionName The definition name.
+     * @return The positions of the candidate pattern matchers, in ascending
+     * order.
+     */
+    private int[] findCandidates(String definitionName) {
+        int[] retValue = root.positions;
+        int[] buffer = null;
+        int size = retValue.length;
+        Node node = root;
+        for (int i = 0; i < definitionName.length() && node != null; i++) {
+            node = node.getChild(definitionName.charAt(i));
+            if (node != null && node.positions.length > 0) {
+                if (size == 0) {
+                    retValue = node.positions;
+                    size = retValue.length;
+                } else {
+                    if (buffer == null) {
+                        buffer = new int[matchers.length];
+                        System.arraycopy(retValue, 0, buffer, 0, size);
+                    }
+                    System.arraycopy(node.positions, 0, buffer, size,
+                            node.positions.length);
+                    size += node.positions.length;
+                }
+            }
+        }
+        if (buffer != null) {
+            // Candidates come from more than one node: restore the order.
+            retValue = Arrays.copyOf(buffer, size);
+            Arrays.sort(retValue);
+        }
+        return retValue;
+    }
+
+    /**
+     * A node of the prefix tree.
+     */
+    private static final class Node {
+
+        /**
+         * An empty array of positions.
+         */
+        private static final int[] NO_POSITIONS = new int[0];
+
+        /**
+         * The children, mapped by the next character of the prefix.
+         */
+        private Map<Character, Node> children;
+
+        /**
+         * The positions of the pattern matchers whose literal prefix ends in
+         * this node, in ascending order.
+         */
+        private int[] positions = NO_POSITIONS;
+
+        /**
+         * The positions being added, while building the tree.
+         */
+        private List<Integer> positionList;
+
+        /**
+         * Returns a child of this node.
+         *
+         * @param c The next character of the prefix.
+         * @return The child, or <code>null</code> if not present.
+         */
+        private Node getChild(char c) {
+            return children != null ? children.get(c) : null;
+        }
+
+        /**
+         * Returns a child of this node, creating it if not present.
+         *
+         * @param c The next character of the prefix.
+         * @return The child.
+         */
+        private Node getOrCreateChild(char c) {
+            if (children == null) {
+                children = new HashMap<Character, Node>();
+            }
+            Node child = children.get(c);
+            if (child == null) {
+                child = new Node();
+                children.put(c, child);
+            }
+            return child;
+        }
+
+        /**
+         * Adds the position of a pattern matcher.
+         *
+         * @param position The position.
+         */
+        private void add(int position) {
+            if (positionList == null) {
+                positionList = new ArrayList<Integer>();
+            }
+            positionList.add(position);
+        }
+
+        /**
+         * Turns the added positions of this node and its children into arrays.
+         */
+        private void compact() {
+            if (positionList != null) {
+                positions = new int[positionList.size()];
+                for (int i = 0; i < positions.length; i++) {
+                    positions[i] = positionList.get(i);
+                }
+                positionList = null;
+            }
+            if (children != null) {
+                for (Node child : children.values()) {
+                    child.compact();
+                }
+            }
+        }
+    }
+}
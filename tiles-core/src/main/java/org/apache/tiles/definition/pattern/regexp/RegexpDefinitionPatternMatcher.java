@@ -25,8 +25,8 @@ import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
 import org.apache.tiles.Definition;
-import org.apache.tiles.definition.pattern.DefinitionPatternMatcher;
-import org.apache.tiles.definition.pattern.PatternUtil;
+import org.apache.tiles.definition.pattern.DefinitionTemplate;
+import org.apache.tiles.definition.pattern.IndexableDefinitionPatternMatcher;
 
 /**
  * Matches regular expression patterns in definitions.
@@ -34,7 +34,19 @@ import org.apache.tiles.definition.pattern.PatternUtil;
  * @version $Rev$ $Date$
  * @since 2.2.0
  */
-public class RegexpDefinitionPatternMatcher implements DefinitionPatternMatcher {
+public class RegexpDefinitionPatternMatcher implements
+        IndexableDefinitionPatternMatcher {
+
+    /**
+     * The characters that have a special meaning in regular expressions.
+     */
+    private static final String SPECIAL_CHARACTERS = "\\^$.|?*+()[]{}";
+
+    /**
+     * The characters that, following a character, make it optional.
+     */
+    private static final String OPTIONAL_QUANTIFIERS = "?*{";
+
 
     /**
      * The pattern to match.
@@ -42,9 +54,14 @@ public class RegexpDefinitionPatternMatcher implements DefinitionPatternMatcher
     private Pattern pattern;
 
     /**
-     * The definition to use as a basis.
+     * The definition to use as a basis, compiled.
      */
-    private Definition definition;
+    private DefinitionTemplate definitionTemplate;
+
+    /**
+     * The characters that all matched names start with.
+     */
+    private String literalPrefix;
 
     /**
      * Constructor.
@@ -55,7 +72,13 @@ public class RegexpDefinitionPatternMatcher implements DefinitionPatternMatcher
      */
     public RegexpDefinitionPatternMatcher(String pattern, Definition definition) {
         this.pattern = Pattern.compile(pattern);
-        this.definition = definition;
+        this.definitionTemplate = new DefinitionTemplate(definition);
+        this.literalPrefix = computeLiteralPrefix(pattern);
+    }
+
+    /** {@inheritDoc} */
+    public String getLiteralPrefix() {
+        return literalPrefix;
     }
 
     /** {@inheritDoc} */
@@ -68,9 +91,35 @@ public class RegexpDefinitionPatternMatcher implements DefinitionPatternMatcher
             for (int i = 0; i < groupCount; i++) {
                 vars[i] = matcher.group(i);
             }
-            retValue = PatternUtil.replacePlaceholders(definition,
-                    definitionName, vars);
+            retValue = definitionTemplate.createDefinition(definitionName,
+                    vars);
         }
         return retValue;
     }
+
+    /**
+     * Computes the literal prefix of a regular expression, stopping at the
+     * first special character. It is conservative: an expression containing
+     * an alternation has no literal prefix.
+     *
+     * @param pattern The regular expression.
+     * @return The literal prefix.
+     */
+    private static String computeLiteralPrefix(String pattern) {
+        if (pattern.indexOf('|') >= 0) {
+            return "";
+        }
+        StringBuilder prefix = new StringBuilder();
+        for (int i = 0; i < pattern.length(); i++) {
+            char c = pattern.charAt(i);
+            if (SPECIAL_CHARACTERS.indexOf(c) >= 0) {
+                if (OPTIONAL_QUANTIFIERS.indexOf(c) >= 0 && prefix.length() > 0) {
+                    prefix.setLength(prefix.length() - 1);
+                }
+                break;
+            }
+            prefix.append(c);
+        }
+        return prefix.toString();
+    }
 }
@@ -21,6 +21,7 @@
 
 package org.apache.tiles.evaluator;
 
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
 
@@ -29,7 +30,10 @@ import org.apache.tiles.Expression;
 
 /**
  * Basic implementation of {@link AttributeEvaluatorFactory}. It supports a
- * default attribute evaluator, in case the language is not recognized.
+ * default attribute evaluator, in case the language is not recognized.<br>
+ * Once all evaluators are registered, the factory can be frozen: then the
+ * evaluator resolved for an expression is stored in the {@link Expression}
+ * itself, so that the language is resolved only once.
  *
  * @version $Rev$ $Date$
  * @since 2.2.0
@@ -44,11 +48,18 @@ public class BasicAttributeEvaluatorFactory implements
     private AttributeEvaluator defaultEvaluator;
 
     /**
-     * Maps names of expression languages to their attribute evaluator.
+     * Maps names of expression languages to their attribute evaluator. It is
+     * never modified after being published: registering an evaluator replaces
+     * it with a modified copy.
      *
      * @since 2.2.0
      */
-    private Map<String, AttributeEvaluator> language2evaluator;
+    private volatile Map<String, AttributeEvaluator> language2evaluator;
+
+    /**
+     * Indicates that no more evaluators can be registered.
+     */
+    private volatile boolean frozen = false;
 
     /**
      * Constructor.
@@ -59,7 +70,7 @@ public class BasicAttributeEvaluatorFactory implements
      */
     public BasicAttributeEvaluatorFactory(AttributeEvaluator defaultEvaluator) {
         this.defaultEvaluator = defaultEvaluator;
-        language2evaluator = new HashMap<String, AttributeEvaluator>();
+        language2evaluator = Collections.emptyMap();
     }
 
     /**
@@ -67,10 +78,40 @@ public class BasicAttributeEvaluatorFactory implements
      *
      * @param language The name of the expression language.
      * @param evaluator The associated attribute evaluator.
+     * @throws IllegalStateException If the factory has been frozen.
      * @since 2.2.0
      */
-    public void registerAttributeEvaluator(String language, AttributeEvaluator evaluator) {
-        language2evaluator.put(language, evaluator);
+    public synchronized void registerAttributeEvaluator(String language, AttributeEvaluator evaluator) {
+        if (frozen) {
+            throw new IllegalStateException(
+                    "Cannot register the evaluator of language '" + language
+                            + "', the attribute evaluator factory is frozen");
+        }
+        Map<String, AttributeEvaluator> newLanguage2evaluator = new HashMap<String, AttributeEvaluator>(
+                language2evaluator);
+        newLanguage2evaluator.put(language, evaluator);
+        language2evaluator = Collections.unmodifiableMap(newLanguage2evaluator);
+    }
+
+    /**
+     * Freezes the factory: no more evaluators can be registered, and the
+     * evaluators resolved for expressions are cached in the expressions
+     * themselves. It is called when the container has been created.
+     *
+     * @since 3.0.6
+     */
+    public synchronized void freeze() {
+        frozen = true;
+    }
+
+    /**
+     * Checks if the factory has been frozen.
+     *
+     * @return <code>true</code> if no more evaluators can be registered.
+     * @since 3.0.6
+     */
+    public boolean isFrozen() {
+        return frozen;
     }
 
     /** {@inheritDoc} */
@@ -85,9 +126,49 @@ public class BasicAttributeEvaluatorFactory implements
     /** {@inheritDoc} */
     public AttributeEvaluator getAttributeEvaluator(Attribute attribute) {
         Expression expression = attribute.getExpressionObject();
-        if (expression != null) {
+        if (expression == null) {
+            return defaultEvaluator;
+        }
+        if (!frozen) {
             return getAttributeEvaluator(expression.getLanguage());
         }
-        return defaultEvaluator;
+        Object resolved = expression.getResolvedEvaluator();
+        if (resolved instanceof ResolvedEvaluator
+                && ((ResolvedEvaluator) resolved).factory == this) {
+            return ((ResolvedEvaluator) resolved).evaluator;
+        }
+        AttributeEvaluator retValue = getAttributeEvaluator(expression.getLanguage());
+        expression.setResolvedEvaluator(new ResolvedEvaluator(this, retValue));
+        return retValue;
+    }
+
+    /**
+     * The evaluator resolved for an expression, along with the factory that
+     * resolved it, so that expressions shared among factories are resolved
+     * correctly.
+     */
+    private static final class ResolvedEvaluator {
+
+        /**
+         * The factory that resolved the evaluator.
+         */
+        private final BasicAttributeEvaluatorFactory factory;
+
+        /**
+         * The resolved evaluator.
+         */
+        private final AttributeEvaluator evaluator;
+
+        /**
+         * Constructor.
+         *
+         * @param factory The factory that resolved the evaluator.
+         * @param evaluator The resolved evaluator.
+         */
+        private ResolvedEvaluator(BasicAttributeEvaluatorFactory factory,
+                AttributeEvaluator evaluator) {
+            this.factory = factory;
+            this.evaluator = evaluator;
+        }
     }
 }
@@ -0,0 +1,170 @@
+/*
+ * $Id$
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.tiles.evaluator;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A bounded, thread-safe cache of parsed expressions, keyed by their text.
+ * <br>
+ * When the cache is full, new expressions are not stored anymore, so that
+ * expressions built at runtime cannot make it grow indefinitely, while the
+ * ones written in definitions, that are limited in number, are kept.
+ *
+ * @param <V> The type of the parsed expressions.
+ * @version $Rev$ $Date$
+ * @since 3.0.6
+ */
+public class ExpressionCache<V> {
+
+    /**
+     * The default maximum number of cached expressions.
+     *
+     * @since 3.0.6
+     */
+    public static final int DEFAULT_MAX_SIZE = 1024;
+
+    /**
+     * The parsed expressions.
+     */
+    private final ConcurrentMap<String, V> expressions = new ConcurrentHashMap<String, V>();
+
+    /**
+     * The maximum number of cached expressions.
+     */
+    private final int maxSize;
+
+    /**
+     * The number of lookups that found a parsed expression.
+     */
+    private final AtomicLong hits = new AtomicLong();
+
+    /**
+     * The number of lookups that did not find a parsed expression.
+     */
+    private final AtomicLong misses = new AtomicLong();
+
+    /**
+     * Constructor, using {@link #DEFAULT_MAX_SIZE}.
+     *
+     * @since 3.0.6
+     */
+    public ExpressionCache() {
+        this(DEFAULT_MAX_SIZE);
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param maxSize The maximum number of cached expressions. <code>0</code>
+     * disables caching.
+     * @since 3.0.6
+     */
+    public ExpressionCache(int maxSize) {
+        this.maxSize = maxSize;
+    }
+
+    /**
+     * Returns a parsed expression.
+     *
+     * @param expression The text of the expression.
+     * @return The parsed expression, or <code>null</code> if it is not cached.
+     * @since 3.0.6
+     */
+    public V get(String expression) {
+        V value = expressions.get(expression);
+        if (value != null) {
+            hits.incrementAndGet();
+        } else {
+            misses.incrementAndGet();
+        }
+        return value;
+    }
+
+    /**
+     * Stores a parsed expression, if there is still room for it.
+     *
+     * @param expression The text of the expression.
+     * @param value The parsed expression.
+     * @return The parsed expression to use: the one already cached by another
+     * thread, if any, otherwise <code>value</code>.
+     * @since 3.0.6
+     */
+    public V put(String expression, V value) {
+        if (expressions.size() >= maxSize) {
+            return value;
+        }
+        V previous = expressions.putIfAbsent(expression, value);
+        return previous != null ? previous : value;
+    }
+
+    /**
+     * Removes all the cached expressions. Counters are not reset.
+     *
+     * @since 3.0.6
+     */
+    public void clear() {
+        expressions.clear();
+    }
+
+    /**
+     * Returns the number of cached expressions.
+     *
+     * @return The number of cached expressions.
+     * @since 3.0.6
+     */
+    public int size() {
+        return expressions.size();
+    }
+
+    /**
+     * Returns the maximum number of cached expressions.
+     *
+     * @return The maximum size. <code>0</code> means that caching is disabled.
+     * @since 3.0.6
+     */
+    public int getMaxSize() {
+        return maxSize;
+    }
+
+    /**
+     * Returns the number of lookups that found a parsed expression.
+     *
+     * @return The number of hits.
+     * @since 3.0.6
+     */
+    public long getHits() {
+        return hits.get();
+    }
+
+    /**
+     * Returns the number of lookups that did not find a parsed expression.
+     *
+     * @return The number of misses.
+     * @since 3.0.6
+     */
+    public long getMisses() {
+        return misses.get();
+    }
+}
@@ -0,0 +1,52 @@
+/*
+ * $Id$
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.tiles.evaluator;
+
+/**
+ * An attribute evaluator that can recognize expressions whose value does not
+ * depend on the request, such as literals, so that they can be evaluated once,
+ * when definitions are loaded.
+ *
+ * @version $Rev$ $Date$
+ * @since 3.0.6
+ */
+public interface StaticExpressionEvaluator {
+
+    /**
+     * Checks if the value of an expression does not depend on the request.
+     *
+     * @param expression The expression to check.
+     * @return <code>true</code> if the expression can be evaluated without a
+     * request.
+     * @since 3.0.6
+     */
+    boolean isStatic(String expression);
+
+    /**
+     * Evaluates an expression that does not depend on the request.
+     *
+     * @param expression The expression to evaluate. It must be static.
+     * @return The evaluated object.
+     * @see #isStatic(String)
+     * @since 3.0.6
+     */
+    Object evaluateStatic(String expression);
+}
@@ -21,6 +21,7 @@
 package org.apache.tiles.evaluator.impl;
 
 import org.apache.tiles.evaluator.AbstractAttributeEvaluator;
+import org.apache.tiles.evaluator.StaticExpressionEvaluator;
 import org.apache.tiles.request.Request;
 
 /**
@@ -30,10 +31,21 @@ import org.apache.tiles.request.Request;
  * @version $Rev$ $Date$
  * @since 2.1.0
  */
-public class DirectAttributeEvaluator extends AbstractAttributeEvaluator {
+public class DirectAttributeEvaluator extends AbstractAttributeEvaluator
+        implements StaticExpressionEvaluator {
 
     /** {@inheritDoc} */
     public Object evaluate(String expression, Request request) {
         return expression;
     }
+
+    /** {@inheritDoc} */
+    public boolean isStatic(String expression) {
+        return true;
+    }
+
+    /** {@inheritDoc} */
+    public Object evaluateStatic(String expression) {
+        return expression;
+    }
 }
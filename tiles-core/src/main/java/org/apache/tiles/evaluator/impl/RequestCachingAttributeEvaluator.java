@@ -0,0 +1,220 @@
+/*
+ * $Id$
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.tiles.evaluator.impl;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.apache.tiles.Attribute;
+import org.apache.tiles.Expression;
+import org.apache.tiles.evaluator.AttributeEvaluator;
+import org.apache.tiles.request.Request;
+
+/**
+ * Decorates an attribute evaluator so that chosen expressions are evaluated at
+ * most once per request. Results are stored in request scope and keyed by the
+ * text and the language of the expression, so an expression used by many
+ * attributes, or by copies of the same attribute, is evaluated only the first
+ * time.<br>
+ * Nothing is cached unless it is asked: only the expressions added with
+ * {@link #addCacheableExpression(String)} are cached, and they must be the
+ * ones whose value does not change during a request, for instance because no
+ * preparer modifies what they refer to.
+ *
+ * @version $Rev$ $Date$
+ * @since 3.0.6
+ */
+public class RequestCachingAttributeEvaluator implements AttributeEvaluator {
+
+    /**
+     * The name of the request attribute that stores the evaluated values.
+     *
+     * @since 3.0.6
+     */
+    public static final String EVALUATIONS_ATTRIBUTE_NAME =
+        RequestCachingAttributeEvaluator.class.getName() + ".EVALUATIONS";
+
+    /**
+     * Stands for a <code>null</code> evaluated value.
+     */
+    private static final Object NULL_VALUE = new Object();
+
+    /**
+     * The decorated evaluator.
+     */
+    private final AttributeEvaluator evaluator;
+
+    /**
+     * The expressions that are evaluated once per request.
+     */
+    private final Set<String> cacheableExpressions = Collections
+            .newSetFromMap(new ConcurrentHashMap<String, Boolean>());
+
+    /**
+     * Constructor.
+     *
+     * @param evaluator The evaluator to decorate.
+     * @since 3.0.6
+     */
+    public RequestCachingAttributeEvaluator(AttributeEvaluator evaluator) {
+        this.evaluator = evaluator;
+    }
+
+    /**
+     * Marks an expression as cacheable, so that it is evaluated once per
+     * request.
+     *
+     * @param expression The text of the expression.
+     * @since 3.0.6
+     */
+    public void addCacheableExpression(String expression) {
+        cacheableExpressions.add(expression);
+    }
+
+    /**
+     * Marks some expressions as cacheable, so that they are evaluated once per
+     * request.
+     *
+     * @param expressions The texts of the expressions.
+     * @since 3.0.6
+     */
+    public void addCacheableExpressions(Collection<String> expressions) {
+        cacheableExpressions.addAll(expressions);
+    }
+
+    /**
+     * Checks if an expression can be cached during a request.
+     *
+     * @param expression The text of the expression.
+     * @return <code>true</code> if the expression has been marked as
+     * cacheable.
+     * @since 3.0.6
+     */
+    public boolean isCacheable(String expression) {
+        return cacheableExpressions.contains(expression);
+    }
+
+    /** {@inheritDoc} */
+    public Object evaluate(String expression, Request request) {
+        return evaluator.evaluate(expression, request);
+    }
+
+    /** {@inheritDoc} */
+    public Object evaluate(Attribute attribute, Request request) {
+        if (attribute == null) {
+            throw new IllegalArgumentException("The attribute cannot be null");
+        }
+
+        Expression expression = attribute.getExpressionObject();
+        if (attribute.getValue() != null || expression == null
+                || !isCacheable(expression.getExpression())) {
+            return evaluator.evaluate(attribute, request);
+        }
+        ConcurrentMap<EvaluationKey, Object> evaluations = getEvaluations(request);
+        if (evaluations == null) {
+            return evaluator.evaluate(attribute, request);
+        }
+
+        EvaluationKey key = new EvaluationKey(expression.getExpression(),
+                expression.getLanguage());
+        Object value = evaluations.get(key);
+        if (value == null) {
+            value = evaluator.evaluate(attribute, request);
+            evaluations.put(key, value != null ? value : NULL_VALUE);
+        } else if (value == NULL_VALUE) {
+            value = null;
+        }
+        return value;
+    }
+
+    /**
+     * Returns the values evaluated during the request, creating the map the
+     * first time.
+     *
+     * @param request The request.
+     * @return The evaluated values, or <code>null</code> if the request has no
+     * request scope.
+     */
+    @SuppressWarnings("unchecked")
+    private ConcurrentMap<EvaluationKey, Object> getEvaluations(Request request) {
+        Map<String, Object> requestScope = request.getContext("request");
+        if (requestScope == null) {
+            return null;
+        }
+        ConcurrentMap<EvaluationKey, Object> evaluations =
+            (ConcurrentMap<EvaluationKey, Object>) requestScope.get(EVALUATIONS_ATTRIBUTE_NAME);
+        if (evaluations == null) {
+            evaluations = new ConcurrentHashMap<EvaluationKey, Object>();
+            requestScope.put(EVALUATIONS_ATTRIBUTE_NAME, evaluations);
+        }
+        return evaluations;
+    }
+
+    /**
+     * Identifies an evaluation by the text and the language of the expression.
+     */
+    private static final class EvaluationKey {
+
+        /**
+         * The text of the expression.
+         */
+        private final String expression;
+
+        /**
+         * The language of the expression, may be <code>null</code>.
+         */
+        private final String language;
+
+        /**
+         * Constructor.
+         *
+         * @param expression The text of the expression.
+         * @param language The language of the expression.
+         */
+        private EvaluationKey(String expression, String language) {
+            this.expression = expression;
+            this.language = language;
+        }
+
+        /** {@inheritDoc} */
+        @Override
+        public boolean equals(Object obj) {
+            if (!(obj instanceof EvaluationKey)) {
+                return false;
+            }
+            EvaluationKey key = (EvaluationKey) obj;
+            return expression.equals(key.expression)
+                    && (language == null ? key.language == null : language
+                            .equals(key.language));
+        }
+
+        /** {@inheritDoc} */
+        @Override
+        public int hashCode() {
+            return expression.hashCode() * 31
+                    + (language != null ? language.hashCode() : 0);
+        }
+    }
+}
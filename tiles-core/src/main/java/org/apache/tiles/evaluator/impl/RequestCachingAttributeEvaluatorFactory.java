@@ -0,0 +1,103 @@
+/*
+ * $Id$
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.tiles.evaluator.impl;
+
+import java.util.Collection;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.apache.tiles.Attribute;
+import org.apache.tiles.evaluator.AttributeEvaluator;
+import org.apache.tiles.evaluator.AttributeEvaluatorFactory;
+
+/**
+ * Decorates an attribute evaluator factory so that every evaluator it returns
+ * is decorated by a {@link RequestCachingAttributeEvaluator}, caching the
+ * given expressions for the duration of a request.
+ *
+ * @version $Rev$ $Date$
+ * @since 3.0.6
+ */
+public class RequestCachingAttributeEvaluatorFactory implements
+        AttributeEvaluatorFactory {
+
+    /**
+     * The decorated factory.
+     */
+    private final AttributeEvaluatorFactory factory;
+
+    /**
+     * The expressions that are evaluated once per request.
+     */
+    private final Collection<String> cacheableExpressions;
+
+    /**
+     * The decorating evaluators, by decorated evaluator.
+     */
+    private final ConcurrentMap<AttributeEvaluator, RequestCachingAttributeEvaluator> evaluators =
+        new ConcurrentHashMap<AttributeEvaluator, RequestCachingAttributeEvaluator>();
+
+    /**
+     * Constructor.
+     *
+     * @param factory The factory to decorate.
+     * @param cacheableExpressions The texts of the expressions that are
+     * evaluated once per request.
+     * @since 3.0.6
+     */
+    public RequestCachingAttributeEvaluatorFactory(
+            AttributeEvaluatorFactory factory,
+            Collection<String> cacheableExpressions) {
+        this.factory = factory;
+        this.cacheableExpressions = cacheableExpressions;
+    }
+
+    /** {@inheritDoc} */
+    public AttributeEvaluator getAttributeEvaluator(Attribute attribute) {
+        return decorate(factory.getAttributeEvaluator(attribute));
+    }
+
+    /** {@inheritDoc} */
+    public AttributeEvaluator getAttributeEvaluator(String language) {
+        return decorate(factory.getAttributeEvaluator(language));
+    }
+
+    /**
+     * Returns the caching evaluator that decorates an evaluator, creating it
+     * the first time.
+     *
+     * @param evaluator The evaluator to decorate.
+     * @return The caching evaluator.
+     */
+    private AttributeEvaluator decorate(AttributeEvaluator evaluator) {
+        RequestCachingAttributeEvaluator retValue = evaluators.get(evaluator);
+        if (retValue == null) {
+            retValue = new RequestCachingAttributeEvaluator(evaluator);
+            retValue.addCacheableExpressions(cacheableExpressions);
+            RequestCachingAttributeEvaluator existing = evaluators.putIfAbsent(
+                    evaluator, retValue);
+            if (existing != null) {
+                retValue = existing;
+            }
+        }
+        return retValue;
+    }
+}
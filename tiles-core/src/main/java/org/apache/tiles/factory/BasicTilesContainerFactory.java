@@ -21,15 +21,24 @@
 package org.apache.tiles.factory;
 
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
 
+import org.apache.tiles.Definition;
 import org.apache.tiles.TilesContainer;
 import org.apache.tiles.definition.DefinitionsFactory;
 import org.apache.tiles.definition.DefinitionsReader;
 import org.apache.tiles.definition.UnresolvingLocaleDefinitionsFactory;
+import org.apache.tiles.definition.dao.BackgroundRefreshMonitor;
 import org.apache.tiles.definition.dao.BaseLocaleUrlDefinitionDAO;
+import org.apache.tiles.definition.dao.CachingLocaleUrlDefinitionDAO;
 import org.apache.tiles.definition.dao.DefinitionDAO;
+import org.apache.tiles.definition.dao.LocaleDefinitionsPreloader;
 import org.apache.tiles.definition.dao.ResolvingLocaleUrlDefinitionDAO;
 import org.apache.tiles.definition.digester.DigesterDefinitionsReader;
 import org.apache.tiles.definition.pattern.BasicPatternDefinitionResolver;
@@ -37,8 +46,10 @@ import org.apache.tiles.definition.pattern.PatternDefinitionResolver;
 import org.apache.tiles.definition.pattern.PatternDefinitionResolverAware;
 import org.apache.tiles.definition.pattern.wildcard.WildcardDefinitionPatternMatcherFactory;
 import org.apache.tiles.evaluator.AttributeEvaluatorFactory;
+import org.apache.tiles.evaluator.AttributeEvaluatorFactoryAware;
 import org.apache.tiles.evaluator.BasicAttributeEvaluatorFactory;
 import org.apache.tiles.evaluator.impl.DirectAttributeEvaluator;
+import org.apache.tiles.evaluator.impl.RequestCachingAttributeEvaluatorFactory;
 import org.apache.tiles.impl.BasicTilesContainer;
 import org.apache.tiles.locale.LocaleResolver;
 import org.apache.tiles.locale.impl.DefaultLocaleResolver;
@@ -83,12 +94,31 @@ public class BasicTilesContainerFactory extends AbstractTilesContainerFactory {
         BasicTilesContainer container = instantiateContainer(applicationContext);
         container.setApplicationContext(applicationContext);
         LocaleResolver resolver = createLocaleResolver(applicationContext);
-        container.setDefinitionsFactory(createDefinitionsFactory(applicationContext,
-                resolver));
+        DefinitionsFactory definitionsFactory = createDefinitionsFactory(
+                applicationContext, resolver);
+        container.setDefinitionsFactory(definitionsFactory);
         AttributeEvaluatorFactory attributeEvaluatorFactory = createAttributeEvaluatorFactory(
                 applicationContext, resolver);
+        if (attributeEvaluatorFactory instanceof BasicAttributeEvaluatorFactory) {
+            ((BasicAttributeEvaluatorFactory) attributeEvaluatorFactory).freeze();
+        }
+        if (definitionsFactory instanceof AttributeEvaluatorFactoryAware) {
+            ((AttributeEvaluatorFactoryAware) definitionsFactory)
+                    .setAttributeEvaluatorFactory(attributeEvaluatorFactory);
+        }
+        Set<String> cacheableExpressions = getRequestCacheableExpressions(applicationContext);
+        if (cacheableExpressions != null && !cacheableExpressions.isEmpty()) {
+            // Definitions are loaded outside of requests, so only rendering is cached.
+            attributeEvaluatorFactory = new RequestCachingAttributeEvaluatorFactory(
+                    attributeEvaluatorFactory, cacheableExpressions);
+        }
         container.setAttributeEvaluatorFactory(attributeEvaluatorFactory);
-        container.setPreparerFactory(createPreparerFactory(applicationContext));
+        PreparerFactory preparerFactory = createPreparerFactory(applicationContext);
+        container.setPreparerFactory(preparerFactory);
+        container.setPreparerExecutor(createPreparerExecutor(applicationContext));
+        if (isPreloadPreparers(applicationContext)) {
+            preloadPreparers(applicationContext, definitionsFactory, preparerFactory);
+        }
         TilesContainer injectedContainer = createDecoratedContainer(container, applicationContext);
         container.setRendererFactory(createRendererFactory(applicationContext,
                 injectedContainer, attributeEvaluatorFactory));
@@ -184,9 +214,60 @@ public class BasicTilesContainerFactory extends AbstractTilesContainerFactory {
             ((PatternDefinitionResolverAware<Locale>) definitionDao)
                     .setPatternDefinitionResolver(createPatternDefinitionResolver(Locale.class));
         }
+        List<Locale> preloadLocales = getPreloadLocales(applicationContext);
+        if (preloadLocales != null && !preloadLocales.isEmpty()) {
+            if (definitionDao instanceof CachingLocaleUrlDefinitionDAO) {
+                ((CachingLocaleUrlDefinitionDAO) definitionDao).setConcurrent(true);
+            }
+            new LocaleDefinitionsPreloader(definitionDao)
+                    .preload(preloadLocales);
+        }
+        long refreshInterval = getRefreshInterval(applicationContext);
+        if (refreshInterval > 0L
+                && definitionDao instanceof CachingLocaleUrlDefinitionDAO) {
+            CachingLocaleUrlDefinitionDAO cachingDao = (CachingLocaleUrlDefinitionDAO) definitionDao;
+            cachingDao.setCheckRefresh(false);
+            BackgroundRefreshMonitor monitor = new BackgroundRefreshMonitor(
+                    cachingDao, refreshInterval);
+            BackgroundRefreshMonitor.register(applicationContext, monitor);
+            monitor.start();
+        }
         return definitionDao;
     }
 
+    /**
+     * Returns the interval, in milliseconds, between two checks of the
+     * definition sources by a {@link BackgroundRefreshMonitor}. By default, it
+     * returns <code>0</code>, i.e. no monitor is started. When positive and
+     * the definition DAO is a {@link CachingLocaleUrlDefinitionDAO}, its
+     * check at every request is turned off, and a monitor is started and
+     * registered in the application context, so that it is stopped when
+     * Tiles is destroyed.
+     *
+     * @param applicationContext The Tiles application context.
+     * @return The interval between two checks, or <code>0</code>.
+     * @since 3.0.6
+     */
+    protected long getRefreshInterval(ApplicationContext applicationContext) {
+        return 0L;
+    }
+
+    /**
+     * Returns the locales whose definitions are loaded, in parallel, when the
+     * container is created, instead of when they are first requested. By
+     * default, it returns an empty list, i.e. definitions are loaded when
+     * they are requested. When locales are returned and the definition DAO is
+     * a {@link CachingLocaleUrlDefinitionDAO}, its concurrent loading is
+     * enabled.
+     *
+     * @param applicationContext The Tiles application context.
+     * @return The locales to preload.
+     * @since 3.0.6
+     */
+    protected List<Locale> getPreloadLocales(ApplicationContext applicationContext) {
+        return Collections.emptyList();
+    }
+
     /**
      * Creates the locale resolver. By default it creates a
      * {@link DefaultLocaleResolver}.
@@ -239,6 +320,22 @@ public class BasicTilesContainerFactory extends AbstractTilesContainerFactory {
         return new BasicAttributeEvaluatorFactory(new DirectAttributeEvaluator());
     }
 
+    /**
+     * Returns the texts of the expressions that are evaluated at most once
+     * per request, through a {@link RequestCachingAttributeEvaluatorFactory}.
+     * By default, it returns an empty set, i.e. nothing is cached. Only the
+     * expressions whose value does not change during a request must be
+     * returned.
+     *
+     * @param applicationContext The Tiles application context.
+     * @return The expressions to cache.
+     * @since 3.0.6
+     */
+    protected Set<String> getRequestCacheableExpressions(
+            ApplicationContext applicationContext) {
+        return Collections.emptySet();
+    }
+
     /**
      * Creates the preparer factory to use. By default it returns a
      * {@link BasicPreparerFactory}.
@@ -250,6 +347,70 @@ public class BasicTilesContainerFactory extends AbstractTilesContainerFactory {
         return new BasicPreparerFactory();
     }
 
+    /**
+     * Creates the executor of the prefetching tasks of
+     * {@link org.apache.tiles.preparer.AsyncViewPreparer asynchronous preparers}.
+     * By default, it returns <code>null</code>, i.e. the tasks are run when
+     * their tile is rendered. The executor is not shut down by the container.
+     *
+     * @param applicationContext The Tiles application context.
+     * @return The executor, or <code>null</code>.
+     * @since 3.0.6
+     */
+    protected ExecutorService createPreparerExecutor(ApplicationContext applicationContext) {
+        return null;
+    }
+
+    /**
+     * Checks if the view preparers referenced by definitions are instantiated
+     * when the container is created, instead of when they are first used. By
+     * default, it returns <code>false</code>.
+     *
+     * @param applicationContext The Tiles application context.
+     * @return <code>true</code> to instantiate preparers in advance.
+     * @since 3.0.6
+     */
+    protected boolean isPreloadPreparers(ApplicationContext applicationContext) {
+        return false;
+    }
+
+    /**
+     * Instantiates the view preparers referenced by the definitions of the
+     * preloaded locales, or of the default locale if no locale is preloaded.
+     * It works with an {@link UnresolvingLocaleDefinitionsFactory} and a
+     * {@link BasicPreparerFactory}, otherwise it does nothing.
+     *
+     * @param applicationContext The Tiles application context.
+     * @param definitionsFactory The definitions factory.
+     * @param preparerFactory The preparer factory.
+     * @since 3.0.6
+     */
+    protected void preloadPreparers(ApplicationContext applicationContext,
+            DefinitionsFactory definitionsFactory, PreparerFactory preparerFactory) {
+        if (!(definitionsFactory instanceof UnresolvingLocaleDefinitionsFactory)
+                || !(preparerFactory instanceof BasicPreparerFactory)) {
+            return;
+        }
+        DefinitionDAO<Locale> definitionDao = ((UnresolvingLocaleDefinitionsFactory) definitionsFactory)
+                .getDefinitionDAO();
+        List<Locale> locales = getPreloadLocales(applicationContext);
+        if (locales == null || locales.isEmpty()) {
+            locales = Collections.singletonList((Locale) null);
+        }
+        Set<String> names = new LinkedHashSet<String>();
+        for (Locale locale : locales) {
+            Map<String, Definition> definitions = definitionDao.getDefinitions(locale);
+            if (definitions != null) {
+                for (Definition definition : definitions.values()) {
+                    if (definition.getPreparer() != null) {
+                        names.add(definition.getPreparer());
+                    }
+                }
+            }
+        }
+        ((BasicPreparerFactory) preparerFactory).preloadPreparers(names);
+    }
+
     /**
      * Creates a renderer factory. By default it returns a
      * {@link BasicRendererFactory}, composed of an
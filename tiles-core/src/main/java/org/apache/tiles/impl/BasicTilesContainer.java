@@ -21,20 +21,31 @@
 package org.apache.tiles.impl;
 
 import java.io.IOException;
+import java.util.ArrayDeque;
 import java.util.Deque;
-import java.util.LinkedList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
 
 import org.apache.tiles.Attribute;
 import org.apache.tiles.AttributeContext;
 import org.apache.tiles.BasicAttributeContext;
 import org.apache.tiles.Definition;
+import org.apache.tiles.ListAttribute;
 import org.apache.tiles.TilesContainer;
 import org.apache.tiles.definition.DefinitionsFactory;
 import org.apache.tiles.definition.NoSuchDefinitionException;
 import org.apache.tiles.evaluator.AttributeEvaluator;
 import org.apache.tiles.evaluator.AttributeEvaluatorFactory;
 import org.apache.tiles.evaluator.AttributeEvaluatorFactoryAware;
+import org.apache.tiles.preparer.AsyncViewPreparer;
+import org.apache.tiles.preparer.PreparerException;
 import org.apache.tiles.preparer.ViewPreparer;
 import org.apache.tiles.preparer.factory.NoSuchPreparerException;
 import org.apache.tiles.preparer.factory.PreparerFactory;
@@ -64,6 +75,13 @@ public class BasicTilesContainer implements TilesContainer,
     private static final String ATTRIBUTE_CONTEXT_STACK =
         "org.apache.tiles.AttributeContext.STACK";
 
+    /**
+     * Name used to store the prefetching tasks of asynchronous preparers, by
+     * preparer name.
+     */
+    private static final String PREPARER_FUTURES =
+        "org.apache.tiles.preparer.AsyncViewPreparer.FUTURES";
+
     /**
      * Log instance for all BasicTilesContainer
      * instances.
@@ -96,6 +114,12 @@ public class BasicTilesContainer implements TilesContainer,
      */
     private AttributeEvaluatorFactory attributeEvaluatorFactory;
 
+    /**
+     * The executor of the prefetching tasks of asynchronous preparers, or
+     * <code>null</code> to run them when the tile is rendered.
+     */
+    private ExecutorService preparerExecutor;
+
     /** {@inheritDoc} */
     public AttributeContext startContext(Request request) {
         AttributeContext context = new BasicAttributeContext();
@@ -140,13 +164,7 @@ public class BasicTilesContainer implements TilesContainer,
 
     /** {@inheritDoc} */
     public AttributeContext getAttributeContext(Request request) {
-        AttributeContext context = getContext(request);
-        if (context == null) {
-            context = new BasicAttributeContext();
-            pushContext(context, request);
-        }
-        return context;
-
+        return getAttributeContext(getContextStack(request));
     }
 
     /**
@@ -187,6 +205,34 @@ public class BasicTilesContainer implements TilesContainer,
         this.preparerFactory = preparerFactory;
     }
 
+    /**
+     * Returns the executor of the prefetching tasks of
+     * {@link AsyncViewPreparer asynchronous preparers}.
+     *
+     * @return The executor, or <code>null</code> if the tasks are run when the
+     * tile is rendered.
+     * @since 3.0.6
+     */
+    public ExecutorService getPreparerExecutor() {
+        return preparerExecutor;
+    }
+
+    /**
+     * Sets the executor of the prefetching tasks of
+     * {@link AsyncViewPreparer asynchronous preparers}. When set, rendering a
+     * definition starts the tasks of its preparer and of the preparers of the
+     * definitions it statically contains, so that they run in parallel. The
+     * tasks whose result has not been used are cancelled when that rendering
+     * ends. The container does not shut the executor down.
+     *
+     * @param preparerExecutor The executor, or <code>null</code> to run the
+     * tasks when the tile is rendered.
+     * @since 3.0.6
+     */
+    public void setPreparerExecutor(ExecutorService preparerExecutor) {
+        this.preparerExecutor = preparerExecutor;
+    }
+
     /**
      * Sets the renderer instance factory.
      *
@@ -228,16 +274,17 @@ public class BasicTilesContainer implements TilesContainer,
      * @since 2.1.3
      */
     public void render(Definition definition, Request request) {
-        AttributeContext originalContext = getAttributeContext(request);
+        Deque<AttributeContext> contextStack = getContextStack(request);
+        AttributeContext originalContext = getAttributeContext(contextStack);
         BasicAttributeContext subContext = new BasicAttributeContext(originalContext);
         subContext.inherit(definition);
 
-        pushContext(subContext, request);
+        contextStack.push(subContext);
 
         try {
             render(request, subContext);
         } finally {
-            popContext(request);
+            contextStack.pop();
         }
     }
 
@@ -301,7 +348,7 @@ public class BasicTilesContainer implements TilesContainer,
         Deque<AttributeContext> contextStack = (Deque<AttributeContext>) requestScope
                 .get(ATTRIBUTE_CONTEXT_STACK);
         if (contextStack == null) {
-            contextStack = new LinkedList<AttributeContext>();
+            contextStack = new ArrayDeque<AttributeContext>();
             requestScope.put(ATTRIBUTE_CONTEXT_STACK, contextStack);
         }
 
@@ -341,11 +388,23 @@ public class BasicTilesContainer implements TilesContainer,
      * @since 2.0.6
      */
     protected AttributeContext getContext(Request tilesContext) {
-        Deque<AttributeContext> contextStack = getContextStack(tilesContext);
-        if (!contextStack.isEmpty()) {
-            return contextStack.peek();
+        return getContextStack(tilesContext).peek();
+    }
+
+    /**
+     * Returns the attribute context on top of a context stack, creating and
+     * pushing a new one if the stack is empty.
+     *
+     * @param contextStack The context stack.
+     * @return The current attribute context.
+     */
+    private AttributeContext getAttributeContext(Deque<AttributeContext> contextStack) {
+        AttributeContext context = contextStack.peek();
+        if (context == null) {
+            context = new BasicAttributeContext();
+            contextStack.push(context);
         }
-        return null;
+        return context;
     }
 
     /**
@@ -374,7 +433,229 @@ public class BasicTilesContainer implements TilesContainer,
 
         AttributeContext attributeContext = getContext(context);
 
-        preparer.execute(context, attributeContext);
+        if (preparer instanceof AsyncViewPreparer) {
+            AsyncViewPreparer asyncPreparer = (AsyncViewPreparer) preparer;
+            asyncPreparer.execute(context, attributeContext, getPrefetched(
+                    context, preparerName, asyncPreparer));
+        } else {
+            preparer.execute(context, attributeContext);
+        }
+    }
+
+    /**
+     * Returns the result of the prefetching task of an asynchronous preparer,
+     * waiting for it if it has been started, or running it if not.
+     *
+     * @param request The request context.
+     * @param preparerName The name of the preparer.
+     * @param preparer The preparer.
+     * @return The result of the task, or <code>null</code> if there is no
+     * task.
+     * @throws PreparerException If the task threw an exception.
+     */
+    @SuppressWarnings("unchecked")
+    private Object getPrefetched(Request request, String preparerName,
+            AsyncViewPreparer preparer) {
+        Map<String, Future<?>> futures = (Map<String, Future<?>>) request
+                .getContext("request").get(PREPARER_FUTURES);
+        Future<?> future = futures != null ? futures.get(preparerName) : null;
+        try {
+            if (future != null) {
+                return future.get();
+            }
+            Callable<?> task = preparer.prefetch(request);
+            return task != null ? task.call() : null;
+        } catch (ExecutionException e) {
+            throw wrapPrefetchException(preparerName, e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new PreparerException("Interrupted while waiting for preparer '"
+                    + preparerName + "'", e);
+        } catch (Exception e) {
+            throw wrapPrefetchException(preparerName, e);
+        }
+    }
+
+    /**
+     * Wraps an exception thrown by a prefetching task.
+     *
+     * @param preparerName The name of the preparer.
+     * @param e The exception.
+     * @return The exception to throw.
+     */
+    private RuntimeException wrapPrefetchException(String preparerName, Throwable e) {
+        if (e instanceof RuntimeException) {
+            return (RuntimeException) e;
+        }
+        return new PreparerException("Exception while prefetching for preparer '"
+                + preparerName + "'", e);
+    }
+
+    /**
+     * Returns the futures of the prefetching tasks started during the request.
+     *
+     * @param request The request context.
+     * @return The futures, by preparer name.
+     */
+    @SuppressWarnings("unchecked")
+    private Map<String, Future<?>> getPreparerFutures(Request request) {
+        Map<String, Object> requestScope = request.getContext("request");
+        Map<String, Future<?>> futures = (Map<String, Future<?>>) requestScope
+                .get(PREPARER_FUTURES);
+        if (futures == null) {
+            futures = new HashMap<String, Future<?>>();
+            requestScope.put(PREPARER_FUTURES, futures);
+        }
+        return futures;
+    }
+
+    /**
+     * Starts the prefetching tasks of the asynchronous preparers of an
+     * attribute context and of the definitions it statically contains, i.e.
+     * whose names are the values of attributes of type "definition". It does
+     * nothing if the tasks have already been started by an enclosing render.
+     * If starting a task fails, the tasks started so far are cancelled.
+     *
+     * @param request The request context.
+     * @param attributeContext The attribute context to render.
+     * @return <code>true</code> if the tasks have been started by this call,
+     * in which case {@link #cancelAsyncPreparers(Request)} must be called when
+     * the rendering ends.
+     * @since 3.0.6
+     */
+    protected boolean startAsyncPreparers(Request request,
+            AttributeContext attributeContext) {
+        Map<String, Object> requestScope = request.getContext("request");
+        if (requestScope.containsKey(PREPARER_FUTURES)) {
+            return false;
+        }
+        try {
+            startAsyncPreparers(request, attributeContext,
+                    getPreparerFutures(request), new HashSet<String>());
+        } catch (RuntimeException e) {
+            cancelAsyncPreparers(request);
+            throw e;
+        }
+        return true;
+    }
+
+    /**
+     * Cancels the prefetching tasks that have not been consumed, for instance
+     * because their tile has not been rendered or rendering failed, and
+     * forgets all the tasks of the request.
+     *
+     * @param request The request context.
+     * @since 3.0.6
+     */
+    @SuppressWarnings("unchecked")
+    protected void cancelAsyncPreparers(Request request) {
+        Map<String, Future<?>> futures = (Map<String, Future<?>>) request
+                .getContext("request").remove(PREPARER_FUTURES);
+        if (futures != null) {
+            for (Map.Entry<String, Future<?>> entry : futures.entrySet()) {
+                if (entry.getValue().cancel(true)) {
+                    log.debug("Cancelled prefetch of preparer '{}'", entry.getKey());
+                }
+            }
+        }
+    }
+
+    /**
+     * Starts the prefetching tasks of an attribute context and of the
+     * definitions it contains.
+     *
+     * @param request The request context.
+     * @param attributeContext The attribute context.
+     * @param futures The futures of the started tasks, by preparer name.
+     * @param visitedDefinitions The names of the definitions already visited.
+     */
+    private void startAsyncPreparers(Request request,
+            AttributeContext attributeContext, Map<String, Future<?>> futures,
+            Set<String> visitedDefinitions) {
+        startAsyncPreparer(request, attributeContext.getPreparer(), futures);
+        startAsyncPreparers(request, attributeContext.getTemplateAttribute(),
+                futures, visitedDefinitions);
+        Set<String> names = attributeContext.getLocalAttributeNames();
+        if (names != null) {
+            for (String name : names) {
+                startAsyncPreparers(request, attributeContext
+                        .getLocalAttribute(name), futures, visitedDefinitions);
+            }
+        }
+        names = attributeContext.getCascadedAttributeNames();
+        if (names != null) {
+            for (String name : names) {
+                startAsyncPreparers(request, attributeContext
+                        .getCascadedAttribute(name), futures, visitedDefinitions);
+            }
+        }
+    }
+
+    /**
+     * Starts the prefetching tasks of the definitions whose names are the
+     * value of an attribute of type "definition", or of the elements of a
+     * list attribute. Attributes without an explicit type are not looked up,
+     * so that rendering does not pay for resolving each of their values as a
+     * definition name.
+     *
+     * @param request The request context.
+     * @param attribute The attribute.
+     * @param futures The futures of the started tasks, by preparer name.
+     * @param visitedDefinitions The names of the definitions already visited.
+     */
+    private void startAsyncPreparers(Request request, Attribute attribute,
+            Map<String, Future<?>> futures, Set<String> visitedDefinitions) {
+        if (attribute instanceof ListAttribute) {
+            List<Attribute> items = ((ListAttribute) attribute).getValue();
+            if (items != null) {
+                for (Attribute item : items) {
+                    startAsyncPreparers(request, item, futures, visitedDefinitions);
+                }
+            }
+            return;
+        }
+        if (attribute == null || !(attribute.getValue() instanceof String)) {
+            return;
+        }
+        if (!"definition".equals(attribute.getRenderer())) {
+            return;
+        }
+        String definitionName = (String) attribute.getValue();
+        if (!visitedDefinitions.add(definitionName)) {
+            return;
+        }
+        Definition definition;
+        try {
+            definition = getDefinition(definitionName, request);
+        } catch (NoSuchDefinitionException e) {
+            definition = null;
+        }
+        if (definition != null) {
+            startAsyncPreparers(request, definition, futures, visitedDefinitions);
+        }
+    }
+
+    /**
+     * Starts the prefetching task of a preparer, if it is asynchronous and it
+     * has not been started yet.
+     *
+     * @param request The request context.
+     * @param preparerName The name of the preparer, may be <code>null</code>.
+     * @param futures The futures of the started tasks, by preparer name.
+     */
+    private void startAsyncPreparer(Request request, String preparerName,
+            Map<String, Future<?>> futures) {
+        if (preparerName == null || futures.containsKey(preparerName)) {
+            return;
+        }
+        ViewPreparer preparer = preparerFactory.getPreparer(preparerName, request);
+        if (preparer instanceof AsyncViewPreparer) {
+            Callable<?> task = ((AsyncViewPreparer) preparer).prefetch(request);
+            if (task != null) {
+                log.debug("Starting prefetch of preparer '{}'", preparerName);
+                futures.put(preparerName, preparerExecutor.submit(task));
+            }
+        }
     }
 
     /**
@@ -389,6 +670,8 @@ public class BasicTilesContainer implements TilesContainer,
     protected void render(Request request,
             AttributeContext attributeContext) {
 
+        boolean asyncPreparersStarted = preparerExecutor != null
+                && startAsyncPreparers(request, attributeContext);
         try {
             if (attributeContext.getPreparer() != null) {
                 prepare(request, attributeContext.getPreparer(), true);
@@ -397,6 +680,10 @@ public class BasicTilesContainer implements TilesContainer,
             render(attributeContext.getTemplateAttribute(), request);
         } catch (IOException e) {
             throw new CannotRenderException(e.getMessage(), e);
+        } finally {
+            if (asyncPreparersStarted) {
+                cancelAsyncPreparers(request);
+            }
         }
     }
 }
@@ -20,8 +20,11 @@
  */
 package org.apache.tiles.preparer.factory;
 
-import java.util.HashMap;
-import java.util.Map;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 import org.apache.tiles.preparer.ViewPreparer;
 import org.apache.tiles.request.Request;
@@ -32,7 +35,11 @@ import org.slf4j.LoggerFactory;
 /**
  * Default implementation of the {@link PreparerFactory}.
  * This factory provides no contextual configuration.  It
- * simply instantiates the named preparerInstance and returns it.
+ * simply instantiates the named preparerInstance and returns it.<br>
+ * Each preparer is instantiated once, even when it is first requested by
+ * concurrent requests, and names that cannot be instantiated are remembered,
+ * so that they are not tried again. Preparers can be instantiated in advance
+ * through {@link #preloadPreparers(Collection)}.
  *
  * @since Tiles 2.0
  * @version $Rev$ $Date$
@@ -48,13 +55,19 @@ public class BasicPreparerFactory implements PreparerFactory {
     /**
      * Maps a preparer name to the instantiated preparer.
      */
-    protected Map<String, ViewPreparer> preparers;
+    protected ConcurrentMap<String, ViewPreparer> preparers;
+
+    /**
+     * The names of the preparers that could not be created.
+     */
+    private final Set<String> missingPreparers = Collections
+            .newSetFromMap(new ConcurrentHashMap<String, Boolean>());
 
     /**
      * Constructor.
      */
     public BasicPreparerFactory() {
-        this.preparers = new HashMap<String, ViewPreparer>();
+        this.preparers = new ConcurrentHashMap<String, ViewPreparer>();
     }
 
 
@@ -68,11 +81,37 @@ public class BasicPreparerFactory implements PreparerFactory {
      */
     public ViewPreparer getPreparer(String name, Request context) {
 
-        if (!preparers.containsKey(name)) {
-            preparers.put(name, createPreparer(name));
+        ViewPreparer preparer = preparers.get(name);
+        if (preparer == null && !missingPreparers.contains(name)) {
+            synchronized (preparers) {
+                preparer = preparers.get(name);
+                if (preparer == null && !missingPreparers.contains(name)) {
+                    preparer = createPreparer(name);
+                    if (preparer != null) {
+                        preparers.put(name, preparer);
+                    } else {
+                        missingPreparers.add(name);
+                    }
+                }
+            }
         }
 
-        return preparers.get(name);
+        return preparer;
+    }
+
+    /**
+     * Instantiates the named preparers in advance, so that they are not
+     * created while serving a request.
+     *
+     * @param names The names of the preparers.
+     * @since 3.0.6
+     */
+    public void preloadPreparers(Collection<String> names) {
+        for (String name : names) {
+            if (getPreparer(name, null) == null) {
+                log.warn("Cannot create ViewPreparer '" + name + "'");
+            }
+        }
     }
 
     /**
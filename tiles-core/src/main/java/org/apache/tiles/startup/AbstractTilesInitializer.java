@@ -23,6 +23,7 @@ package org.apache.tiles.startup;
 
 import org.apache.tiles.TilesContainer;
 import org.apache.tiles.access.TilesAccess;
+import org.apache.tiles.definition.dao.BackgroundRefreshMonitor;
 import org.apache.tiles.factory.AbstractTilesContainerFactory;
 import org.apache.tiles.request.ApplicationAccess;
 import org.apache.tiles.request.ApplicationContext;
@@ -67,6 +68,7 @@ public abstract class AbstractTilesInitializer implements TilesInitializer {
 
     /** {@inheritDoc} */
     public void destroy() {
+        BackgroundRefreshMonitor.stopAll(applicationContext);
         TilesAccess.setContainer(applicationContext, null,
                 getContainerKey(applicationContext));
     }
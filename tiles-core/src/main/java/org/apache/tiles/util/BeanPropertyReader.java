@@ -0,0 +1,113 @@
+/*
+ * $Id$
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.tiles.util;
+
+import java.beans.PropertyDescriptor;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+
+import org.apache.tiles.request.reflect.CannotAccessMethodException;
+
+/**
+ * Reads a bean property through its getter, resolved once when the reader is
+ * created, so that reading does not need to go through the property
+ * descriptor every time.
+ *
+ * @version $Rev$ $Date$
+ * @since 3.0.6
+ */
+public final class BeanPropertyReader {
+
+    /**
+     * The name of the property.
+     */
+    private final String name;
+
+    /**
+     * The type of the property.
+     */
+    private final Class<?> type;
+
+    /**
+     * The getter method.
+     */
+    private final Method readMethod;
+
+    /**
+     * Constructor.
+     *
+     * @param descriptor The descriptor of a readable property.
+     * @since 3.0.6
+     */
+    public BeanPropertyReader(PropertyDescriptor descriptor) {
+        name = descriptor.getName();
+        type = descriptor.getPropertyType();
+        readMethod = descriptor.getReadMethod();
+        if (readMethod == null) {
+            throw new IllegalArgumentException("The property '" + name
+                    + "' cannot be read");
+        }
+    }
+
+    /**
+     * Returns the name of the property.
+     *
+     * @return The name of the property.
+     * @since 3.0.6
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Returns the type of the property.
+     *
+     * @return The type of the property.
+     * @since 3.0.6
+     */
+    public Class<?> getType() {
+        return type;
+    }
+
+    /**
+     * Reads the value of the property.
+     *
+     * @param bean The bean to read the property from.
+     * @return The value of the property.
+     * @since 3.0.6
+     */
+    public Object getValue(Object bean) {
+        try {
+            return readMethod.invoke(bean);
+        } catch (IllegalArgumentException e) {
+            throw new CannotAccessMethodException(
+                    "Arguments are wrong for property '" + name + "'", e);
+        } catch (IllegalAccessException e) {
+            throw new CannotAccessMethodException(
+                    "Cannot access getter method for property '" + name + "'", e);
+        } catch (InvocationTargetException e) {
+            throw new CannotAccessMethodException(
+                    "The getter method for property '" + name
+                            + "' threw an exception", e);
+        }
+    }
+}
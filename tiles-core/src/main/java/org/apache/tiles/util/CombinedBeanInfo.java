@@ -24,6 +24,7 @@ package org.apache.tiles.util;
 import java.beans.FeatureDescriptor;
 import java.beans.PropertyDescriptor;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
@@ -48,6 +49,11 @@ public class CombinedBeanInfo {
      */
     private Map<Class<?>, Map<String, PropertyDescriptor>> class2descriptors;
 
+    /**
+     * Maps analyzed classes to the readers of their readable properties.
+     */
+    private Map<Class<?>, Map<String, BeanPropertyReader>> class2readers;
+
     /**
      * Constructor.
      * @param clazzes The list of classes to analyze and combine.
@@ -57,12 +63,20 @@ public class CombinedBeanInfo {
     public CombinedBeanInfo(Class<?>... clazzes) {
         descriptors = new ArrayList<FeatureDescriptor>();
         class2descriptors = new LinkedHashMap<Class<?>, Map<String, PropertyDescriptor>>();
+        class2readers = new HashMap<Class<?>, Map<String, BeanPropertyReader>>();
         for (int i = 0; i < clazzes.length; i++) {
             Class<?> clazz = clazzes[i];
             Map<String, PropertyDescriptor> mappedDescriptors = new LinkedHashMap<String, PropertyDescriptor>();
             ClassUtil.collectBeanInfo(clazz, mappedDescriptors);
             descriptors.addAll(mappedDescriptors.values());
             class2descriptors.put(clazz, mappedDescriptors);
+            Map<String, BeanPropertyReader> readers = new HashMap<String, BeanPropertyReader>();
+            for (PropertyDescriptor descriptor : mappedDescriptors.values()) {
+                if (descriptor.getReadMethod() != null) {
+                    readers.put(descriptor.getName(), new BeanPropertyReader(descriptor));
+                }
+            }
+            class2readers.put(clazz, readers);
         }
     }
 
@@ -87,6 +101,19 @@ public class CombinedBeanInfo {
         return class2descriptors.get(clazz);
     }
 
+    /**
+     * Returns the reader of a property of the given class.
+     *
+     * @param clazz The class to get the property from.
+     * @param property The name of the property.
+     * @return The property reader, or <code>null</code> if the class has no
+     * readable property with that name.
+     * @since 3.0.6
+     */
+    public BeanPropertyReader getPropertyReader(Class<?> clazz, String property) {
+        return class2readers.get(clazz).get(property);
+    }
+
     /**
      * Returns the set of properties for the given introspected class.
      *
@@ -105,4 +105,47 @@ public class LocaleDefinitionsFactoryTest {
             verify(dao, localeResolver, request);
         }
     }
+
+    /**
+     * Test method for {@link LocaleDefinitionsFactory#getDefinition(String, Request)},
+     * when resolved definitions are cached.
+     */
+    @SuppressWarnings("unchecked")
+    @Test
+    public void testGetDefinitionCacheResolvedDefinitions() {
+        DefinitionDAO<Locale> dao = createMock(DefinitionDAO.class);
+        LocaleResolver localeResolver = createMock(LocaleResolver.class);
+        Request request = createMock(Request.class);
+        Attribute templateAttribute = Attribute.createTemplateAttribute("/mytemplate.jsp");
+        Definition definition = new Definition("myDefinition", null, null);
+        definition.setExtends("anotherDefinition");
+        Map<String, Attribute> attributes = new HashMap<String, Attribute>();
+        attributes.put("first", new Attribute("myValue"));
+        Definition anotherDefinition = new Definition("anotherDefinition", templateAttribute, attributes);
+        Map<String, Definition> definitions = new HashMap<String, Definition>();
+        Map<String, Definition> reloadedDefinitions = new HashMap<String, Definition>();
+        Locale locale = Locale.ITALY;
+
+        expect(localeResolver.resolveLocale(request)).andReturn(locale).times(3);
+        expect(dao.getDefinitions(locale)).andReturn(definitions).times(2);
+        expect(dao.getDefinitions(locale)).andReturn(reloadedDefinitions);
+        expect(dao.getDefinition("myDefinition", locale)).andReturn(definition).times(2);
+        expect(dao.getDefinition("anotherDefinition", locale)).andReturn(anotherDefinition).times(2);
+
+        LocaleDefinitionsFactory factory = new LocaleDefinitionsFactory();
+
+        replay(dao, localeResolver, request);
+        factory.setDefinitionDAO(dao);
+        factory.setLocaleResolver(localeResolver);
+        factory.setCacheResolvedDefinitions(true);
+        Definition realDefinition = new Definition(definition);
+        realDefinition.inherit(anotherDefinition);
+        Definition resolvedDefinition = factory.getDefinition("myDefinition", request);
+        assertEquals(realDefinition, resolvedDefinition);
+        assertSame(resolvedDefinition, factory.getDefinition("myDefinition", request));
+        Definition reloadedDefinition = factory.getDefinition("myDefinition", request);
+        assertEquals(realDefinition, reloadedDefinition);
+        assertNotSame(resolvedDefinition, reloadedDefinition);
+        verify(dao, localeResolver, request);
+    }
 }
@@ -25,7 +25,9 @@ import static org.easymock.EasyMock.*;
 import static org.easymock.classextension.EasyMock.*;
 import static org.junit.Assert.*;
 
+import java.util.HashMap;
 import java.util.Locale;
+import java.util.Map;
 
 import org.apache.tiles.Definition;
 import org.apache.tiles.definition.dao.DefinitionDAO;
@@ -63,4 +65,60 @@ public class UnresolvingLocaleDefinitionsFactoryTest {
         verify(dao, localeResolver, request, definition);
     }
 
+    /**
+     * Tests that {@link UnresolvingLocaleDefinitionsFactory#getDefinition(String, Request)}
+     * resolves the locale and looks up each definition once per request.
+     */
+    @SuppressWarnings("unchecked")
+    @Test
+    public void testGetDefinitionRequestCache() {
+        DefinitionDAO<Locale> dao = createMock(DefinitionDAO.class);
+        LocaleResolver localeResolver = createMock(LocaleResolver.class);
+        UnresolvingLocaleDefinitionsFactory factory = new UnresolvingLocaleDefinitionsFactory();
+        Request request = createMock(Request.class);
+        Definition definition = new Definition("myDefinition", null, null);
+        Map<String, Object> requestScope = new HashMap<String, Object>();
+        Locale locale = Locale.ITALY;
+
+        expect(request.getContext("request")).andReturn(requestScope).times(4);
+        expect(localeResolver.resolveLocale(request)).andReturn(locale);
+        expect(dao.getDefinition("myDefinition", locale)).andReturn(definition);
+        expect(dao.getDefinition("missing", locale)).andReturn(null);
+
+        replay(dao, localeResolver, request);
+        factory.setDefinitionDAO(dao);
+        factory.setLocaleResolver(localeResolver);
+        factory.setRequestCacheSize(64);
+        assertSame(definition, factory.getDefinition("myDefinition", request));
+        assertNull(factory.getDefinition("missing", request));
+        assertSame(definition, factory.getDefinition("myDefinition", request));
+        assertNull(factory.getDefinition("missing", request));
+        verify(dao, localeResolver, request);
+    }
+
+    /**
+     * Tests that {@link UnresolvingLocaleDefinitionsFactory#getDefinition(String, Request)}
+     * does not remember anything by default.
+     */
+    @SuppressWarnings("unchecked")
+    @Test
+    public void testGetDefinitionNoRequestCache() {
+        DefinitionDAO<Locale> dao = createMock(DefinitionDAO.class);
+        LocaleResolver localeResolver = createMock(LocaleResolver.class);
+        UnresolvingLocaleDefinitionsFactory factory = new UnresolvingLocaleDefinitionsFactory();
+        Request request = createMock(Request.class);
+        Definition definition = new Definition("myDefinition", null, null);
+        Locale locale = Locale.ITALY;
+
+        expect(localeResolver.resolveLocale(request)).andReturn(locale).times(2);
+        expect(dao.getDefinition("myDefinition", locale)).andReturn(definition).times(2);
+
+        replay(dao, localeResolver, request);
+        factory.setDefinitionDAO(dao);
+        factory.setLocaleResolver(localeResolver);
+        assertSame(definition, factory.getDefinition("myDefinition", request));
+        assertSame(definition, factory.getDefinition("myDefinition", request));
+        verify(dao, localeResolver, request);
+    }
+
 }
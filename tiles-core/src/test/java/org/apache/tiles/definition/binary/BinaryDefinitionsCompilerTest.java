@@ -0,0 +1,80 @@
+/*
+ * $Id$
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.tiles.definition.binary;
+
+import static org.junit.Assert.*;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.apache.tiles.Attribute;
+import org.apache.tiles.Definition;
+import org.apache.tiles.definition.DefinitionsReader;
+import org.junit.Test;
+
+/**
+ * Tests {@link BinaryDefinitionsCompiler}.
+ *
+ * @version $Rev$ $Date$
+ */
+public class BinaryDefinitionsCompilerTest {
+
+    /**
+     * Test method for {@link BinaryDefinitionsCompiler#compile(File, File)}.
+     *
+     * @throws IOException If something goes wrong.
+     */
+    @Test
+    public void testCompile() throws IOException {
+        DefinitionsReader sourceReader = new DefinitionsReader() {
+
+            public Map<String, Definition> read(Object source) {
+                assertTrue(source instanceof InputStream);
+                Map<String, Definition> definitions = new LinkedHashMap<String, Definition>();
+                Definition definition = new Definition();
+                definition.setName("compiled");
+                definition.setTemplateAttribute(Attribute
+                        .createTemplateAttribute("/compiled.jsp"));
+                definitions.put("compiled", definition);
+                return definitions;
+            }
+        };
+
+        File source = File.createTempFile("tiles", ".xml");
+        File target = File.createTempFile("tiles", ".tdef");
+        try {
+            assertEquals(1, new BinaryDefinitionsCompiler(sourceReader)
+                    .compile(source, target));
+            Map<String, Definition> definitions = new BinaryDefinitionsReader()
+                    .read(target);
+            assertEquals(1, definitions.size());
+            assertEquals("/compiled.jsp", definitions.get("compiled")
+                    .getTemplateAttribute().getValue());
+        } finally {
+            source.delete();
+            target.delete();
+        }
+    }
+}
@@ -0,0 +1,234 @@
+/*
+ * $Id$
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.tiles.definition.binary;
+
+import static org.junit.Assert.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.apache.tiles.Attribute;
+import org.apache.tiles.Definition;
+import org.apache.tiles.Expression;
+import org.apache.tiles.ListAttribute;
+import org.apache.tiles.definition.DefinitionsFactoryException;
+import org.junit.Test;
+
+/**
+ * Tests {@link BinaryDefinitionsReader} and {@link BinaryDefinitionsWriter}.
+ *
+ * @version $Rev$ $Date$
+ */
+public class BinaryDefinitionsReaderTest {
+
+    /**
+     * The reader to test.
+     */
+    private BinaryDefinitionsReader reader = new BinaryDefinitionsReader();
+
+    /**
+     * Test method for {@link BinaryDefinitionsReader#read(Object)}, reading
+     * what {@link BinaryDefinitionsWriter} wrote.
+     *
+     * @throws IOException If something goes wrong.
+     */
+    @Test
+    public void testReadWritten() throws IOException {
+        byte[] bytes = write(createDefinitions());
+
+        assertDefinitions(reader.read(new ByteArrayInputStream(bytes)));
+        assertDefinitions(reader.read(ByteBuffer.wrap(bytes)));
+
+        File file = File.createTempFile("tiles", ".tdef");
+        try {
+            FileOutputStream out = new FileOutputStream(file);
+            try {
+                out.write(bytes);
+            } finally {
+                out.close();
+            }
+            assertDefinitions(reader.read(file));
+        } finally {
+            file.delete();
+        }
+    }
+
+    /**
+     * Test method for {@link BinaryDefinitionsReader#read(Object)}, with a
+     * <code>null</code> source.
+     */
+    @Test
+    public void testReadNull() {
+        assertNull(reader.read(null));
+    }
+
+    /**
+     * Test method for {@link BinaryDefinitionsReader#read(Object)}, with a
+     * source that is not binary definitions.
+     */
+    @Test(expected = DefinitionsFactoryException.class)
+    public void testReadInvalid() {
+        reader.read(new ByteArrayInputStream("<tiles-definitions/>".getBytes()));
+    }
+
+    /**
+     * Test method for {@link BinaryDefinitionsReader#read(Object)}, with a
+     * truncated source.
+     *
+     * @throws IOException If something goes wrong.
+     */
+    @Test(expected = DefinitionsFactoryException.class)
+    public void testReadTruncated() throws IOException {
+        byte[] bytes = write(createDefinitions());
+        reader.read(ByteBuffer.wrap(Arrays.copyOf(bytes, bytes.length - 3)));
+    }
+
+    /**
+     * Test method for {@link BinaryDefinitionsReader#read(Object)}, with a
+     * negative string length.
+     *
+     * @throws IOException If something goes wrong.
+     */
+    @Test(expected = DefinitionsFactoryException.class)
+    public void testReadCorrupted() throws IOException {
+        byte[] bytes = write(createDefinitions());
+        ByteBuffer buffer = ByteBuffer.wrap(bytes);
+        // Skips the magic number, the version and the size of the string table.
+        buffer.putInt(10, -1);
+        reader.read(buffer);
+    }
+
+    /**
+     * Test method for {@link BinaryDefinitionsWriter#write(Map, java.io.OutputStream)},
+     * with an attribute whose value is not a string.
+     *
+     * @throws IOException If something goes wrong.
+     */
+    @Test(expected = DefinitionsFactoryException.class)
+    public void testWriteNotString() throws IOException {
+        Map<String, Definition> definitions = new LinkedHashMap<String, Definition>();
+        Definition definition = new Definition();
+        definition.setName("def");
+        definition.putAttribute("number", new Attribute(1));
+        definitions.put("def", definition);
+        write(definitions);
+    }
+
+    /**
+     * Writes definitions in binary format.
+     *
+     * @param definitions The definitions to write.
+     * @return The written bytes.
+     * @throws IOException If something goes wrong.
+     */
+    private byte[] write(Map<String, Definition> definitions) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        new BinaryDefinitionsWriter().write(definitions, out);
+        return out.toByteArray();
+    }
+
+    /**
+     * Creates the definitions to write.
+     *
+     * @return The definitions.
+     */
+    private Map<String, Definition> createDefinitions() {
+        Map<String, Definition> definitions = new LinkedHashMap<String, Definition>();
+
+        Definition layout = new Definition();
+        layout.setName("layout");
+        layout.setTemplateAttribute(Attribute.createTemplateAttribute("/layout.jsp"));
+        layout.setPreparer("layout.preparer");
+        layout.putAttribute("title", new Attribute("T\u00edtulo"));
+        Attribute secret = new Attribute("/secret.jsp", "admin, manager");
+        secret.setRenderer("template");
+        layout.putAttribute("secret", secret);
+        layout.putAttribute("menu", new Attribute("menu.main"), true);
+        definitions.put("layout", layout);
+
+        Definition page = new Definition();
+        page.setName("page");
+        page.setExtends("layout");
+        Attribute expression = new Attribute();
+        expression.setExpressionObject(new Expression("${title}", "EL"));
+        page.putAttribute("heading", expression);
+        ListAttribute items = new ListAttribute();
+        items.setInherit(true);
+        items.add(new Attribute("/item1.jsp"));
+        ListAttribute nested = new ListAttribute();
+        nested.add(new Attribute("/item2.jsp"));
+        items.add(nested);
+        page.putAttribute("items", items);
+        definitions.put("page", page);
+
+        return definitions;
+    }
+
+    /**
+     * Checks the definitions read back.
+     *
+     * @param definitions The read definitions.
+     */
+    private void assertDefinitions(Map<String, Definition> definitions) {
+        assertEquals(Arrays.asList("layout", "page"),
+                Arrays.asList(definitions.keySet().toArray()));
+
+        Definition layout = definitions.get("layout");
+        assertEquals("layout", layout.getName());
+        assertNull(layout.getExtends());
+        assertEquals("layout.preparer", layout.getPreparer());
+        assertEquals("/layout.jsp", layout.getTemplateAttribute().getValue());
+        assertEquals("template", layout.getTemplateAttribute().getRenderer());
+        assertEquals("T\u00edtulo", layout.getLocalAttribute("title").getValue());
+        Attribute secret = layout.getLocalAttribute("secret");
+        assertEquals("/secret.jsp", secret.getValue());
+        assertEquals("template", secret.getRenderer());
+        assertEquals(new HashSet<String>(Arrays.asList("admin", "manager")),
+                secret.getRoles());
+        assertEquals("menu.main", layout.getCascadedAttribute("menu").getValue());
+        assertNull(layout.getLocalAttribute("menu"));
+
+        Definition page = definitions.get("page");
+        assertEquals("layout", page.getExtends());
+        assertNull(page.getTemplateAttribute());
+        assertNull(page.getCascadedAttributeNames());
+        Attribute heading = page.getLocalAttribute("heading");
+        assertNull(heading.getValue());
+        assertEquals("${title}", heading.getExpressionObject().getExpression());
+        assertEquals("EL", heading.getExpressionObject().getLanguage());
+        ListAttribute items = (ListAttribute) page.getLocalAttribute("items");
+        assertTrue(items.isInherit());
+        assertEquals(2, items.getValue().size());
+        assertEquals("/item1.jsp", items.getValue().get(0).getValue());
+        ListAttribute nested = (ListAttribute) items.getValue().get(1);
+        assertFalse(nested.isInherit());
+        assertEquals("/item2.jsp", nested.getValue().get(0).getValue());
+    }
+}
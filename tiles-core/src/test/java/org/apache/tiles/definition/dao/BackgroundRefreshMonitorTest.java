@@ -0,0 +1,138 @@
+/*
+ * $Id$
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.tiles.definition.dao;
+
+import static org.easymock.classextension.EasyMock.*;
+import static org.junit.Assert.*;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.tiles.request.ApplicationContext;
+import org.junit.Test;
+
+/**
+ * Tests {@link BackgroundRefreshMonitor}.
+ *
+ * @version $Rev$ $Date$
+ */
+public class BackgroundRefreshMonitorTest {
+
+    /**
+     * The maximum time (in milliseconds) to wait for the monitor to reload.
+     */
+    private static final long TIMEOUT_MILLIS = 5000L;
+
+    /**
+     * Tests {@link BackgroundRefreshMonitor#checkAndReload()}.
+     */
+    @Test
+    public void testCheckAndReload() {
+        CachingLocaleUrlDefinitionDAO dao = createMock(CachingLocaleUrlDefinitionDAO.class);
+        expect(dao.refreshRequired()).andReturn(false);
+        expect(dao.refreshRequired()).andReturn(true);
+        dao.reloadDefinitions();
+
+        replay(dao);
+        BackgroundRefreshMonitor monitor = new BackgroundRefreshMonitor(dao);
+        monitor.checkAndReload();
+        assertEquals(0L, monitor.getGeneration());
+        monitor.checkAndReload();
+        assertEquals(1L, monitor.getGeneration());
+        verify(dao);
+    }
+
+    /**
+     * Tests {@link BackgroundRefreshMonitor#checkAndReload()} when reloading
+     * fails.
+     */
+    @Test
+    public void testCheckAndReloadException() {
+        CachingLocaleUrlDefinitionDAO dao = createMock(CachingLocaleUrlDefinitionDAO.class);
+        expect(dao.refreshRequired()).andReturn(true);
+        dao.reloadDefinitions();
+        expectLastCall().andThrow(new IllegalStateException("Broken file"));
+
+        replay(dao);
+        BackgroundRefreshMonitor monitor = new BackgroundRefreshMonitor(dao);
+        monitor.checkAndReload();
+        assertEquals(0L, monitor.getGeneration());
+        verify(dao);
+    }
+
+    /**
+     * Tests {@link BackgroundRefreshMonitor#start()} and
+     * {@link BackgroundRefreshMonitor#stop()}.
+     *
+     * @throws InterruptedException If the test is interrupted.
+     */
+    @Test
+    public void testStartStop() throws InterruptedException {
+        CachingLocaleUrlDefinitionDAO dao = createMock(CachingLocaleUrlDefinitionDAO.class);
+        expect(dao.refreshRequired()).andReturn(true);
+        dao.reloadDefinitions();
+        expect(dao.refreshRequired()).andReturn(false).anyTimes();
+
+        replay(dao);
+        BackgroundRefreshMonitor monitor = new BackgroundRefreshMonitor(dao, 10L);
+        monitor.start();
+        assertTrue(monitor.isStarted());
+        long deadline = System.currentTimeMillis() + TIMEOUT_MILLIS;
+        while (monitor.getGeneration() == 0L && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10L);
+        }
+        monitor.stop();
+        assertFalse(monitor.isStarted());
+        assertEquals(1L, monitor.getGeneration());
+        verify(dao);
+    }
+
+    /**
+     * Tests {@link BackgroundRefreshMonitor#register(ApplicationContext, BackgroundRefreshMonitor)}
+     * and {@link BackgroundRefreshMonitor#stopAll(ApplicationContext)}.
+     */
+    @SuppressWarnings("unchecked")
+    @Test
+    public void testRegisterStopAll() {
+        CachingLocaleUrlDefinitionDAO dao = createMock(CachingLocaleUrlDefinitionDAO.class);
+        ApplicationContext applicationContext = createMock(ApplicationContext.class);
+        Map<String, Object> applicationScope = new HashMap<String, Object>();
+        expect(applicationContext.getApplicationScope()).andReturn(applicationScope).anyTimes();
+
+        replay(dao, applicationContext);
+        BackgroundRefreshMonitor monitor1 = new BackgroundRefreshMonitor(dao, TIMEOUT_MILLIS);
+        BackgroundRefreshMonitor monitor2 = new BackgroundRefreshMonitor(dao, TIMEOUT_MILLIS);
+        BackgroundRefreshMonitor.register(applicationContext, monitor1);
+        BackgroundRefreshMonitor.register(applicationContext, monitor2);
+        monitor1.start();
+        monitor2.start();
+        assertEquals(2, ((List<BackgroundRefreshMonitor>) applicationScope
+                .get(BackgroundRefreshMonitor.MONITORS_ATTRIBUTE_NAME)).size());
+        BackgroundRefreshMonitor.stopAll(applicationContext);
+        assertFalse(monitor1.isStarted());
+        assertFalse(monitor2.isStarted());
+        assertFalse(applicationScope.containsKey(BackgroundRefreshMonitor.MONITORS_ATTRIBUTE_NAME));
+        BackgroundRefreshMonitor.stopAll(applicationContext);
+        verify(dao, applicationContext);
+    }
+}
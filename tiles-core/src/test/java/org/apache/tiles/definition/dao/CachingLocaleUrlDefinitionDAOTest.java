@@ -258,6 +258,160 @@ public class CachingLocaleUrlDefinitionDAOTest extends TestCase {
                 "test.def.overridden").getAttribute("title"));
     }
 
+    /**
+     * Tests {@link CachingLocaleUrlDefinitionDAO#getDefinition(String, Locale)}
+     * when loading concurrently from more threads.
+     *
+     * @throws InterruptedException If the test is interrupted.
+     */
+    public void testGetDefinitionConcurrent() throws InterruptedException {
+        List<ApplicationResource> sourceURLs = new ArrayList<ApplicationResource>();
+        sourceURLs.add(url1);
+        sourceURLs.add(url2);
+        sourceURLs.add(url3);
+        sourceURLs.add(urlWildcard);
+        definitionDao.setSources(sourceURLs);
+        definitionDao.setReader(new DigesterDefinitionsReader());
+        definitionDao.setConcurrent(true);
+
+        final Locale[] locales = new Locale[] { Locale.ROOT, Locale.US,
+                Locale.FRENCH, Locale.CANADA_FRENCH, Locale.CHINA };
+        final String[] countries = new String[] { "default", "US", "France",
+                "Canada", "default" };
+        final List<Throwable> errors = new ArrayList<Throwable>();
+        Thread[] threads = new Thread[20];
+        for (int i = 0; i < threads.length; i++) {
+            final int index = i % locales.length;
+            threads[i] = new Thread() {
+
+                @Override
+                public void run() {
+                    try {
+                        assertEquals("Incorrect country value", countries[index],
+                                definitionDao.getDefinition("test.def1",
+                                        locales[index]).getAttribute("country")
+                                        .getValue());
+                        assertEquals("The template is not correct",
+                                "/testName.jsp", definitionDao.getDefinition(
+                                        "test.defName.subLayered",
+                                        locales[index]).getTemplateAttribute()
+                                        .getValue());
+                    } catch (Throwable e) {
+                        synchronized (errors) {
+                            errors.add(e);
+                        }
+                    }
+                }
+            };
+        }
+        for (Thread thread : threads) {
+            thread.start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        assertTrue("Errors while loading concurrently: " + errors, errors.isEmpty());
+        assertSame("The resolved definition has not been cached",
+                definitionDao.getDefinition("test.defName.subLayered", Locale.US),
+                definitionDao.getDefinition("test.defName.subLayered", Locale.US));
+    }
+
+    /**
+     * Tests {@link CachingLocaleUrlDefinitionDAO#setConcurrent(boolean)} with a
+     * reader that cannot be used by more threads.
+     */
+    public void testSetConcurrentNotConcurrentReader() {
+        definitionDao.setReader(createMock(DefinitionsReader.class));
+        definitionDao.setConcurrent(true);
+        assertFalse("Concurrent loading has not been disabled",
+                definitionDao.concurrent);
+
+        definitionDao.setReader(new DigesterDefinitionsReader());
+        definitionDao.setConcurrent(true);
+        assertTrue("Concurrent loading has not been enabled",
+                definitionDao.concurrent);
+        definitionDao.setReader(createMock(DefinitionsReader.class));
+        assertFalse("Concurrent loading has not been disabled",
+                definitionDao.concurrent);
+    }
+
+    /**
+     * Tests that the sources of each locale are read only once, and that the
+     * definitions of a parent locale are shared with the child locales.
+     */
+    public void testLocaleLayers() {
+        List<ApplicationResource> sourceURLs = new ArrayList<ApplicationResource>();
+        sourceURLs.add(url1);
+        sourceURLs.add(url2);
+        sourceURLs.add(url3);
+        definitionDao.setSources(sourceURLs);
+        final int[] reads = new int[1];
+        definitionDao.setReader(new DigesterDefinitionsReader() {
+
+            @Override
+            public Map<String, Definition> read(Object source) {
+                reads[0]++;
+                return super.read(source);
+            }
+        });
+
+        Definition rootDefinition = definitionDao.getDefinition("test.common", null);
+        assertSame("The root definition has not been shared", rootDefinition,
+                definitionDao.getDefinition("test.common", Locale.US));
+        assertSame("The root definition has not been shared", rootDefinition,
+                definitionDao.getDefinition("test.common", Locale.CANADA_FRENCH));
+        assertEquals("Incorrect Canadian country value", "Canada", definitionDao
+                .getDefinition("test.def1", Locale.CANADA_FRENCH).getAttribute(
+                        "country").getValue());
+        assertEquals("Incorrect French country value", "France", definitionDao
+                .getDefinition("test.def1", Locale.FRENCH).getAttribute(
+                        "country").getValue());
+        assertEquals("Sources have been read more than once", 6, reads[0]);
+        assertTrue("The parent definitions have been copied", definitionDao
+                .getDefinitions(Locale.US) instanceof LayeredDefinitionMap);
+
+        definitionDao.reloadDefinitions();
+        assertEquals("Sources have not been read again", 12, reads[0]);
+        assertNotSame(rootDefinition, definitionDao.getDefinition("test.common", null));
+    }
+
+    /**
+     * Tests {@link CachingLocaleUrlDefinitionDAO#getDefinition(String, Locale)}
+     * when missing definition names are remembered.
+     */
+    public void testGetDefinitionMissingCached() {
+        List<ApplicationResource> sourceURLs = new ArrayList<ApplicationResource>();
+        sourceURLs.add(url1);
+        sourceURLs.add(urlWildcard);
+        definitionDao.setSources(sourceURLs);
+        definitionDao.setReader(new DigesterDefinitionsReader());
+        definitionDao.setMissingDefinitionCacheSize(10);
+        WildcardDefinitionPatternMatcherFactory definitionPatternMatcherFactory =
+            new WildcardDefinitionPatternMatcherFactory();
+        final int[] resolutions = new int[1];
+        definitionDao.setPatternDefinitionResolver(new BasicPatternDefinitionResolver<Locale>(
+                definitionPatternMatcherFactory, definitionPatternMatcherFactory) {
+
+            @Override
+            public Definition resolveDefinition(String name, Locale customizationKey) {
+                resolutions[0]++;
+                return super.resolveDefinition(name, customizationKey);
+            }
+        });
+
+        assertNull(definitionDao.getDefinition("test.missing", null));
+        assertNull(definitionDao.getDefinition("test.missing", null));
+        assertNull(definitionDao.getDefinition("test.missing", Locale.ROOT));
+        assertEquals("The missing name has not been remembered", 1, resolutions[0]);
+        assertNotNull(definitionDao.getDefinition("test.defName.subLayered", null));
+        assertEquals(2, resolutions[0]);
+        definitionDao.reloadDefinitions();
+        assertNull(definitionDao.getDefinition("test.missing", null));
+        assertNull(definitionDao.getDefinition("test.missing", null));
+        assertEquals("The missing name has not been forgotten after reload", 3, resolutions[0]);
+    }
+
     /**
      * Tests {@link LocaleUrlDefinitionDAO#setSources(List)}.
      */
@@ -0,0 +1,115 @@
+/*
+ * $Id$
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.tiles.definition.dao;
+
+import static org.junit.Assert.*;
+
+import org.apache.tiles.Attribute;
+import org.apache.tiles.Definition;
+import org.apache.tiles.Expression;
+import org.apache.tiles.ListAttribute;
+import org.junit.Test;
+
+/**
+ * Tests {@link DefinitionPool}.
+ *
+ * @version $Rev$ $Date$
+ */
+public class DefinitionPoolTest {
+
+    /**
+     * Test method for {@link DefinitionPool#share(Definition)}.
+     */
+    @Test
+    public void testShareDefinition() {
+        DefinitionPool pool = new DefinitionPool();
+        Definition definition1 = createDefinition("country");
+        Definition definition2 = createDefinition("country");
+        Definition definition3 = createDefinition("other");
+
+        Definition shared1 = pool.share(definition1);
+        assertNotSame(definition1, shared1);
+        assertEquals(definition1, shared1);
+        assertSame(shared1, pool.share(definition2));
+        Definition shared3 = pool.share(definition3);
+        assertNotSame(shared1, shared3);
+        assertEquals(definition3, shared3);
+        assertSame(shared1.getTemplateAttribute(), shared3.getTemplateAttribute());
+        assertSame(shared1.getCascadedAttribute("list"), shared3.getCascadedAttribute("list"));
+        assertEquals(3L, pool.getRequestedDefinitions());
+        assertEquals(1L, pool.getSharedDefinitions());
+    }
+
+    /**
+     * Test method for {@link DefinitionPool#share(Attribute)}.
+     */
+    @Test
+    public void testShareAttribute() {
+        DefinitionPool pool = new DefinitionPool();
+        Attribute attribute = new Attribute("value", null, "role1,role2", "string");
+        Attribute shared = pool.share(attribute);
+        assertEquals(attribute, shared);
+        assertSame(shared, pool.share(new Attribute("value", null, "role1,role2", "string")));
+        assertNotSame(shared, pool.share(new Attribute("value", null, "role1", "string")));
+
+        Attribute expression = new Attribute(null, Expression.createExpression("expr", "EL"), null, null);
+        assertSame(pool.share(expression), pool.share(new Attribute(expression)));
+
+        ListAttribute listAttribute = new ListAttribute();
+        listAttribute.add(new Attribute("value"));
+        Attribute simpleAttribute = new Attribute(listAttribute.getValue());
+        Attribute sharedList = pool.share(listAttribute);
+        assertTrue(sharedList instanceof ListAttribute);
+        assertNotSame(sharedList, pool.share(simpleAttribute));
+    }
+
+    /**
+     * Test method for {@link DefinitionPool#share(String)}.
+     */
+    @Test
+    public void testShareString() {
+        DefinitionPool pool = new DefinitionPool();
+        String string = pool.share(new String("value"));
+        assertSame(string, pool.share(new String("value")));
+        assertNull(pool.share((String) null));
+        pool.clear();
+        assertNotSame(string, pool.share(new String("value")));
+    }
+
+    /**
+     * Creates a definition to share.
+     *
+     * @param country The value of the country attribute.
+     * @return The definition.
+     */
+    private Definition createDefinition(String country) {
+        Definition definition = new Definition();
+        definition.setName("test.def");
+        definition.setTemplateAttribute(Attribute.createTemplateAttribute("/test.jsp"));
+        definition.putAttribute("country", new Attribute(country));
+        definition.putAttribute("title", new Attribute("title"));
+        ListAttribute listAttribute = new ListAttribute();
+        listAttribute.add(new Attribute("item"));
+        definition.putAttribute("list", listAttribute, true);
+        return definition;
+    }
+}
@@ -0,0 +1,94 @@
+/*
+ * $Id$
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.tiles.definition.dao;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.tiles.Definition;
+import org.junit.Test;
+
+/**
+ * Tests {@link LayeredDefinitionMap}.
+ *
+ * @version $Rev$ $Date$
+ */
+public class LayeredDefinitionMapTest {
+
+    /**
+     * Tests looking up, adding and iterating over definitions.
+     */
+    @Test
+    public void testLayers() {
+        Definition rootDefinition = createDefinition("common");
+        Definition overridden = createDefinition("page");
+        Definition overriding = createDefinition("page");
+        Definition pattern = createDefinition("page.*");
+        Map<String, Definition> root = new HashMap<String, Definition>();
+        root.put("common", rootDefinition);
+        root.put("page", overridden);
+        root.put("page.*", pattern);
+        Map<String, Definition> child = new HashMap<String, Definition>();
+        child.put("page", overriding);
+        List<Map<String, Definition>> layers = new ArrayList<Map<String, Definition>>();
+        layers.add(child);
+        layers.add(root);
+        LayeredDefinitionMap map = new LayeredDefinitionMap(layers,
+                Collections.singleton("page.*"));
+
+        assertSame(rootDefinition, map.get("common"));
+        assertSame(overriding, map.get("page"));
+        assertNull(map.get("page.*"));
+        assertFalse(map.containsKey("page.*"));
+        assertEquals(2, map.size());
+
+        Definition resolved = createDefinition("page.one");
+        assertNull(map.putIfAbsent("page.one", resolved));
+        assertSame(resolved, map.putIfAbsent("page.one", createDefinition("page.one")));
+        assertSame(overriding, map.putIfAbsent("page", createDefinition("page")));
+        assertSame(resolved, map.get("page.one"));
+        assertEquals(3, map.size());
+        assertTrue(map.keySet().contains("page.one"));
+        assertEquals(1, child.size());
+        assertEquals(3, root.size());
+
+        assertSame(resolved, map.remove("page.one"));
+        assertNull(map.get("page.one"));
+    }
+
+    /**
+     * Creates a definition.
+     *
+     * @param name The name of the definition.
+     * @return The definition.
+     */
+    private Definition createDefinition(String name) {
+        Definition definition = new Definition();
+        definition.setName(name);
+        return definition;
+    }
+}
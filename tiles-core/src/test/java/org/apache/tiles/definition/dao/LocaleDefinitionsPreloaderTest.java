@@ -0,0 +1,101 @@
+/*
+ * $Id$
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.tiles.definition.dao;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+import org.apache.tiles.Definition;
+import org.apache.tiles.definition.DefinitionsFactoryException;
+import org.junit.Test;
+
+/**
+ * Tests {@link LocaleDefinitionsPreloader}.
+ *
+ * @version $Rev$ $Date$
+ */
+public class LocaleDefinitionsPreloaderTest {
+
+    /**
+     * A DAO that records the loaded locales.
+     */
+    private static class RecordingDefinitionDAO implements DefinitionDAO<Locale> {
+
+        /**
+         * The loaded locales, in order.
+         */
+        private final List<Locale> loadedLocales = Collections
+                .synchronizedList(new ArrayList<Locale>());
+
+        /** {@inheritDoc} */
+        public Definition getDefinition(String name, Locale customizationKey) {
+            return null;
+        }
+
+        /** {@inheritDoc} */
+        public Map<String, Definition> getDefinitions(Locale customizationKey) {
+            if (Locale.GERMAN.equals(customizationKey)) {
+                throw new DefinitionsFactoryException("Broken definitions");
+            }
+            loadedLocales.add(customizationKey);
+            return new HashMap<String, Definition>();
+        }
+    }
+
+    /**
+     * Test method for {@link LocaleDefinitionsPreloader#preload(java.util.Collection)}.
+     */
+    @Test
+    public void testPreload() {
+        RecordingDefinitionDAO dao = new RecordingDefinitionDAO();
+        new LocaleDefinitionsPreloader(dao, 4).preload(Arrays.asList(
+                Locale.CANADA_FRENCH, Locale.US, Locale.FRENCH, Locale.ITALY));
+
+        List<Locale> loadedLocales = dao.loadedLocales;
+        assertEquals(7, loadedLocales.size());
+        assertEquals(Locale.ROOT, loadedLocales.get(0));
+        assertEquals(new HashSet<Locale>(Arrays.asList(Locale.FRENCH,
+                Locale.ENGLISH, Locale.ITALIAN)), new HashSet<Locale>(
+                loadedLocales.subList(1, 4)));
+        assertEquals(new HashSet<Locale>(Arrays.asList(Locale.CANADA_FRENCH,
+                Locale.US, Locale.ITALY)), new HashSet<Locale>(
+                loadedLocales.subList(4, 7)));
+    }
+
+    /**
+     * Test method for {@link LocaleDefinitionsPreloader#preload(java.util.Collection)}
+     * when definitions cannot be loaded.
+     */
+    @Test(expected = DefinitionsFactoryException.class)
+    public void testPreloadException() {
+        new LocaleDefinitionsPreloader(new RecordingDefinitionDAO(), 2)
+                .preload(Arrays.asList(Locale.GERMANY));
+    }
+}
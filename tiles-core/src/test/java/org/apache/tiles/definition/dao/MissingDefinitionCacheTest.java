@@ -0,0 +1,107 @@
+/*
+ * $Id$
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.tiles.definition.dao;
+
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+
+/**
+ * Tests {@link MissingDefinitionCache}.
+ *
+ * @version $Rev$ $Date$
+ */
+public class MissingDefinitionCacheTest {
+
+    /**
+     * A cache whose time can be set.
+     */
+    private static class TimedMissingDefinitionCache extends MissingDefinitionCache {
+
+        /**
+         * The current time.
+         */
+        private long time = 0L;
+
+        /**
+         * Constructor.
+         *
+         * @param maxSize The maximum number of names.
+         * @param timeToLive The time-to-live.
+         */
+        public TimedMissingDefinitionCache(int maxSize, long timeToLive) {
+            super(maxSize, timeToLive);
+        }
+
+        /** {@inheritDoc} */
+        @Override
+        protected long currentTimeMillis() {
+            return time;
+        }
+    }
+
+    /**
+     * Tests {@link MissingDefinitionCache#markMissing(String)} and
+     * {@link MissingDefinitionCache#isMissing(String)}.
+     */
+    @Test
+    public void testMarkMissing() {
+        MissingDefinitionCache cache = new MissingDefinitionCache(2, 0L);
+        assertFalse(cache.isMissing("one"));
+        cache.markMissing("one");
+        cache.markMissing("two");
+        assertTrue(cache.isMissing("one"));
+        assertTrue(cache.isMissing("two"));
+        cache.markMissing("three");
+        assertFalse(cache.isMissing("one"));
+        assertTrue(cache.isMissing("two"));
+        assertTrue(cache.isMissing("three"));
+        assertEquals(2, cache.size());
+        cache.clear();
+        assertFalse(cache.isMissing("two"));
+        assertEquals(0, cache.size());
+    }
+
+    /**
+     * Tests that names expire.
+     */
+    @Test
+    public void testExpiration() {
+        TimedMissingDefinitionCache cache = new TimedMissingDefinitionCache(10, 100L);
+        cache.markMissing("one");
+        cache.time = 99L;
+        assertTrue(cache.isMissing("one"));
+        cache.time = 100L;
+        assertFalse(cache.isMissing("one"));
+        assertEquals(0, cache.size());
+    }
+
+    /**
+     * Tests that nothing is remembered when the size is not positive.
+     */
+    @Test
+    public void testDisabled() {
+        MissingDefinitionCache cache = new MissingDefinitionCache(0, 100L);
+        cache.markMissing("one");
+        assertFalse(cache.isMissing("one"));
+    }
+}
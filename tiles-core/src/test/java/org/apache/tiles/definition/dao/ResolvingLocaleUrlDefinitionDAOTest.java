@@ -168,6 +168,36 @@ public class ResolvingLocaleUrlDefinitionDAOTest {
                 definitionDao.getDefinition("test.def.overridden", Locale.FRENCH).getAttribute("title").getValue());
     }
 
+    /**
+     * Tests {@link ResolvingLocaleUrlDefinitionDAO#setShareDefinitions(boolean)}.
+     */
+    @Test
+    public void testShareDefinitions() {
+        List<ApplicationResource> sourceURLs = new ArrayList<ApplicationResource>();
+        sourceURLs.add(url1);
+        sourceURLs.add(url2);
+        sourceURLs.add(url3);
+        definitionDao.setSources(sourceURLs);
+        definitionDao.setReader(new DigesterDefinitionsReader());
+        definitionDao.setShareDefinitions(true);
+
+        Definition rootDefinition = definitionDao.getDefinition("test.common", null);
+        assertSame("The unchanged definition has not been shared", rootDefinition,
+                definitionDao.getDefinition("test.common", Locale.CHINA));
+        assertEquals("Incorrect US country value", "US", definitionDao
+                .getDefinition("test.def1", Locale.US).getAttribute("country")
+                .getValue());
+        assertEquals("Incorrect default country value", "default", definitionDao
+                .getDefinition("test.def1", null).getAttribute("country")
+                .getValue());
+        assertNotSame(definitionDao.getDefinition("test.def1", null),
+                definitionDao.getDefinition("test.def1", Locale.US));
+        assertSame("The unchanged attribute has not been shared",
+                definitionDao.getDefinition("test.def1", null).getTemplateAttribute(),
+                definitionDao.getDefinition("test.def1", Locale.US).getTemplateAttribute());
+        assertTrue(definitionDao.getDefinitionPool().getSharedDefinitions() > 0);
+    }
+
     /**
      * Tests {@link LocaleUrlDefinitionDAO#getDefinitions(Locale)}.
      */
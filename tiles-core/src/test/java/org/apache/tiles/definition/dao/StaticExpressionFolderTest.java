@@ -0,0 +1,124 @@
+/*
+ * $Id$
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.tiles.definition.dao;
+
+import static org.junit.Assert.*;
+
+import java.util.List;
+
+import org.apache.tiles.Attribute;
+import org.apache.tiles.Definition;
+import org.apache.tiles.Expression;
+import org.apache.tiles.ListAttribute;
+import org.apache.tiles.evaluator.AbstractAttributeEvaluator;
+import org.apache.tiles.evaluator.BasicAttributeEvaluatorFactory;
+import org.apache.tiles.evaluator.impl.DirectAttributeEvaluator;
+import org.apache.tiles.request.Request;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Tests {@link StaticExpressionFolder}.
+ *
+ * @version $Rev$ $Date$
+ */
+public class StaticExpressionFolderTest {
+
+    /**
+     * The folder to test.
+     */
+    private StaticExpressionFolder folder;
+
+    /**
+     * Sets up the test.
+     */
+    @Before
+    public void setUp() {
+        BasicAttributeEvaluatorFactory factory = new BasicAttributeEvaluatorFactory(
+                new AbstractAttributeEvaluator() {
+
+                    public Object evaluate(String expression, Request request) {
+                        return request;
+                    }
+                });
+        factory.registerAttributeEvaluator("DIRECT", new DirectAttributeEvaluator());
+        folder = new StaticExpressionFolder(factory);
+    }
+
+    /**
+     * Test method for {@link StaticExpressionFolder#fold(Attribute)}.
+     */
+    @Test
+    public void testFoldAttribute() {
+        Attribute attribute = new Attribute(null, new Expression("/layout.jsp",
+                "DIRECT"), "role", "template");
+        Attribute folded = folder.fold(attribute);
+        assertNotSame(attribute, folded);
+        assertEquals("/layout.jsp", folded.getValue());
+        assertNull(folded.getExpressionObject());
+        assertEquals("role", folded.getRole());
+        assertEquals("template", folded.getRenderer());
+        assertNull(attribute.getValue());
+
+        Attribute dynamic = new Attribute(null, new Expression("${value}"),
+                null, (String) null);
+        assertSame(dynamic, folder.fold(dynamic));
+        Attribute plain = new Attribute("value");
+        assertSame(plain, folder.fold(plain));
+    }
+
+    /**
+     * Test method for {@link StaticExpressionFolder#fold(Definition)}.
+     */
+    @Test
+    public void testFoldDefinition() {
+        Definition definition = new Definition();
+        definition.setName("definition");
+        definition.setTemplateAttribute(new Attribute(null, new Expression(
+                "/layout.jsp", "DIRECT"), null, "template"));
+        definition.putAttribute("dynamic", new Attribute(null, new Expression(
+                "${value}"), null, (String) null));
+        ListAttribute list = new ListAttribute();
+        list.add(new Attribute("plain"));
+        list.add(new Attribute(null, new Expression("item", "DIRECT"), null,
+                (String) null));
+        definition.putAttribute("list", list, true);
+
+        Definition folded = folder.fold(definition);
+        assertNotSame(definition, folded);
+        assertEquals("/layout.jsp", folded.getTemplateAttribute().getValue());
+        assertEquals(definition.getLocalAttribute("dynamic"),
+                folded.getLocalAttribute("dynamic"));
+        @SuppressWarnings("unchecked")
+        List<Attribute> items = (List<Attribute>) folded.getCascadedAttribute(
+                "list").getValue();
+        assertEquals("plain", items.get(0).getValue());
+        assertEquals("item", items.get(1).getValue());
+        assertNull(items.get(1).getExpressionObject());
+        assertNull(list.getValue().get(1).getValue());
+
+        Definition unchanged = new Definition();
+        unchanged.putAttribute("dynamic", new Attribute(null, new Expression(
+                "${value}"), null, (String) null));
+        assertSame(unchanged, folder.fold(unchanged));
+    }
+}
@@ -26,8 +26,13 @@ import static org.junit.Assert.*;
 import java.io.IOException;
 import java.io.InputStream;
 import java.net.URL;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import org.apache.tiles.Attribute;
 import org.apache.tiles.Definition;
@@ -309,6 +314,46 @@ public class TestDigesterDefinitionsReader {
         assertNull(reader.read(null));
     }
 
+    /**
+     * Tests {@link DigesterDefinitionsReader#read(Object)} called by multiple
+     * threads at the same time.
+     *
+     * @throws Exception If something goes wrong.
+     */
+    @Test
+    public void testReadConcurrently() throws Exception {
+        final URL configFile = this.getClass().getClassLoader().getResource(
+                "org/apache/tiles/config/tiles-defs.xml");
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<Map<String, Definition>>> results =
+                new ArrayList<Future<Map<String, Definition>>>();
+            for (int i = 0; i < 16; i++) {
+                results.add(executor.submit(new Callable<Map<String, Definition>>() {
+
+                    public Map<String, Definition> call() throws IOException {
+                        InputStream source = configFile.openStream();
+                        try {
+                            return reader.read(source);
+                        } finally {
+                            source.close();
+                        }
+                    }
+                }));
+            }
+
+            Map<String, Definition> expected = results.get(0).get();
+            for (Future<Map<String, Definition>> result : results) {
+                Map<String, Definition> definitions = result.get();
+                assertEquals(expected.size(), definitions.size());
+                assertEquals("Tiles Library Documentation", definitions
+                        .get("doc.mainLayout").getAttribute("title").getValue());
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+
     /**
      * Tests {@link DigesterDefinitionsReader#addDefinition(Definition)}.
      */
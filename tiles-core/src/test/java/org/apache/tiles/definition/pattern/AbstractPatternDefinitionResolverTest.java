@@ -83,6 +83,17 @@ public class AbstractPatternDefinitionResolverTest {
         testResolveDefinitionImpl();
     }
 
+    /**
+     * Test method for
+     * {@link BasicPatternDefinitionResolver#resolveDefinition(String, Object)}
+     * when patterns are indexed.
+     */
+    @Test
+    public void testResolveDefinitionIndexed() {
+        ((AbstractPatternDefinitionResolver<Integer>) resolver).setIndexed(true);
+        testResolveDefinitionImpl();
+    }
+
     private void testResolveDefinitionImpl() {
 
         firstMatcher = createMock(DefinitionPatternMatcher.class);
@@ -0,0 +1,75 @@
+/*
+ * $Id$
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.tiles.definition.pattern;
+
+import static org.junit.Assert.*;
+
+import org.apache.tiles.Attribute;
+import org.apache.tiles.Definition;
+import org.apache.tiles.ListAttribute;
+import org.junit.Test;
+
+/**
+ * Tests {@link DefinitionTemplate}.
+ *
+ * @version $Rev$ $Date$
+ */
+public class DefinitionTemplateTest {
+
+    /**
+     * Test method for
+     * {@link DefinitionTemplate#createDefinition(String, Object[])}.
+     */
+    @Test
+    public void testCreateDefinition() {
+        Definition definition = new Definition("definitionName", new Attribute(
+                "/template{1}.jsp"), null);
+        definition.setPreparer("preparer{2}");
+        definition.putAttribute("attrib{1}", new Attribute("value{2}", null, "role{1}", "type"));
+        ListAttribute listAttribute = new ListAttribute();
+        listAttribute.setInherit(true);
+        listAttribute.add(new Attribute("item{2}"));
+        listAttribute.add(new Attribute(Integer.valueOf(1)));
+        definition.putAttribute("list", listAttribute, true);
+        DefinitionTemplate template = new DefinitionTemplate(definition);
+
+        Definition nudef = template.createDefinition("one.two", "one.two", "one", "two");
+        assertEquals("one.two", nudef.getName());
+        assertNull(nudef.getExtends());
+        assertEquals("preparertwo", nudef.getPreparer());
+        assertEquals("/templateone.jsp", nudef.getTemplateAttribute().getValue());
+        Attribute attribute = nudef.getLocalAttribute("attribone");
+        assertEquals("valuetwo", attribute.getValue());
+        assertEquals("roleone", attribute.getRole());
+        assertEquals("type", attribute.getRenderer());
+        ListAttribute nuListAttribute = (ListAttribute) nudef.getCascadedAttribute("list");
+        assertTrue(nuListAttribute.isInherit());
+        assertEquals("itemtwo", nuListAttribute.getValue().get(0).getValue());
+        assertEquals(Integer.valueOf(1), nuListAttribute.getValue().get(1).getValue());
+
+        nudef = template.createDefinition("three.four", "three.four", "three", "four");
+        assertEquals("/templatethree.jsp", nudef.getTemplateAttribute().getValue());
+        assertEquals("valuefour", nudef.getLocalAttribute("attribthree").getValue());
+        assertEquals("itemfour", ((ListAttribute) nudef.getCascadedAttribute("list"))
+                .getValue().get(0).getValue());
+    }
+}
@@ -319,4 +319,25 @@ public class PatternUtilTest {
                 "value1/{options[my_fallback}}/some-other-value2-${requestScope.someVariable}.jsp",
                 nudef.getAttribute("something").getExpressionObject().getExpression());
     }
+
+    /**
+     * Test method for
+     * {@link PatternUtil#replacePlaceholders(Definition, String, Object[])}
+     * with quotes, missing variables and braces that are not placeholders.
+     */
+    @Test
+    public void testReplacePlaceholdersLiterals() {
+        Map<String, Attribute> attributes = new HashMap<String, Attribute>();
+        attributes.put("quote", new Attribute("it's {1}"));
+        attributes.put("missing", new Attribute("{1}-{7}"));
+        attributes.put("braces", new Attribute("{}{a1}{1"));
+        attributes.put("null", new Attribute("[{2}]"));
+        Definition definition = new Definition("definitionName", new Attribute("template"), attributes);
+        Definition nudef = PatternUtil.replacePlaceholders(definition, "nudef", "value0", "value1", null);
+
+        assertEquals("it's value1", nudef.getAttribute("quote").getValue());
+        assertEquals("value1-{7}", nudef.getAttribute("missing").getValue());
+        assertEquals("{}{a1}{1", nudef.getAttribute("braces").getValue());
+        assertEquals("[]", nudef.getAttribute("null").getValue());
+    }
 }
@@ -0,0 +1,73 @@
+/*
+ * $Id$
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.tiles.definition.pattern;
+
+import static org.easymock.EasyMock.*;
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.tiles.Definition;
+import org.junit.Test;
+
+/**
+ * Tests {@link PrefixTreeDefinitionPatternMatcher}.
+ *
+ * @version $Rev$ $Date$
+ */
+public class PrefixTreeDefinitionPatternMatcherTest {
+
+    /**
+     * Test method for
+     * {@link PrefixTreeDefinitionPatternMatcher#createDefinition(String)}.
+     */
+    @Test
+    public void testCreateDefinition() {
+        IndexableDefinitionPatternMatcher matcherAB = createMock(IndexableDefinitionPatternMatcher.class);
+        IndexableDefinitionPatternMatcher matcherA = createMock(IndexableDefinitionPatternMatcher.class);
+        IndexableDefinitionPatternMatcher matcherB = createMock(IndexableDefinitionPatternMatcher.class);
+        DefinitionPatternMatcher matcherAny = createMock(DefinitionPatternMatcher.class);
+        Definition definition = new Definition();
+
+        expect(matcherAB.getLiteralPrefix()).andReturn("ab");
+        expect(matcherA.getLiteralPrefix()).andReturn("a");
+        expect(matcherB.getLiteralPrefix()).andReturn("b");
+        expect(matcherAB.createDefinition("abc")).andReturn(null);
+        expect(matcherA.createDefinition("abc")).andReturn(null);
+        expect(matcherAny.createDefinition("abc")).andReturn(definition);
+        expect(matcherA.createDefinition("ac")).andReturn(definition);
+        expect(matcherAny.createDefinition("c")).andReturn(null);
+
+        replay(matcherAB, matcherA, matcherB, matcherAny);
+        List<DefinitionPatternMatcher> matchers = new ArrayList<DefinitionPatternMatcher>();
+        matchers.add(matcherAB);
+        matchers.add(matcherA);
+        matchers.add(matcherAny);
+        matchers.add(matcherB);
+        PrefixTreeDefinitionPatternMatcher index = new PrefixTreeDefinitionPatternMatcher(matchers);
+        assertSame(definition, index.createDefinition("abc"));
+        assertSame(definition, index.createDefinition("ac"));
+        assertNull(index.createDefinition("c"));
+        verify(matcherAB, matcherA, matcherB, matcherAny);
+    }
+}
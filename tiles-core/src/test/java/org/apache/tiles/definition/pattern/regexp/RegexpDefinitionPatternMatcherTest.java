@@ -54,4 +54,23 @@ public class RegexpDefinitionPatternMatcherTest {
         assertEquals("/testOne.jsp", result.getTemplateAttribute().getValue());
         assertEquals("messageTwo", result.getAttribute("body").getValue());
     }
+
+    /**
+     * Test method for
+     * {@link RegexpDefinitionPatternMatcher#getLiteralPrefix()}.
+     */
+    @Test
+    public void testGetLiteralPrefix() {
+        Definition def = new Definition();
+        assertEquals("testDef", new RegexpDefinitionPatternMatcher(
+                "testDef(.*)\\.message(.*)", def).getLiteralPrefix());
+        assertEquals("testDe", new RegexpDefinitionPatternMatcher(
+                "testDef?\\.message(.*)", def).getLiteralPrefix());
+        assertEquals("testDef", new RegexpDefinitionPatternMatcher(
+                "testDef+\\.message(.*)", def).getLiteralPrefix());
+        assertEquals("", new RegexpDefinitionPatternMatcher(
+                "testDef\\.(one|two)", def).getLiteralPrefix());
+        assertEquals("", new RegexpDefinitionPatternMatcher(
+                "(?i)testDef.*", def).getLiteralPrefix());
+    }
 }
@@ -54,4 +54,19 @@ public class WildcardDefinitionPatternMatcherTest {
         assertEquals("/testOne.jsp", result.getTemplateAttribute().getValue());
         assertEquals("messageTwo", result.getAttribute("body").getValue());
     }
+
+    /**
+     * Test method for {@link WildcardDefinitionPatternMatcher#getLiteralPrefix()}.
+     */
+    @Test
+    public void testGetLiteralPrefix() {
+        Definition def = new Definition();
+        WildcardHelper wildcardHelper = new WildcardHelper();
+        assertEquals("testDef", new WildcardDefinitionPatternMatcher(
+                "testDef*.message*", def, wildcardHelper).getLiteralPrefix());
+        assertEquals("test*Def.", new WildcardDefinitionPatternMatcher(
+                "test\\*Def.**", def, wildcardHelper).getLiteralPrefix());
+        assertEquals("", new WildcardDefinitionPatternMatcher(
+                "*.message", def, wildcardHelper).getLiteralPrefix());
+    }
 }
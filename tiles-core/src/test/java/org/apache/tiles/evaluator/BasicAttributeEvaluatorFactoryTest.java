@@ -26,6 +26,7 @@ import static org.easymock.EasyMock.*;
 
 import org.apache.tiles.Attribute;
 import org.apache.tiles.Expression;
+import org.apache.tiles.evaluator.impl.DirectAttributeEvaluator;
 import org.junit.Test;
 
 /**
@@ -74,6 +75,36 @@ public class BasicAttributeEvaluatorFactoryTest {
         verify(defaultEvaluator, evaluator1, evaluator2);
     }
 
+    /**
+     * Test method for {@link BasicAttributeEvaluatorFactory#freeze()}.
+     */
+    @Test
+    public void testFreeze() {
+        AttributeEvaluator defaultEvaluator = new DirectAttributeEvaluator();
+        AttributeEvaluator evaluator1 = new DirectAttributeEvaluator();
+        BasicAttributeEvaluatorFactory factory = new BasicAttributeEvaluatorFactory(defaultEvaluator);
+        factory.registerAttributeEvaluator("LANG1", evaluator1);
+        Attribute attribute = createExpressionAttribute("LANG1");
+        assertSame(evaluator1, factory.getAttributeEvaluator(attribute));
+        assertNull(attribute.getExpressionObject().getResolvedEvaluator());
+
+        factory.freeze();
+        assertTrue(factory.isFrozen());
+        assertSame(evaluator1, factory.getAttributeEvaluator(attribute));
+        assertNotNull(attribute.getExpressionObject().getResolvedEvaluator());
+        assertSame(evaluator1, factory.getAttributeEvaluator(attribute));
+
+        BasicAttributeEvaluatorFactory otherFactory = new BasicAttributeEvaluatorFactory(defaultEvaluator);
+        otherFactory.freeze();
+        assertSame(defaultEvaluator, otherFactory.getAttributeEvaluator(attribute));
+        try {
+            factory.registerAttributeEvaluator("LANG2", evaluator1);
+            fail("A frozen factory must not accept evaluators");
+        } catch (IllegalStateException e) {
+            assertSame(defaultEvaluator, factory.getAttributeEvaluator("LANG2"));
+        }
+    }
+
     /**
      * Creates a sample attribute with an expression.
      *
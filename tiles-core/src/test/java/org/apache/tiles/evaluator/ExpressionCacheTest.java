@@ -0,0 +1,76 @@
+/*
+ * $Id$
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.tiles.evaluator;
+
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+
+/**
+ * Tests {@link ExpressionCache}.
+ *
+ * @version $Rev$ $Date$
+ */
+public class ExpressionCacheTest {
+
+    /**
+     * Test method for {@link ExpressionCache#get(String)} and
+     * {@link ExpressionCache#put(String, Object)}.
+     */
+    @Test
+    public void testGetPut() {
+        ExpressionCache<Object> cache = new ExpressionCache<Object>();
+        Object parsed = new Object();
+        assertNull(cache.get("${one}"));
+        assertSame(parsed, cache.put("${one}", parsed));
+        assertSame(parsed, cache.get("${one}"));
+        assertSame(parsed, cache.put("${one}", new Object()));
+        assertEquals(1, cache.size());
+        assertEquals(1, cache.getHits());
+        assertEquals(1, cache.getMisses());
+
+        cache.clear();
+        assertEquals(0, cache.size());
+        assertNull(cache.get("${one}"));
+        assertEquals(2, cache.getMisses());
+    }
+
+    /**
+     * Test method for {@link ExpressionCache#put(String, Object)} when the
+     * cache is full.
+     */
+    @Test
+    public void testPutFull() {
+        ExpressionCache<Object> cache = new ExpressionCache<Object>(2);
+        cache.put("${one}", new Object());
+        cache.put("${two}", new Object());
+        Object parsed = new Object();
+        assertSame(parsed, cache.put("${three}", parsed));
+        assertNull(cache.get("${three}"));
+        assertEquals(2, cache.size());
+
+        ExpressionCache<Object> disabled = new ExpressionCache<Object>(0);
+        disabled.put("${one}", parsed);
+        assertEquals(0, disabled.size());
+        assertEquals(0, disabled.getMaxSize());
+    }
+}
@@ -90,4 +90,15 @@ public class DirectAttributeEvaluatorTest {
         assertEquals("The expression has not been evaluated correctly", result,
                 expression);
     }
+
+    /**
+     * Tests {@link DirectAttributeEvaluator#isStatic(String)} and
+     * {@link DirectAttributeEvaluator#evaluateStatic(String)}.
+     */
+    @Test
+    public void testEvaluateStatic() {
+        String expression = "${attributeName}";
+        assertTrue(evaluator.isStatic(expression));
+        assertEquals(expression, evaluator.evaluateStatic(expression));
+    }
 }
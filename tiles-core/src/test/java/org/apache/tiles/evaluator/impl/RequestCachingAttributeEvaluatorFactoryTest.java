@@ -0,0 +1,65 @@
+/*
+ * $Id$
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.tiles.evaluator.impl;
+
+import static org.easymock.EasyMock.*;
+import static org.junit.Assert.*;
+
+import java.util.Collections;
+
+import org.apache.tiles.Attribute;
+import org.apache.tiles.evaluator.AttributeEvaluator;
+import org.apache.tiles.evaluator.AttributeEvaluatorFactory;
+import org.junit.Test;
+
+/**
+ * Tests {@link RequestCachingAttributeEvaluatorFactory}.
+ *
+ * @version $Rev$ $Date$
+ */
+public class RequestCachingAttributeEvaluatorFactoryTest {
+
+    /**
+     * Test method for {@link RequestCachingAttributeEvaluatorFactory#getAttributeEvaluator(Attribute)}
+     * and {@link RequestCachingAttributeEvaluatorFactory#getAttributeEvaluator(String)}.
+     */
+    @Test
+    public void testGetAttributeEvaluator() {
+        AttributeEvaluatorFactory decorated = createMock(AttributeEvaluatorFactory.class);
+        AttributeEvaluator evaluator = createMock(AttributeEvaluator.class);
+        AttributeEvaluator otherEvaluator = createMock(AttributeEvaluator.class);
+        Attribute attribute = new Attribute();
+
+        expect(decorated.getAttributeEvaluator(attribute)).andReturn(evaluator);
+        expect(decorated.getAttributeEvaluator("EL")).andReturn(evaluator);
+        expect(decorated.getAttributeEvaluator("OTHER")).andReturn(otherEvaluator);
+
+        replay(decorated, evaluator, otherEvaluator);
+        RequestCachingAttributeEvaluatorFactory factory = new RequestCachingAttributeEvaluatorFactory(
+                decorated, Collections.singleton("expr"));
+        AttributeEvaluator caching = factory.getAttributeEvaluator(attribute);
+        assertTrue(caching instanceof RequestCachingAttributeEvaluator);
+        assertTrue(((RequestCachingAttributeEvaluator) caching).isCacheable("expr"));
+        assertSame(caching, factory.getAttributeEvaluator("EL"));
+        assertNotSame(caching, factory.getAttributeEvaluator("OTHER"));
+        verify(decorated, evaluator, otherEvaluator);
+    }
+}
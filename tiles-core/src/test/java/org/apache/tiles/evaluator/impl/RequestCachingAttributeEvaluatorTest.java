@@ -0,0 +1,139 @@
+/*
+ * $Id$
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.tiles.evaluator.impl;
+
+import static org.junit.Assert.*;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.apache.tiles.Attribute;
+import org.apache.tiles.Expression;
+import org.apache.tiles.evaluator.AbstractAttributeEvaluator;
+import org.apache.tiles.request.Request;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Tests {@link RequestCachingAttributeEvaluator}.
+ *
+ * @version $Rev$ $Date$
+ */
+public class RequestCachingAttributeEvaluatorTest {
+
+    /**
+     * The number of evaluated expressions.
+     */
+    private int evaluations;
+
+    /**
+     * The evaluator to test.
+     */
+    private RequestCachingAttributeEvaluator evaluator;
+
+    /**
+     * Sets up the test.
+     */
+    @Before
+    public void setUp() {
+        evaluator = new RequestCachingAttributeEvaluator(new AbstractAttributeEvaluator() {
+
+            public Object evaluate(String expression, Request request) {
+                evaluations++;
+                return "null".equals(expression) ? null : expression + evaluations;
+            }
+        });
+    }
+
+    /**
+     * Test method for {@link RequestCachingAttributeEvaluator#evaluate(Attribute, Request)}.
+     */
+    @Test
+    public void testEvaluate() {
+        Request request = createRequest();
+        evaluator.addCacheableExpression("expr");
+        evaluator.addCacheableExpression("null");
+        assertTrue(evaluator.isCacheable("expr"));
+        Attribute attribute = new Attribute();
+        attribute.setExpressionObject(new Expression("expr"));
+        Attribute copy = new Attribute(attribute);
+        Attribute otherLanguage = new Attribute();
+        otherLanguage.setExpressionObject(new Expression("expr", "OTHER"));
+
+        assertEquals("expr1", evaluator.evaluate(attribute, request));
+        assertEquals("expr1", evaluator.evaluate(attribute, request));
+        assertEquals("expr1", evaluator.evaluate(copy, request));
+        assertEquals("expr2", evaluator.evaluate(otherLanguage, request));
+        attribute.setExpressionObject(new Expression("changed"));
+        assertEquals("changed3", evaluator.evaluate(attribute, request));
+        assertEquals("changed4", evaluator.evaluate(attribute, request));
+
+        Attribute nullAttribute = new Attribute();
+        nullAttribute.setExpressionObject(new Expression("null"));
+        assertNull(evaluator.evaluate(nullAttribute, request));
+        assertNull(evaluator.evaluate(nullAttribute, request));
+        assertEquals(5, evaluations);
+
+        assertEquals("expr6", evaluator.evaluate(copy, createRequest()));
+    }
+
+    /**
+     * Tests that {@link RequestCachingAttributeEvaluator} caches nothing by
+     * default.
+     */
+    @Test
+    public void testNotCacheable() {
+        Request request = createRequest();
+        assertFalse(evaluator.isCacheable("volatile"));
+        Attribute attribute = new Attribute();
+        attribute.setExpressionObject(new Expression("volatile"));
+        assertEquals("volatile1", evaluator.evaluate(attribute, request));
+        assertEquals("volatile2", evaluator.evaluate(attribute, request));
+
+        Attribute valued = new Attribute("value");
+        assertEquals("value", evaluator.evaluate(valued, request));
+        assertEquals("direct3", evaluator.evaluate("direct", request));
+    }
+
+    /**
+     * Creates a request with its own request scope.
+     *
+     * @return The request.
+     */
+    private Request createRequest() {
+        final Map<String, Object> requestScope = new HashMap<String, Object>();
+        return (Request) Proxy.newProxyInstance(getClass().getClassLoader(),
+                new Class<?>[] {Request.class }, new InvocationHandler() {
+
+                    public Object invoke(Object proxy, Method method,
+                            Object[] args) {
+                        if ("getContext".equals(method.getName())
+                                && "request".equals(args[0])) {
+                            return requestScope;
+                        }
+                        return null;
+                    }
+                });
+    }
+}
@@ -23,7 +23,13 @@ package org.apache.tiles.factory;
 import static org.easymock.EasyMock.*;
 import static org.easymock.classextension.EasyMock.*;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
 
 import junit.framework.TestCase;
 
@@ -31,9 +37,14 @@ import org.apache.tiles.TilesContainer;
 import org.apache.tiles.definition.DefinitionsFactory;
 import org.apache.tiles.definition.DefinitionsReader;
 import org.apache.tiles.definition.UnresolvingLocaleDefinitionsFactory;
+import org.apache.tiles.definition.dao.BackgroundRefreshMonitor;
+import org.apache.tiles.definition.dao.CachingLocaleUrlDefinitionDAO;
+import org.apache.tiles.definition.dao.DefinitionDAO;
 import org.apache.tiles.definition.digester.DigesterDefinitionsReader;
 import org.apache.tiles.evaluator.AttributeEvaluatorFactory;
+import org.apache.tiles.evaluator.BasicAttributeEvaluatorFactory;
 import org.apache.tiles.evaluator.impl.DirectAttributeEvaluator;
+import org.apache.tiles.evaluator.impl.RequestCachingAttributeEvaluatorFactory;
 import org.apache.tiles.impl.BasicTilesContainer;
 import org.apache.tiles.locale.LocaleResolver;
 import org.apache.tiles.locale.impl.DefaultLocaleResolver;
@@ -92,6 +103,44 @@ public class BasicTilesContainerFactoryTest extends TestCase {
         assertTrue("The class of the container is not correct", container instanceof BasicTilesContainer);
     }
 
+    /**
+     * Tests {@link BasicTilesContainerFactory#createContainer(ApplicationContext)}
+     * when some expressions are cached during requests.
+     */
+    public void testCreateContainerRequestCacheableExpressions() {
+        final List<AttributeEvaluatorFactory> evaluatorFactories = new ArrayList<AttributeEvaluatorFactory>();
+        factory = new BasicTilesContainerFactory() {
+
+            @Override
+            protected BasicTilesContainer instantiateContainer(
+                    ApplicationContext context) {
+                return new BasicTilesContainer() {
+
+                    @Override
+                    public void setAttributeEvaluatorFactory(
+                            AttributeEvaluatorFactory attributeEvaluatorFactory) {
+                        evaluatorFactories.add(attributeEvaluatorFactory);
+                        super.setAttributeEvaluatorFactory(attributeEvaluatorFactory);
+                    }
+                };
+            }
+
+            @Override
+            protected Set<String> getRequestCacheableExpressions(
+                    ApplicationContext applicationContext) {
+                return Collections.singleton("expr");
+            }
+        };
+        factory.createContainer(applicationContext);
+        assertEquals(1, evaluatorFactories.size());
+        assertTrue("The evaluator factory is not caching",
+                evaluatorFactories.get(0) instanceof RequestCachingAttributeEvaluatorFactory);
+        assertTrue(factory.createAttributeEvaluatorFactory(applicationContext,
+                null) instanceof BasicAttributeEvaluatorFactory);
+        assertTrue(new BasicTilesContainerFactory().getRequestCacheableExpressions(
+                applicationContext).isEmpty());
+    }
+
     /**
      * Tests {@link BasicTilesContainerFactory#createDefinitionsFactory(
      * ApplicationContext, LocaleResolver)}.
@@ -103,6 +152,36 @@ public class BasicTilesContainerFactoryTest extends TestCase {
                 defsFactory instanceof UnresolvingLocaleDefinitionsFactory);
     }
 
+    /**
+     * Tests {@link BasicTilesContainerFactory#createLocaleDefinitionDao(
+     * ApplicationContext, LocaleResolver)} when a refresh interval is set.
+     */
+    @SuppressWarnings("unchecked")
+    public void testCreateLocaleDefinitionDaoRefreshMonitor() {
+        ApplicationContext applicationContext = EasyMock.createMock(ApplicationContext.class);
+        Map<String, Object> applicationScope = new HashMap<String, Object>();
+        EasyMock.expect(applicationContext.getResource("/WEB-INF/tiles.xml")).andReturn(resource);
+        EasyMock.expect(applicationContext.getApplicationScope()).andReturn(applicationScope).anyTimes();
+        EasyMock.replay(applicationContext);
+        factory = new BasicTilesContainerFactory() {
+
+            @Override
+            protected long getRefreshInterval(ApplicationContext applicationContext) {
+                return BackgroundRefreshMonitor.DEFAULT_INTERVAL;
+            }
+        };
+        LocaleResolver resolver = factory.createLocaleResolver(applicationContext);
+        DefinitionDAO<Locale> dao = factory.createLocaleDefinitionDao(applicationContext, resolver);
+        assertTrue(dao instanceof CachingLocaleUrlDefinitionDAO);
+        List<BackgroundRefreshMonitor> monitors = (List<BackgroundRefreshMonitor>) applicationScope
+                .get(BackgroundRefreshMonitor.MONITORS_ATTRIBUTE_NAME);
+        assertEquals(1, monitors.size());
+        assertTrue(monitors.get(0).isStarted());
+        BackgroundRefreshMonitor.stopAll(applicationContext);
+        assertFalse(monitors.get(0).isStarted());
+        EasyMock.verify(applicationContext);
+    }
+
     /**
      * Tests {@link BasicTilesContainerFactory#createLocaleResolver(
      * ApplicationContext)}.
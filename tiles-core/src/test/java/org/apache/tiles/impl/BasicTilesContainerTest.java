@@ -23,6 +23,7 @@ package org.apache.tiles.impl;
 import java.io.IOException;
 import java.io.StringWriter;
 import java.net.URL;
+import java.util.HashMap;
 
 import junit.framework.TestCase;
 
@@ -114,6 +115,8 @@ public class BasicTilesContainerTest extends TestCase {
      */
     public void testAttributeCredentials() throws IOException {
         Request request = EasyMock.createMock(Request.class);
+        EasyMock.expect(request.getContext("request")).andReturn(
+                new HashMap<String, Object>());
         EasyMock.expect(request.isUserInRole("myrole")).andReturn(Boolean.TRUE);
         StringWriter writer = new StringWriter();
         EasyMock.expect(request.getWriter()).andReturn(writer);
@@ -126,6 +129,8 @@ public class BasicTilesContainerTest extends TestCase {
                 "This is the value", writer.toString());
         EasyMock.reset(request);
         request = EasyMock.createMock(Request.class);
+        EasyMock.expect(request.getContext("request")).andReturn(
+                new HashMap<String, Object>());
         EasyMock.expect(request.isUserInRole("myrole")).andReturn(Boolean.FALSE);
         EasyMock.replay(request);
         writer = new StringWriter();
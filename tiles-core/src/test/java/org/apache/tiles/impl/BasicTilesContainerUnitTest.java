@@ -25,9 +25,15 @@ import static org.easymock.classextension.EasyMock.*;
 import static org.junit.Assert.*;
 
 import java.io.IOException;
+import java.util.ArrayDeque;
 import java.util.Deque;
-import java.util.LinkedList;
+import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
 
 import org.apache.tiles.Attribute;
 import org.apache.tiles.AttributeContext;
@@ -37,6 +43,8 @@ import org.apache.tiles.definition.DefinitionsFactory;
 import org.apache.tiles.definition.NoSuchDefinitionException;
 import org.apache.tiles.evaluator.AttributeEvaluator;
 import org.apache.tiles.evaluator.AttributeEvaluatorFactory;
+import org.apache.tiles.preparer.AsyncViewPreparer;
+import org.apache.tiles.preparer.PreparerException;
 import org.apache.tiles.preparer.ViewPreparer;
 import org.apache.tiles.preparer.factory.NoSuchPreparerException;
 import org.apache.tiles.preparer.factory.PreparerFactory;
@@ -62,6 +70,12 @@ public class BasicTilesContainerUnitTest {
     private static final String ATTRIBUTE_CONTEXT_STACK =
         "org.apache.tiles.AttributeContext.STACK";
 
+    /**
+     * Name used to store the prefetching tasks of asynchronous preparers.
+     */
+    private static final String PREPARER_FUTURES =
+        "org.apache.tiles.preparer.AsyncViewPreparer.FUTURES";
+
     /**
      * The application context.
      */
@@ -179,7 +193,6 @@ public class BasicTilesContainerUnitTest {
 
         expect(request.getContext("request")).andReturn(requestScope);
         expect(requestScope.get(ATTRIBUTE_CONTEXT_STACK)).andReturn(deque);
-        expect(deque.isEmpty()).andReturn(false);
         expect(deque.peek()).andReturn(attributeContext);
         expect(attributeContext.getPreparer()).andReturn(null);
         expect(attributeContext.getTemplateAttribute()).andReturn(templateAttribute);
@@ -224,7 +237,6 @@ public class BasicTilesContainerUnitTest {
 
         expect(request.getContext("request")).andReturn(requestScope);
         expect(requestScope.get(ATTRIBUTE_CONTEXT_STACK)).andReturn(deque);
-        expect(deque.isEmpty()).andReturn(false);
         expect(deque.peek()).andReturn(attributeContext);
 
         replay(applicationContext, attributeEvaluatorFactory,
@@ -247,9 +259,9 @@ public class BasicTilesContainerUnitTest {
         Deque<AttributeContext> deque = createMock(Deque.class);
         AttributeContext attributeContext = createMock(AttributeContext.class);
 
-        expect(request.getContext("request")).andReturn(requestScope).times(2);
-        expect(requestScope.get(ATTRIBUTE_CONTEXT_STACK)).andReturn(deque).times(2);
-        expect(deque.isEmpty()).andReturn(true);
+        expect(request.getContext("request")).andReturn(requestScope);
+        expect(requestScope.get(ATTRIBUTE_CONTEXT_STACK)).andReturn(deque);
+        expect(deque.peek()).andReturn(null);
         deque.push(isA(BasicAttributeContext.class));
 
         replay(applicationContext, attributeEvaluatorFactory,
@@ -300,7 +312,6 @@ public class BasicTilesContainerUnitTest {
         expect(preparerFactory.getPreparer("preparer", request)).andReturn(preparer);
         expect(request.getContext("request")).andReturn(requestScope);
         expect(requestScope.get(ATTRIBUTE_CONTEXT_STACK)).andReturn(deque);
-        expect(deque.isEmpty()).andReturn(false);
         expect(deque.peek()).andReturn(attributeContext);
         preparer.execute(request, attributeContext);
 
@@ -357,9 +368,8 @@ public class BasicTilesContainerUnitTest {
         Attribute templateAttribute = Attribute.createTemplateAttribute("/my/template.jsp");
 
         expect(definitionsFactory.getDefinition("definition", request)).andReturn(definition);
-        expect(request.getContext("request")).andReturn(requestScope).times(3);
-        expect(requestScope.get(ATTRIBUTE_CONTEXT_STACK)).andReturn(deque).times(3);
-        expect(deque.isEmpty()).andReturn(false);
+        expect(request.getContext("request")).andReturn(requestScope);
+        expect(requestScope.get(ATTRIBUTE_CONTEXT_STACK)).andReturn(deque);
         expect(deque.peek()).andReturn(attributeContext);
         expect(attributeContext.getPreparer()).andReturn(null);
         expect(attributeContext.getTemplateAttribute()).andReturn(templateAttribute);
@@ -649,12 +659,12 @@ public class BasicTilesContainerUnitTest {
 
         expect(request.getContext("request")).andReturn(requestScope);
         expect(requestScope.get(ATTRIBUTE_CONTEXT_STACK)).andReturn(null);
-        expect(requestScope.put(eq(ATTRIBUTE_CONTEXT_STACK), isA(LinkedList.class))).andReturn(null);
+        expect(requestScope.put(eq(ATTRIBUTE_CONTEXT_STACK), isA(ArrayDeque.class))).andReturn(null);
 
         replay(applicationContext, attributeEvaluatorFactory,
                 definitionsFactory, preparerFactory, rendererFactory, request,
                 requestScope);
-        assertTrue(container.getContextStack(request) instanceof LinkedList);
+        assertTrue(container.getContextStack(request) instanceof ArrayDeque);
         verify(applicationContext, attributeEvaluatorFactory,
                 definitionsFactory, preparerFactory, rendererFactory, request,
                 requestScope);
@@ -721,7 +731,6 @@ public class BasicTilesContainerUnitTest {
 
         expect(request.getContext("request")).andReturn(requestScope);
         expect(requestScope.get(ATTRIBUTE_CONTEXT_STACK)).andReturn(deque);
-        expect(deque.isEmpty()).andReturn(false);
         expect(deque.peek()).andReturn(attributeContext);
 
         replay(applicationContext, attributeEvaluatorFactory,
@@ -745,7 +754,7 @@ public class BasicTilesContainerUnitTest {
 
         expect(request.getContext("request")).andReturn(requestScope);
         expect(requestScope.get(ATTRIBUTE_CONTEXT_STACK)).andReturn(deque);
-        expect(deque.isEmpty()).andReturn(true);
+        expect(deque.peek()).andReturn(null);
 
         replay(applicationContext, attributeEvaluatorFactory,
                 definitionsFactory, preparerFactory, rendererFactory, request,
@@ -774,9 +783,8 @@ public class BasicTilesContainerUnitTest {
 
         Attribute templateAttribute = Attribute.createTemplateAttribute("/my/template.jsp");
 
-        expect(request.getContext("request")).andReturn(requestScope).times(3);
-        expect(requestScope.get(ATTRIBUTE_CONTEXT_STACK)).andReturn(deque).times(3);
-        expect(deque.isEmpty()).andReturn(false);
+        expect(request.getContext("request")).andReturn(requestScope);
+        expect(requestScope.get(ATTRIBUTE_CONTEXT_STACK)).andReturn(deque);
         expect(deque.peek()).andReturn(attributeContext);
         expect(attributeContext.getPreparer()).andReturn(null);
         expect(attributeContext.getTemplateAttribute()).andReturn(templateAttribute);
@@ -817,9 +825,8 @@ public class BasicTilesContainerUnitTest {
 
         Attribute templateAttribute = Attribute.createTemplateAttribute("/my/template.jsp");
 
-        expect(request.getContext("request")).andReturn(requestScope).times(3);
-        expect(requestScope.get(ATTRIBUTE_CONTEXT_STACK)).andReturn(deque).times(3);
-        expect(deque.isEmpty()).andReturn(false);
+        expect(request.getContext("request")).andReturn(requestScope);
+        expect(requestScope.get(ATTRIBUTE_CONTEXT_STACK)).andReturn(deque);
         expect(deque.peek()).andReturn(attributeContext);
         expect(attributeContext.getPreparer()).andReturn(null);
         expect(attributeContext.getTemplateAttribute()).andReturn(templateAttribute);
@@ -919,4 +926,135 @@ public class BasicTilesContainerUnitTest {
                     templateAttribute, renderer);
         }
     }
+
+    /**
+     * Tests that the prefetching tasks of asynchronous preparers of nested
+     * definitions are started on the executor when the outer definition is
+     * rendered, and that the tasks that have not been used are cancelled when
+     * the rendering ends.
+     *
+     * @throws IOException If something goes wrong.
+     * @throws InterruptedException If interrupted.
+     */
+    @SuppressWarnings("unchecked")
+    @Test
+    public void testRenderAsyncPreparers() throws IOException, InterruptedException {
+        Request request = createMock(Request.class);
+        AsyncViewPreparer preparer1 = createMock(AsyncViewPreparer.class);
+        AsyncViewPreparer preparer2 = createMock(AsyncViewPreparer.class);
+        Renderer renderer = createMock(Renderer.class);
+        AttributeEvaluator evaluator = createMock(AttributeEvaluator.class);
+        Map<String, Object> requestScope = new HashMap<String, Object>();
+        Definition outer = new Definition("outer", Attribute
+                .createTemplateAttribute("/layout.jsp"), null);
+        outer.setPreparer("preparer1");
+        outer.putAttribute("body", new Attribute("inner", null, null, "definition"));
+        outer.putAttribute("footer", new Attribute("footer"));
+        Definition inner = new Definition("inner", Attribute
+                .createTemplateAttribute("/body.jsp"), null);
+        inner.setPreparer("preparer2");
+        final AtomicReference<Thread> prefetchThread = new AtomicReference<Thread>();
+        Callable<String> task1 = new Callable<String>() {
+
+            public String call() {
+                prefetchThread.set(Thread.currentThread());
+                return "data1";
+            }
+        };
+        Callable<String> task2 = new Callable<String>() {
+
+            public String call() throws InterruptedException {
+                Thread.sleep(TimeUnit.SECONDS.toMillis(10));
+                return "data2";
+            }
+        };
+
+        expect(request.getContext("request")).andReturn(requestScope).anyTimes();
+        expect(definitionsFactory.getDefinition("outer", request)).andReturn(outer);
+        expect(definitionsFactory.getDefinition("inner", request)).andReturn(inner);
+        expect(preparerFactory.getPreparer("preparer1", request)).andReturn(preparer1).times(2);
+        expect(preparerFactory.getPreparer("preparer2", request)).andReturn(preparer2);
+        expect(preparer1.prefetch(request)).andReturn((Callable) task1);
+        expect(preparer2.prefetch(request)).andReturn((Callable) task2);
+        preparer1.execute(same(request), isA(AttributeContext.class), eq("data1"));
+        expect(rendererFactory.getRenderer("template")).andReturn(renderer);
+        expect(attributeEvaluatorFactory.getAttributeEvaluator(isA(Attribute.class)))
+                .andReturn(evaluator);
+        expect(evaluator.evaluate(isA(Attribute.class), same(request))).andReturn(
+                "/layout.jsp");
+        renderer.render("/layout.jsp", request);
+
+        replay(applicationContext, attributeEvaluatorFactory, evaluator,
+                definitionsFactory, preparerFactory, rendererFactory, request,
+                preparer1, preparer2, renderer);
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        container.setPreparerExecutor(executor);
+        try {
+            container.render("outer", request);
+        } finally {
+            executor.shutdown();
+        }
+        assertTrue(executor.awaitTermination(5, TimeUnit.SECONDS));
+        assertNotNull(prefetchThread.get());
+        assertNotSame(Thread.currentThread(), prefetchThread.get());
+        assertFalse(requestScope.containsKey(PREPARER_FUTURES));
+        verify(applicationContext, attributeEvaluatorFactory, evaluator,
+                definitionsFactory, preparerFactory, rendererFactory, request,
+                preparer1, preparer2, renderer);
+    }
+
+    /**
+     * Tests that the prefetching tasks already started are cancelled when
+     * starting another one fails.
+     *
+     * @throws InterruptedException If interrupted.
+     */
+    @SuppressWarnings("unchecked")
+    @Test
+    public void testRenderAsyncPreparersFailure() throws InterruptedException {
+        Request request = createMock(Request.class);
+        AsyncViewPreparer preparer1 = createMock(AsyncViewPreparer.class);
+        Map<String, Object> requestScope = new HashMap<String, Object>();
+        Definition outer = new Definition("outer", Attribute
+                .createTemplateAttribute("/layout.jsp"), null);
+        outer.setPreparer("preparer1");
+        outer.putAttribute("body", new Attribute("inner", null, null, "definition"));
+        Definition inner = new Definition("inner", Attribute
+                .createTemplateAttribute("/body.jsp"), null);
+        inner.setPreparer("preparer2");
+        Callable<String> task1 = new Callable<String>() {
+
+            public String call() throws InterruptedException {
+                Thread.sleep(TimeUnit.SECONDS.toMillis(10));
+                return "data1";
+            }
+        };
+
+        expect(request.getContext("request")).andReturn(requestScope).anyTimes();
+        expect(definitionsFactory.getDefinition("outer", request)).andReturn(outer);
+        expect(definitionsFactory.getDefinition("inner", request)).andReturn(inner);
+        expect(preparerFactory.getPreparer("preparer1", request)).andReturn(preparer1);
+        expect(preparerFactory.getPreparer("preparer2", request)).andThrow(
+                new PreparerException("Cannot create preparer2"));
+        expect(preparer1.prefetch(request)).andReturn((Callable) task1);
+
+        replay(applicationContext, attributeEvaluatorFactory,
+                definitionsFactory, preparerFactory, rendererFactory, request,
+                preparer1);
+        ExecutorService executor = Executors.newFixedThreadPool(1);
+        container.setPreparerExecutor(executor);
+        try {
+            container.render("outer", request);
+            fail("The preparer exception has not been thrown");
+        } catch (PreparerException e) {
+            // The exception is expected.
+        } finally {
+            executor.shutdown();
+        }
+        assertTrue(executor.awaitTermination(5, TimeUnit.SECONDS));
+        assertFalse(requestScope.containsKey(PREPARER_FUTURES));
+        verify(applicationContext, attributeEvaluatorFactory,
+                definitionsFactory, preparerFactory, rendererFactory, request,
+                preparer1);
+    }
 }
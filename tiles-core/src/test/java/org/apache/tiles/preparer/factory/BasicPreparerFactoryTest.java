@@ -20,6 +20,8 @@
  */
 package org.apache.tiles.preparer.factory;
 
+import java.util.Arrays;
+
 import org.apache.tiles.AttributeContext;
 import org.apache.tiles.preparer.ViewPreparer;
 import org.apache.tiles.request.Request;
@@ -58,6 +60,31 @@ public class BasicPreparerFactoryTest extends TestCase {
         assertNull(p);
     }
 
+    /**
+     * Tests that preparers are created once and that missing preparers are
+     * remembered.
+     */
+    public void testGetPreparerCached() {
+        final String name = MockViewPreparer.class.getName();
+        final String missingName = "org.doesnotexist.Class";
+        final int[] creations = new int[1];
+        factory = new BasicPreparerFactory() {
+
+            @Override
+            protected ViewPreparer createPreparer(String preparerName) {
+                creations[0]++;
+                return super.createPreparer(preparerName);
+            }
+        };
+        factory.preloadPreparers(Arrays.asList(name, missingName));
+        assertEquals(2, creations[0]);
+        ViewPreparer p = factory.getPreparer(name, null);
+        assertTrue(p instanceof MockViewPreparer);
+        assertSame(p, factory.getPreparer(name, null));
+        assertNull(factory.getPreparer(missingName, null));
+        assertEquals(2, creations[0]);
+    }
+
     /**
      * Mock view preparer.
      *
@@ -28,6 +28,7 @@ import java.util.Map;
 
 import org.apache.tiles.TilesContainer;
 import org.apache.tiles.access.TilesAccess;
+import org.apache.tiles.definition.dao.BackgroundRefreshMonitor;
 import org.apache.tiles.factory.AbstractTilesContainerFactory;
 import org.apache.tiles.request.ApplicationAccess;
 import org.apache.tiles.request.ApplicationContext;
@@ -82,6 +83,7 @@ public class AbstractTilesInitializerTest {
         expect(scope.put(ApplicationAccess.APPLICATION_CONTEXT_ATTRIBUTE,
                 context)).andReturn(null);
         expect(scope.put(TilesAccess.CONTAINER_ATTRIBUTE, container)).andReturn(null);
+        expect(scope.remove(BackgroundRefreshMonitor.MONITORS_ATTRIBUTE_NAME)).andReturn(null);
         expect(scope.remove(TilesAccess.CONTAINER_ATTRIBUTE)).andReturn(container);
 
         replay(containerFactory, context, container, scope);
@@ -24,9 +24,13 @@ import static org.junit.Assert.*;
 
 import java.beans.FeatureDescriptor;
 import java.beans.PropertyDescriptor;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
 import java.util.ArrayList;
 import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
 
 import org.apache.tiles.request.ApplicationContext;
@@ -103,4 +107,27 @@ public class CombinedBeanInfoTest {
         assertEquals(applicationMap.keySet(), beanInfo.getProperties(ApplicationContext.class));
     }
 
+    /**
+     * Test method for {@link org.apache.tiles.util.CombinedBeanInfo#getPropertyReader(Class, String)}.
+     */
+    @Test
+    public void testGetPropertyReader() {
+        Request request = (Request) Proxy.newProxyInstance(getClass()
+                .getClassLoader(), new Class<?>[] {Request.class },
+                new InvocationHandler() {
+
+                    public Object invoke(Object proxy, Method method,
+                            Object[] args) {
+                        return Locale.ITALY;
+                    }
+                });
+        BeanPropertyReader reader = beanInfo.getPropertyReader(Request.class,
+                "requestLocale");
+        assertEquals("requestLocale", reader.getName());
+        assertEquals(Locale.class, reader.getType());
+        assertEquals(Locale.ITALY, reader.getValue(request));
+        assertNull(beanInfo.getPropertyReader(Request.class, "notAProperty"));
+        assertNull(beanInfo.getPropertyReader(ApplicationContext.class,
+                "requestLocale"));
+    }
 }
@@ -20,11 +20,15 @@
  */
 package org.apache.tiles.el;
 
+import java.util.Map;
+
 import javax.el.ELResolver;
 import javax.el.ExpressionFactory;
 import javax.el.ValueExpression;
 
 import org.apache.tiles.evaluator.AbstractAttributeEvaluator;
+import org.apache.tiles.evaluator.ExpressionCache;
+import org.apache.tiles.evaluator.StaticExpressionEvaluator;
 import org.apache.tiles.request.ApplicationContext;
 import org.apache.tiles.request.Request;
 
@@ -32,12 +36,17 @@ import org.apache.tiles.request.Request;
  * Evaluates string expression with typical EL syntax.<br>
  * You can use normal EL syntax, knowing that the root objects are
  * {@link Request}, {@link ApplicationContext} and beans
- * contained in request, session and application scope.
+ * contained in request, session and application scope.<br>
+ * Parsed expressions are cached by text, since the function and variable
+ * mappers do not change, and the EL context is created once per request.
+ * Expressions without <code>${...}</code> or <code>#{...}</code> are plain
+ * text and are recognized as static.
  *
  * @version $Rev$ $Date$
  * @since 2.2.1
  */
-public class ELAttributeEvaluator extends AbstractAttributeEvaluator {
+public class ELAttributeEvaluator extends AbstractAttributeEvaluator
+        implements StaticExpressionEvaluator {
 
     /**
      * Initialization parameter to decide the implementation of
@@ -48,6 +57,15 @@ public class ELAttributeEvaluator extends AbstractAttributeEvaluator {
     public static final String EXPRESSION_FACTORY_FACTORY_INIT_PARAM =
         "org.apache.tiles.evaluator.el.ExpressionFactoryFactory";
 
+    /**
+     * The name of the request attribute that stores the EL context of the
+     * request.
+     *
+     * @since 3.0.6
+     */
+    public static final String EL_CONTEXT_ATTRIBUTE_NAME =
+        ELAttributeEvaluator.class.getName() + ".EL_CONTEXT";
+
     /**
      * The EL expression factory.
      *
@@ -62,6 +80,12 @@ public class ELAttributeEvaluator extends AbstractAttributeEvaluator {
      */
     protected ELResolver resolver;
 
+    /**
+     * The cache of parsed expressions.
+     */
+    private ExpressionCache<ValueExpression> expressionCache =
+        new ExpressionCache<ValueExpression>();
+
     /**
      * Constructor.
      *
@@ -90,15 +114,78 @@ public class ELAttributeEvaluator extends AbstractAttributeEvaluator {
         this.resolver = resolver;
     }
 
+    /**
+     * Sets the maximum number of cached parsed expressions.
+     *
+     * @param expressionCacheSize The maximum size of the cache. <code>0</code>
+     * disables caching.
+     * @since 3.0.6
+     */
+    public void setExpressionCacheSize(int expressionCacheSize) {
+        expressionCache = new ExpressionCache<ValueExpression>(expressionCacheSize);
+    }
+
+    /**
+     * Returns the cache of parsed expressions, for instance to read its hit and
+     * miss counters.
+     *
+     * @return The expression cache.
+     * @since 3.0.6
+     */
+    public ExpressionCache<ValueExpression> getExpressionCache() {
+        return expressionCache;
+    }
+
     /** {@inheritDoc} */
     public Object evaluate(String expression, Request request) {
-        ELContextImpl context = new ELContextImpl(resolver);
-        context.putContext(Request.class, request);
-        context.putContext(ApplicationContext.class,
-                request.getApplicationContext());
-        ValueExpression valueExpression = expressionFactory
-                .createValueExpression(context, expression, Object.class);
+        ELContextImpl context = getELContext(request);
+        ValueExpression valueExpression = expressionCache.get(expression);
+        if (valueExpression == null) {
+            valueExpression = expressionCache.put(expression, expressionFactory
+                    .createValueExpression(context, expression, Object.class));
+        }
 
         return valueExpression.getValue(context);
     }
+
+    /** {@inheritDoc} */
+    public boolean isStatic(String expression) {
+        return expression != null && expression.indexOf("${") < 0
+                && expression.indexOf("#{") < 0 && expression.indexOf('\\') < 0;
+    }
+
+    /** {@inheritDoc} */
+    public Object evaluateStatic(String expression) {
+        return expression;
+    }
+
+    /**
+     * Returns the EL context of the request, creating it the first time.
+     * The context always refers to the passed request object, even when it is
+     * a different wrapper of the same request.
+     *
+     * @param request The request.
+     * @return The EL context.
+     * @since 3.0.6
+     */
+    protected ELContextImpl getELContext(Request request) {
+        Map<String, Object> requestScope = request.getContext("request");
+        ELContextImpl context = null;
+        if (requestScope != null) {
+            context = (ELContextImpl) requestScope.get(EL_CONTEXT_ATTRIBUTE_NAME);
+        }
+        if (context == null || context.getELResolver() != resolver) {
+            context = new ELContextImpl(resolver);
+            if (requestScope != null) {
+                requestScope.put(EL_CONTEXT_ATTRIBUTE_NAME, context);
+            }
+        }
+        if (context.getContext(Request.class) != request) {
+            // The same request may be evaluated through different wrappers.
+            context.putContext(Request.class, request);
+            context.putContext(ApplicationContext.class,
+                    request.getApplicationContext());
+        }
+        return context;
+    }
 }
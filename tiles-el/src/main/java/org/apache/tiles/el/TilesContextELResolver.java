@@ -24,10 +24,13 @@ import java.beans.FeatureDescriptor;
 import java.util.Iterator;
 
 import javax.el.ELContext;
+import javax.el.ELException;
 import javax.el.ELResolver;
 
 import org.apache.tiles.request.ApplicationContext;
 import org.apache.tiles.request.Request;
+import org.apache.tiles.request.reflect.CannotAccessMethodException;
+import org.apache.tiles.util.BeanPropertyReader;
 import org.apache.tiles.util.CombinedBeanInfo;
 
 /**
@@ -116,17 +119,23 @@ public class TilesContextELResolver extends ELResolver {
             return null;
         }
 
-        Object retValue = null;
+        if (!(property instanceof String)) {
+            return null;
+        }
 
-        if (requestBeanInfo.getProperties(Request.class).contains(property)) {
-            Request request = (Request) context
-                    .getContext(Request.class);
-            retValue = beanElResolver.getValue(context, request, property);
-        } else if (requestBeanInfo.getProperties(ApplicationContext.class)
-                .contains(property)) {
-            ApplicationContext applicationContext = (ApplicationContext) context
-                    .getContext(ApplicationContext.class);
-            retValue = beanElResolver.getValue(context, applicationContext, property);
+        Object retValue = null;
+        String propertyName = (String) property;
+        BeanPropertyReader reader = requestBeanInfo.getPropertyReader(
+                Request.class, propertyName);
+        if (reader != null) {
+            retValue = getValue(reader, context.getContext(Request.class));
+        } else {
+            reader = requestBeanInfo.getPropertyReader(
+                    ApplicationContext.class, propertyName);
+            if (reader != null) {
+                retValue = getValue(reader, context
+                        .getContext(ApplicationContext.class));
+            }
         }
 
         if (retValue != null) {
@@ -136,6 +145,22 @@ public class TilesContextELResolver extends ELResolver {
         return retValue;
     }
 
+    /**
+     * Reads a property, wrapping the failures in {@link ELException}, as
+     * {@link javax.el.BeanELResolver} does.
+     *
+     * @param reader The reader of the property.
+     * @param bean The bean to read the property from.
+     * @return The value of the property.
+     */
+    private Object getValue(BeanPropertyReader reader, Object bean) {
+        try {
+            return reader.getValue(bean);
+        } catch (CannotAccessMethodException e) {
+            throw new ELException(e.getMessage(), e);
+        }
+    }
+
     /** {@inheritDoc} */
     @Override
     public boolean isReadOnly(ELContext context, Object base, Object property) {
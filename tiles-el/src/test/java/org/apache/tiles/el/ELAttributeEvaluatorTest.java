@@ -171,6 +171,70 @@ public class ELAttributeEvaluatorTest extends TestCase {
                 .evaluate(expression, request));
     }
 
+    /**
+     * Tests that {@link ELAttributeEvaluator#evaluate(String, Request)} parses
+     * each expression once and reuses the EL context of the request.
+     */
+    public void testEvaluateCached() {
+        assertEquals("value", evaluator.evaluate("${object1}", request));
+        Object context = request.getContext("request").get(
+                ELAttributeEvaluator.EL_CONTEXT_ATTRIBUTE_NAME);
+        assertNotNull(context);
+        assertEquals("value", evaluator.evaluate("${object1}", request));
+        assertEquals(new Integer(1), evaluator.evaluate("${object2}", request));
+        assertSame(context, request.getContext("request").get(
+                ELAttributeEvaluator.EL_CONTEXT_ATTRIBUTE_NAME));
+        assertEquals(2, evaluator.getExpressionCache().size());
+        assertEquals(1, evaluator.getExpressionCache().getHits());
+        assertEquals(2, evaluator.getExpressionCache().getMisses());
+
+        evaluator.setExpressionCacheSize(0);
+        assertEquals("value", evaluator.evaluate("${object1}", request));
+        assertEquals(0, evaluator.getExpressionCache().size());
+    }
+
+    /**
+     * Tests that {@link ELAttributeEvaluator#evaluate(String, Request)} uses
+     * the passed request when the EL context is shared by another request
+     * object with the same request scope.
+     */
+    public void testEvaluateAnotherRequest() {
+        assertEquals(new Integer(1), evaluator.evaluate("${sessionScope.object2}", request));
+        Object context = request.getContext("request").get(
+                ELAttributeEvaluator.EL_CONTEXT_ATTRIBUTE_NAME);
+
+        Map<String, Object> sessionScope = new HashMap<String, Object>();
+        sessionScope.put("object2", new Integer(2));
+        Request otherRequest = EasyMock.createMock(Request.class);
+        ApplicationContext applicationContext = EasyMock
+                .createMock(ApplicationContext.class);
+        EasyMock.expect(otherRequest.getContext("request")).andReturn(
+                request.getContext("request")).anyTimes();
+        EasyMock.expect(otherRequest.getContext("session")).andReturn(sessionScope)
+                .anyTimes();
+        EasyMock.expect(otherRequest.getApplicationContext()).andReturn(
+                applicationContext).anyTimes();
+        EasyMock.replay(otherRequest, applicationContext);
+
+        assertEquals(new Integer(2), evaluator.evaluate("${sessionScope.object2}",
+                otherRequest));
+        assertSame(context, request.getContext("request").get(
+                ELAttributeEvaluator.EL_CONTEXT_ATTRIBUTE_NAME));
+        assertEquals(new Integer(1), evaluator.evaluate("${sessionScope.object2}", request));
+        EasyMock.verify(otherRequest, applicationContext);
+    }
+
+    /**
+     * Tests {@link ELAttributeEvaluator#isStatic(String)}.
+     */
+    public void testIsStatic() {
+        assertTrue(evaluator.isStatic("/layout.jsp"));
+        assertEquals("/layout.jsp", evaluator.evaluateStatic("/layout.jsp"));
+        assertFalse(evaluator.isStatic("${object1}"));
+        assertFalse(evaluator.isStatic("/#{object1}.jsp"));
+        assertFalse(evaluator.isStatic("\\${object1}"));
+    }
+
     /**
      * This is The Brillant Paula Bean (sic) just like it was posted to:
      * http://thedailywtf.com/Articles/The_Brillant_Paula_Bean.aspx
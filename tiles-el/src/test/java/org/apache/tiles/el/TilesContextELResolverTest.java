@@ -30,6 +30,7 @@ import java.util.LinkedHashMap;
 import java.util.Map;
 
 import javax.el.ELContext;
+import javax.el.ELException;
 import javax.el.ELResolver;
 
 import org.apache.tiles.request.ApplicationContext;
@@ -138,8 +139,8 @@ public class TilesContextELResolverTest {
 
         expect(elContext.getContext(Request.class)).andReturn(request);
         expect(elContext.getContext(ApplicationContext.class)).andReturn(applicationContext);
-        expect(beanElResolver.getValue(elContext, request, "responseCommitted")).andReturn(true);
-        expect(beanElResolver.getValue(elContext, applicationContext, "initParams")).andReturn(map);
+        expect(request.isResponseCommitted()).andReturn(true);
+        expect(applicationContext.getInitParams()).andReturn(map);
         elContext.setPropertyResolved(true);
         expectLastCall().times(2);
 
@@ -150,6 +151,44 @@ public class TilesContextELResolverTest {
         verify(beanElResolver, elContext, request, applicationContext, map);
     }
 
+    /**
+     * Tests {@link TilesContextBeanELResolver#getValue(ELContext, Object, Object)}
+     * when the value is <code>null</code>, so that the next resolvers are
+     * used.
+     */
+    @Test
+    public void testGetValueNull() {
+        ELContext elContext = createMock(ELContext.class);
+        ApplicationContext applicationContext = createMock(ApplicationContext.class);
+
+        expect(elContext.getContext(ApplicationContext.class)).andReturn(applicationContext);
+        expect(applicationContext.getInitParams()).andReturn(null);
+
+        replay(beanElResolver, elContext, applicationContext);
+        assertNull(resolver.getValue(elContext, null, "initParams"));
+        verify(beanElResolver, elContext, applicationContext);
+    }
+
+    /**
+     * Tests {@link TilesContextBeanELResolver#getValue(ELContext, Object, Object)}
+     * when the getter throws an exception.
+     */
+    @Test(expected = ELException.class)
+    public void testGetValueException() {
+        ELContext elContext = createMock(ELContext.class);
+        Request request = createMock(Request.class);
+
+        expect(elContext.getContext(Request.class)).andReturn(request);
+        expect(request.isResponseCommitted()).andThrow(new IllegalStateException());
+
+        replay(beanElResolver, elContext, request);
+        try {
+            resolver.getValue(elContext, null, "responseCommitted");
+        } finally {
+            verify(beanElResolver, elContext, request);
+        }
+    }
+
     /**
      * Test method for
      * {@link TilesContextELResolver#isReadOnly(javax.el.ELContext, java.lang.Object, java.lang.Object)}.
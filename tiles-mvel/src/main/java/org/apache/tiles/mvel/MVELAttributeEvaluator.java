@@ -21,19 +21,29 @@
 
 package org.apache.tiles.mvel;
 
+import java.io.Serializable;
+
 import org.apache.tiles.context.TilesRequestContextHolder;
 import org.apache.tiles.evaluator.AbstractAttributeEvaluator;
+import org.apache.tiles.evaluator.ExpressionCache;
+import org.apache.tiles.evaluator.StaticExpressionEvaluator;
 import org.apache.tiles.request.Request;
 import org.mvel2.MVEL;
 import org.mvel2.integration.VariableResolverFactory;
 
 /**
- * Allows to use MVEL as the language to evaluate attribute values.
+ * Allows to use MVEL as the language to evaluate attribute values.<br>
+ * By default expressions are interpreted at every evaluation. If
+ * {@link #setExpressionCacheSize(int)} enables the cache, expressions are
+ * compiled once and their compiled form is cached by text.
+ * Simple string literals, such as <code>'text'</code>, are recognized as
+ * static.
  *
  * @version $Rev$ $Date$
  * @since 2.2.0
  */
-public class MVELAttributeEvaluator extends AbstractAttributeEvaluator {
+public class MVELAttributeEvaluator extends AbstractAttributeEvaluator
+        implements StaticExpressionEvaluator {
 
     /**
      * Holds the Tiles request context of the current thread.
@@ -47,6 +57,12 @@ public class MVELAttributeEvaluator extends AbstractAttributeEvaluator {
      */
     private VariableResolverFactory variableResolverFactory;
 
+    /**
+     * The cache of compiled expressions.
+     */
+    private ExpressionCache<Serializable> expressionCache =
+        new ExpressionCache<Serializable>(0);
+
     /**
      * Constructor.
      *
@@ -61,12 +77,75 @@ public class MVELAttributeEvaluator extends AbstractAttributeEvaluator {
         this.variableResolverFactory = variableResolverFactory;
     }
 
+    /**
+     * Sets the maximum number of cached compiled expressions. Compilation is
+     * disabled by default. Compiled expressions are run by the default MVEL
+     * optimizer; where its bytecode generation is not supported by the JVM,
+     * call <code>OptimizerFactory.setDefaultOptimizer("reflective")</code>
+     * before enabling compilation.
+     *
+     * @param expressionCacheSize The maximum size of the cache. <code>0</code>,
+     * the default, disables compilation, and expressions are interpreted.
+     * @since 3.0.6
+     */
+    public void setExpressionCacheSize(int expressionCacheSize) {
+        expressionCache = new ExpressionCache<Serializable>(expressionCacheSize);
+    }
+
+    /**
+     * Returns the cache of compiled expressions, for instance to read its hit
+     * and miss counters.
+     *
+     * @return The expression cache.
+     * @since 3.0.6
+     */
+    public ExpressionCache<Serializable> getExpressionCache() {
+        return expressionCache;
+    }
+
     /** {@inheritDoc} */
     public Object evaluate(String expression, Request request) {
         if (expression == null) {
             throw new IllegalArgumentException("The expression parameter cannot be null");
         }
         requestHolder.setTilesRequestContext(request);
-        return MVEL.eval(expression, variableResolverFactory);
+        Serializable compiledExpression = expressionCache.get(expression);
+        if (compiledExpression == null) {
+            if (expressionCache.getMaxSize() == 0) {
+                return MVEL.eval(expression, variableResolverFactory);
+            }
+            compiledExpression = expressionCache.put(expression,
+                    MVEL.compileExpression(expression));
+        }
+        return MVEL.executeExpression(compiledExpression, variableResolverFactory);
+    }
+
+    /** {@inheritDoc} */
+    public boolean isStatic(String expression) {
+        if (expression == null) {
+            return false;
+        }
+        String trimmed = expression.trim();
+        int length = trimmed.length();
+        if (length < 2) {
+            return false;
+        }
+        char quote = trimmed.charAt(0);
+        if ((quote != '\'' && quote != '"') || trimmed.charAt(length - 1) != quote) {
+            return false;
+        }
+        for (int i = 1; i < length - 1; i++) {
+            char c = trimmed.charAt(i);
+            if (c == '\'' || c == '"' || c == '\\') {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /** {@inheritDoc} */
+    public Object evaluateStatic(String expression) {
+        String trimmed = expression.trim();
+        return trimmed.substring(1, trimmed.length() - 1);
     }
 }
@@ -20,7 +20,7 @@
  */
 package org.apache.tiles.mvel;
 
-import java.util.HashMap;
+import java.util.concurrent.ConcurrentHashMap;
 
 import org.apache.tiles.context.TilesRequestContextHolder;
 import org.mvel2.UnresolveablePropertyException;
@@ -28,7 +28,9 @@ import org.mvel2.integration.VariableResolver;
 import org.mvel2.integration.impl.BaseVariableResolverFactory;
 
 /**
- * A base variable resolver factory that is read-only.
+ * A base variable resolver factory that is read-only.<br>
+ * Variable resolvers do not hold any request state, so they are created once
+ * per variable name and shared among threads.
  *
  * @version $Rev$ $Date$
  */
@@ -48,7 +50,7 @@ public abstract class ReadOnlyVariableResolverFactory extends
      */
     public ReadOnlyVariableResolverFactory(TilesRequestContextHolder requestHolder) {
         this.requestHolder = requestHolder;
-        variableResolvers = new HashMap<String, VariableResolver>();
+        variableResolvers = new ConcurrentHashMap<String, VariableResolver>();
     }
 
     /** {@inheritDoc} */
@@ -62,7 +64,6 @@ public abstract class ReadOnlyVariableResolverFactory extends
     /** {@inheritDoc} */
     public VariableResolver createVariable(String name, Object value,
             Class<?> type) {
-        variableResolvers = new HashMap<String, VariableResolver>();
         if (nextFactory != null) {
             return nextFactory.createVariable(name, value, type);
         }
@@ -77,16 +78,17 @@ public abstract class ReadOnlyVariableResolverFactory extends
     /** {@inheritDoc} */
     @Override
     public VariableResolver getVariableResolver(String name) {
-        if (isResolveable(name)) {
-            if (variableResolvers != null && variableResolvers.containsKey(name)) {
-                return variableResolvers.get(name);
-            } else if (isTarget(name)) {
-                VariableResolver variableResolver = createVariableResolver(name);
-                variableResolvers.put(name, variableResolver);
-                return variableResolver;
-            } else if (nextFactory != null) {
-                return nextFactory.getVariableResolver(name);
+        if (isTarget(name)) {
+            VariableResolver variableResolver = variableResolvers.get(name);
+            if (variableResolver == null) {
+                variableResolver = createVariableResolver(name);
+                if (variableResolver != null) {
+                    variableResolvers.put(name, variableResolver);
+                }
             }
+            return variableResolver;
+        } else if (isNextResolveable(name)) {
+            return nextFactory.getVariableResolver(name);
         }
 
         throw new UnresolveablePropertyException("unable to resolve variable '" + name + "'");
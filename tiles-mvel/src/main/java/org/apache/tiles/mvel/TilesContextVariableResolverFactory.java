@@ -21,14 +21,10 @@
 
 package org.apache.tiles.mvel;
 
-import java.beans.PropertyDescriptor;
-import java.lang.reflect.InvocationTargetException;
-import java.lang.reflect.Method;
-
 import org.apache.tiles.context.TilesRequestContextHolder;
 import org.apache.tiles.request.ApplicationContext;
 import org.apache.tiles.request.Request;
-import org.apache.tiles.request.reflect.CannotAccessMethodException;
+import org.apache.tiles.util.BeanPropertyReader;
 import org.apache.tiles.util.CombinedBeanInfo;
 import org.mvel2.integration.VariableResolver;
 
@@ -71,13 +67,13 @@ public class TilesContextVariableResolverFactory extends
     @Override
     public VariableResolver createVariableResolver(String name) {
         VariableResolver resolver = null;
-        PropertyDescriptor descriptor = requestBeanInfo.getMappedDescriptors(Request.class).get(name);
-        if (descriptor != null) {
-            resolver = new RequestVariableResolver(name, descriptor);
+        BeanPropertyReader reader = requestBeanInfo.getPropertyReader(Request.class, name);
+        if (reader != null) {
+            resolver = new RequestVariableResolver(name, reader);
         } else {
-            descriptor = requestBeanInfo.getMappedDescriptors(ApplicationContext.class).get(name);
-            if (descriptor != null) {
-                resolver = new ApplicationVariableResolver(name, descriptor);
+            reader = requestBeanInfo.getPropertyReader(ApplicationContext.class, name);
+            if (reader != null) {
+                resolver = new ApplicationVariableResolver(name, reader);
             }
         }
         return resolver;
@@ -92,47 +88,31 @@ public class TilesContextVariableResolverFactory extends
     private class RequestVariableResolver extends ReadOnlyVariableResolver {
 
         /**
-         * The property descriptor.
+         * The property reader.
          */
-        private PropertyDescriptor descriptor;
+        private BeanPropertyReader reader;
 
         /**
          * Constructor.
          *
          * @param name The name of the property.
-         * @param descriptor The property descriptor.
-         * @since 2.2.0
+         * @param reader The property reader.
+         * @since 3.0.6
          */
-        public RequestVariableResolver(String name, PropertyDescriptor descriptor) {
+        public RequestVariableResolver(String name, BeanPropertyReader reader) {
             super(name);
-            this.descriptor = descriptor;
+            this.reader = reader;
         }
 
         /** {@inheritDoc} */
         @SuppressWarnings("rawtypes")
         public Class getType() {
-            return descriptor.getPropertyType();
+            return reader.getType();
         }
 
         /** {@inheritDoc} */
         public Object getValue() {
-            Method method = descriptor.getReadMethod();
-            try {
-                return method.invoke(requestHolder.getTilesRequestContext());
-            } catch (IllegalArgumentException e) {
-                throw new CannotAccessMethodException(
-                        "Arguments are wrong for property '"
-                                + descriptor.getName() + "'", e);
-            } catch (IllegalAccessException e) {
-                throw new CannotAccessMethodException(
-                        "Cannot access getter method for property '"
-                                + descriptor.getName() + "'", e);
-            } catch (InvocationTargetException e) {
-                throw new CannotAccessMethodException(
-                        "The getter method for property '"
-                                + descriptor.getName() + "' threw an exception",
-                        e);
-            }
+            return reader.getValue(requestHolder.getTilesRequestContext());
         }
     }
 
@@ -146,50 +126,34 @@ public class TilesContextVariableResolverFactory extends
     private class ApplicationVariableResolver extends ReadOnlyVariableResolver {
 
         /**
-         * The property descriptor.
+         * The property reader.
          *
-         * @since 2.2.0
+         * @since 3.0.6
          */
-        private PropertyDescriptor descriptor;
+        private BeanPropertyReader reader;
 
         /**
          * Constructor.
          *
          * @param name The name of the property.
-         * @param descriptor The property descriptor.
-         * @since 2.2.0
+         * @param reader The property reader.
+         * @since 3.0.6
          */
-        public ApplicationVariableResolver(String name, PropertyDescriptor descriptor) {
+        public ApplicationVariableResolver(String name, BeanPropertyReader reader) {
             super(name);
-            this.descriptor = descriptor;
+            this.reader = reader;
         }
 
         /** {@inheritDoc} */
         @SuppressWarnings("rawtypes")
         public Class getType() {
-            return descriptor.getPropertyType();
+            return reader.getType();
         }
 
         /** {@inheritDoc} */
         public Object getValue() {
-            Method method = descriptor.getReadMethod();
-            try {
-                return method.invoke(requestHolder.getTilesRequestContext()
-                        .getApplicationContext());
-            } catch (IllegalArgumentException e) {
-                throw new CannotAccessMethodException(
-                        "Arguments are wrong for property '"
-                                + descriptor.getName() + "'", e);
-            } catch (IllegalAccessException e) {
-                throw new CannotAccessMethodException(
-                        "Cannot access getter method for property '"
-                                + descriptor.getName() + "'", e);
-            } catch (InvocationTargetException e) {
-                throw new CannotAccessMethodException(
-                        "The getter method for property '"
-                                + descriptor.getName() + "' threw an exception",
-                        e);
-            }
+            return reader.getValue(requestHolder.getTilesRequestContext()
+                    .getApplicationContext());
         }
     }
 }
@@ -30,6 +30,7 @@ import java.util.Map;
 import org.apache.tiles.Attribute;
 import org.apache.tiles.Expression;
 import org.apache.tiles.context.TilesRequestContextHolder;
+import org.apache.tiles.evaluator.ExpressionCache;
 import org.apache.tiles.request.ApplicationContext;
 import org.apache.tiles.request.Request;
 import org.junit.Before;
@@ -177,6 +178,31 @@ public class MVELAttributeEvaluatorTest {
         verify(request, applicationContext);
     }
 
+    /**
+     * Tests that {@link MVELAttributeEvaluator#evaluate(String, Request)}
+     * interprets expressions by default, and compiles each expression once
+     * when the cache is enabled.
+     */
+    @Test
+    public void testEvaluateCompiled() {
+        assertEquals("value", evaluator.evaluate("requestScope.object1", request));
+        assertEquals(0, evaluator.getExpressionCache().getMaxSize());
+        assertEquals(0, evaluator.getExpressionCache().size());
+
+        evaluator.setExpressionCacheSize(ExpressionCache.DEFAULT_MAX_SIZE);
+        assertEquals("value", evaluator.evaluate("requestScope.object1", request));
+        assertEquals("value", evaluator.evaluate("requestScope.object1", request));
+        assertEquals("Brillant", evaluator.evaluate("paulaBean.paula", request));
+        assertEquals(2, evaluator.getExpressionCache().size());
+        assertEquals(1, evaluator.getExpressionCache().getHits());
+        assertEquals(2, evaluator.getExpressionCache().getMisses());
+
+        evaluator.setExpressionCacheSize(0);
+        assertEquals("value", evaluator.evaluate("requestScope.object1", request));
+        assertEquals(0, evaluator.getExpressionCache().size());
+        verify(request, applicationContext);
+    }
+
     /**
      * This is The Brillant Paula Bean (sic) just like it was posted to:
      * http://thedailywtf.com/Articles/The_Brillant_Paula_Bean.aspx I hope that
@@ -26,23 +26,56 @@ import ognl.OgnlException;
 
 import org.apache.tiles.evaluator.AbstractAttributeEvaluator;
 import org.apache.tiles.evaluator.EvaluationException;
+import org.apache.tiles.evaluator.ExpressionCache;
 import org.apache.tiles.request.Request;
 
 /**
- * Evaluates attribute expressions and expressions with OGNL language.
+ * Evaluates attribute expressions and expressions with OGNL language.<br>
+ * Each expression is parsed once, and its tree is cached by text.
  *
  * @version $Rev$ $Date$
  * @since 2.2.0
  */
 public class OGNLAttributeEvaluator extends AbstractAttributeEvaluator {
 
+    /**
+     * The cache of parsed expression trees.
+     */
+    private ExpressionCache<Object> expressionCache = new ExpressionCache<Object>();
+
+    /**
+     * Sets the maximum number of cached parsed expressions.
+     *
+     * @param expressionCacheSize The maximum size of the cache. <code>0</code>
+     * disables caching.
+     * @since 3.0.6
+     */
+    public void setExpressionCacheSize(int expressionCacheSize) {
+        expressionCache = new ExpressionCache<Object>(expressionCacheSize);
+    }
+
+    /**
+     * Returns the cache of parsed expressions, for instance to read its hit and
+     * miss counters.
+     *
+     * @return The expression cache.
+     * @since 3.0.6
+     */
+    public ExpressionCache<Object> getExpressionCache() {
+        return expressionCache;
+    }
+
     /** {@inheritDoc} */
     public Object evaluate(String expression, Request request) {
         if (expression == null) {
             throw new IllegalArgumentException("The expression parameter cannot be null");
         }
         try {
-            return Ognl.getValue(expression, request);
+            Object tree = expressionCache.get(expression);
+            if (tree == null) {
+                tree = expressionCache.put(expression, Ognl.parseExpression(expression));
+            }
+            return Ognl.getValue(tree, request);
         } catch (OgnlException e) {
             throw new EvaluationException("Cannot evaluate OGNL expression '"
                     + expression + "'", e);
@@ -201,6 +201,20 @@ public class OGNLAttributeEvaluatorTest {
         evaluator.evaluate("wrong|||!!!!yes###", request);
     }
 
+    /**
+     * Tests that {@link OGNLAttributeEvaluator#evaluate(String, Request)}
+     * parses each expression once.
+     */
+    @Test
+    public void testEvaluateCached() {
+        assertEquals("value", evaluator.evaluate("requestScope.object1", request));
+        assertEquals("value", evaluator.evaluate("requestScope.object1", request));
+        assertEquals(new Integer(1), evaluator.evaluate("sessionScope.object2", request));
+        assertEquals(2, evaluator.getExpressionCache().size());
+        assertEquals(1, evaluator.getExpressionCache().getHits());
+        assertEquals(2, evaluator.getExpressionCache().getMisses());
+    }
+
     /**
      * This is The Brillant Paula Bean (sic) just like it was posted to:
      * http://thedailywtf.com/Articles/The_Brillant_Paula_Bean.aspx I hope that
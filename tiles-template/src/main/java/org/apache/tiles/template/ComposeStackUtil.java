@@ -21,8 +21,8 @@
 
 package org.apache.tiles.template;
 
+import java.util.ArrayDeque;
 import java.util.Deque;
-import java.util.LinkedList;
 import java.util.Map;
 
 import org.apache.tiles.request.Request;
@@ -78,7 +78,7 @@ public final class ComposeStackUtil {
         Deque<Object> composeStack = (Deque<Object>) requestScope
                 .get(COMPOSE_STACK_ATTRIBUTE_NAME);
         if (composeStack == null) {
-            composeStack = new LinkedList<Object>();
+            composeStack = new ArrayDeque<Object>();
             requestScope.put(ComposeStackUtil.COMPOSE_STACK_ATTRIBUTE_NAME, composeStack);
         }
         return composeStack;